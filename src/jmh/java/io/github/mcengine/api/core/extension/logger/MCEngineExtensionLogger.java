@@ -0,0 +1,31 @@
+package io.github.mcengine.api.core.extension.logger;
+
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Benchmark stand-in for the core API logger: drops info lines and prints warnings to stderr so
+ * they do not distort timings but are still visible.
+ */
+public class MCEngineExtensionLogger {
+
+    /**
+     * @param plugin    ignored
+     * @param type      ignored
+     * @param extension ignored
+     */
+    public MCEngineExtensionLogger(Plugin plugin, String type, String extension) {
+    }
+
+    /**
+     * @param message ignored
+     */
+    public void info(String message) {
+    }
+
+    /**
+     * @param message warning text
+     */
+    public void warning(String message) {
+        System.err.println("[WARN] " + message);
+    }
+}
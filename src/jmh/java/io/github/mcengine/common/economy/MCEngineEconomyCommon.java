@@ -0,0 +1,106 @@
+package io.github.mcengine.common.economy;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Benchmark stand-in for the economy common API. SQL goes straight to a single JDBC connection,
+ * which is how the real API drives SQLite; coins are not tracked.
+ */
+public class MCEngineEconomyCommon {
+
+    /** Instance returned by {@link #getApi()}. */
+    private static volatile MCEngineEconomyCommon instance;
+
+    /** Open JDBC connection. */
+    private final Connection connection;
+
+    /**
+     * @param connection open JDBC connection
+     */
+    private MCEngineEconomyCommon(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Opens {@code jdbcUrl} and makes it the API returned by {@link #getApi()}.
+     *
+     * @param jdbcUrl JDBC URL, e.g. {@code jdbc:sqlite:/tmp/bench.db}
+     * @return the new API
+     * @throws SQLException if the connection cannot be opened
+     */
+    public static MCEngineEconomyCommon open(String jdbcUrl) throws SQLException {
+        instance = new MCEngineEconomyCommon(DriverManager.getConnection(jdbcUrl));
+        return instance;
+    }
+
+    /**
+     * @return the API opened last
+     */
+    public static MCEngineEconomyCommon getApi() {
+        return instance;
+    }
+
+    /**
+     * Executes a statement, ignoring any result.
+     *
+     * @param query SQL text
+     */
+    public synchronized void executeQuery(String query) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(query);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Executes a statement and returns the first column of its first row.
+     *
+     * @param query SQL text
+     * @param type  expected value type
+     * @param <T>   value type
+     * @return the value, or {@code null} if there is no row
+     */
+    public synchronized <T> T getValue(String query, Class<T> type) {
+        try (Statement statement = connection.createStatement()) {
+            if (!statement.execute(query)) return null;
+            try (ResultSet rs = statement.getResultSet()) {
+                if (!rs.next()) return null;
+                Object value = rs.getObject(1);
+                if (value == null) return null;
+                if (type == Long.class) return type.cast(((Number) value).longValue());
+                if (type == Integer.class) return type.cast(((Number) value).intValue());
+                if (type == String.class) return type.cast(String.valueOf(value));
+                return type.cast(value);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * No-op; the benchmarks do not measure the currency store.
+     *
+     * @param playerId player UUID
+     * @param coinType coin type
+     * @param amount   amount
+     */
+    public void addCoin(UUID playerId, String coinType, int amount) {
+    }
+
+    /**
+     * Closes the connection.
+     */
+    public synchronized void close() {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Benchmark teardown only.
+        }
+    }
+}
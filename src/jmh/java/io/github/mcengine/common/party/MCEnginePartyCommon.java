@@ -0,0 +1,37 @@
+package io.github.mcengine.common.party;
+
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Benchmark stand-in for the party common API, backed by a fixed player-to-party map.
+ */
+public class MCEnginePartyCommon {
+
+    /** Player UUID to party id. */
+    private final Map<UUID, String> partyOf;
+
+    /**
+     * @param partyOf player UUID to party id
+     */
+    public MCEnginePartyCommon(Map<UUID, String> partyOf) {
+        this.partyOf = partyOf;
+    }
+
+    /**
+     * @return {@code null}; benchmarks pass their instance explicitly
+     */
+    public static MCEnginePartyCommon getApi() {
+        return null;
+    }
+
+    /**
+     * @param player player to look up
+     * @return the player's party id, or {@code null}
+     */
+    public String findPlayerPartyId(Player player) {
+        return partyOf.get(player.getUniqueId());
+    }
+}
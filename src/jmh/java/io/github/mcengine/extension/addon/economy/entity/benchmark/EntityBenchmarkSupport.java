@@ -0,0 +1,152 @@
+package io.github.mcengine.extension.addon.economy.entity.benchmark;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Minimal Bukkit stand-ins shared by the benchmarks. Only the calls the benchmarked code makes
+ * are answered; everything else returns {@code null}, zero or {@code false}.
+ */
+final class EntityBenchmarkSupport {
+
+    /** Players returned by {@link Bukkit#getOnlinePlayers()}. */
+    private static volatile List<Player> onlinePlayers = List.of();
+
+    private EntityBenchmarkSupport() {}
+
+    /**
+     * Installs the stub server once per JVM and sets its online players.
+     *
+     * @param players players to report as online
+     */
+    static synchronized void setOnlinePlayers(List<Player> players) {
+        onlinePlayers = List.copyOf(players);
+        if (Bukkit.getServer() != null) return;
+
+        Logger logger = Logger.getLogger("MCEngineEntity-Benchmark");
+        Bukkit.setServer(proxy(Server.class, (method, args) -> switch (method.getName()) {
+            case "getLogger" -> logger;
+            case "getName", "getVersion", "getBukkitVersion" -> "benchmark";
+            case "getOnlinePlayers" -> onlinePlayers;
+            default -> null;
+        }));
+    }
+
+    /**
+     * Creates a player stub that only knows its id and name.
+     *
+     * @param id   player UUID
+     * @param name player name
+     * @return the stub
+     */
+    static Player player(UUID id, String name) {
+        return proxy(Player.class, (method, args) -> switch (method.getName()) {
+            case "getUniqueId" -> id;
+            case "getName" -> name;
+            default -> null;
+        });
+    }
+
+    /**
+     * Creates a plugin stub whose data folder is {@code dataFolder}.
+     *
+     * @param dataFolder plugin data folder
+     * @return the stub
+     */
+    static Plugin plugin(File dataFolder) {
+        return proxy(Plugin.class, (method, args) -> switch (method.getName()) {
+            case "getDataFolder" -> dataFolder;
+            case "getName" -> "MCEngineEntity-Benchmark";
+            default -> null;
+        });
+    }
+
+    /**
+     * @return logger stub that drops info lines
+     */
+    static MCEngineExtensionLogger logger() {
+        return new MCEngineExtensionLogger(null, "AddOn", "MCEngineEntity");
+    }
+
+    /**
+     * Deletes a directory tree, ignoring failures.
+     *
+     * @param root directory to delete
+     */
+    static void deleteRecursively(Path root) {
+        if (root == null || !Files.exists(root)) return;
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException ignored) {
+            // Temporary benchmark files only.
+        }
+    }
+
+    /**
+     * Answers one stubbed call.
+     */
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Method method, Object[] args);
+    }
+
+    /**
+     * Builds an interface proxy that delegates to {@code handler} and falls back to type defaults.
+     *
+     * @param type    interface to implement
+     * @param handler call handler
+     * @param <T>     interface type
+     * @return the proxy
+     */
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode" -> {
+                    return System.identityHashCode(self);
+                }
+                case "equals" -> {
+                    return self == args[0];
+                }
+                case "toString" -> {
+                    return type.getSimpleName() + "Stub@" + Integer.toHexString(System.identityHashCode(self));
+                }
+                default -> {
+                    Object value = handler.handle(method, args);
+                    return value != null ? value : defaultValue(method.getReturnType());
+                }
+            }
+        });
+        return type.cast(proxy);
+    }
+
+    /**
+     * @param type return type
+     * @return the zero value for primitives, otherwise {@code null}
+     */
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0f;
+        if (type == double.class) return 0d;
+        if (type == int.class) return 0;
+        if (type == short.class) return (short) 0;
+        return (byte) 0;
+    }
+}
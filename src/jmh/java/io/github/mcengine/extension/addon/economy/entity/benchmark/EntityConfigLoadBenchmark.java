@@ -0,0 +1,90 @@
+package io.github.mcengine.extension.addon.economy.entity.benchmark;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import io.github.mcengine.extension.addon.economy.entity.util.EntityRewardTable;
+import io.github.mcengine.extension.addon.economy.entity.util.EntityUtil;
+import org.bukkit.plugin.Plugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link EntityUtil#loadAllMobConfigs} over a synthetic tree of reward files, with the
+ * content-hash cache cold (every file parsed) and warm (every file served from the cache).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EntityConfigLoadBenchmark {
+
+    /** Config folder relative to the data folder, as used by the add-on. */
+    private static final String FOLDER_PATH = "extensions/addons/configs/MCEngineEntity";
+
+    /** Entity types cycled through the generated files. */
+    private static final String[] TYPES = {
+            "ZOMBIE", "SKELETON", "CREEPER", "SPIDER", "ENDERMAN", "WITCH", "SLIME", "BLAZE",
+            "GHAST", "PIGLIN", "HOGLIN", "PHANTOM", "DROWNED", "HUSK", "STRAY", "PILLAGER"
+    };
+
+    /** Number of reward files, spread over ten sub-folders. */
+    @Param({"16", "256", "2048"})
+    public int files;
+
+    /** Whether the content-hash cache is populated before each load. */
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private Path dataFolder;
+    private Path cacheFile;
+    private Plugin plugin;
+    private MCEngineExtensionLogger logger;
+
+    @Setup(Level.Trial)
+    public void createTree() throws IOException {
+        dataFolder = Files.createTempDirectory("mcengine-entity-config-bench");
+        Path defaultDir = dataFolder.resolve(FOLDER_PATH).resolve("default");
+        for (int i = 0; i < files; i++) {
+            Path dir = defaultDir.resolve("group-" + (i % 10));
+            Files.createDirectories(dir);
+            String body = "entity: " + TYPES[i % TYPES.length] + "\n"
+                    + "coinType: coin-" + (i % 4) + "\n"
+                    + "amount: " + i + "~" + (i + 100) + "\n";
+            Files.writeString(dir.resolve("reward-" + i + ".yml"), body, StandardCharsets.UTF_8);
+        }
+        cacheFile = dataFolder.resolve(FOLDER_PATH).resolve(".cache/reward-index.bin");
+        plugin = EntityBenchmarkSupport.plugin(dataFolder.toFile());
+        logger = EntityBenchmarkSupport.logger();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareCache() throws IOException {
+        if (cached) {
+            if (!Files.exists(cacheFile)) EntityUtil.loadAllMobConfigs(plugin, FOLDER_PATH, logger);
+        } else {
+            Files.deleteIfExists(cacheFile);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteTree() {
+        EntityBenchmarkSupport.deleteRecursively(dataFolder);
+    }
+
+    @Benchmark
+    public EntityRewardTable load() {
+        return EntityUtil.loadAllMobConfigs(plugin, FOLDER_PATH, logger);
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.mcengine.extension.addon.economy.entity.benchmark;
+
+import io.github.mcengine.common.economy.MCEngineEconomyCommon;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityDB;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogEntry;
+import io.github.mcengine.extension.addon.economy.entity.database.sqlite.EntityDBSQLite;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kill log ingest through {@link EntityDBSQLite#insertKillLogs(List)} into an embedded SQLite
+ * file. One operation inserts one batch; divide by {@code batch} for the per-row cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EntityKillLogBenchmark {
+
+    /** Entity types cycled through the generated rows. */
+    private static final String[] TYPES = {"ZOMBIE", "SKELETON", "CREEPER", "SPIDER"};
+
+    /** Rows per {@code insertKillLogs} call; 200 is the writer's default batch size. */
+    @Param({"1", "50", "200", "1000"})
+    public int batch;
+
+    private Path dir;
+    private MCEngineEconomyCommon api;
+    private EntityDB db;
+    private List<EntityKillLogEntry> entries;
+
+    @Setup(Level.Trial)
+    public void openDatabase() throws IOException, SQLException {
+        dir = Files.createTempDirectory("mcengine-entity-killlog-bench");
+        api = MCEngineEconomyCommon.open("jdbc:sqlite:" + dir.resolve("economy.db"));
+        db = new EntityDBSQLite(EntityBenchmarkSupport.logger());
+        db.ensureSchema();
+    }
+
+    @Setup(Level.Invocation)
+    public void createEntries() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = System.currentTimeMillis();
+        entries = new ArrayList<>(batch);
+        for (int i = 0; i < batch; i++) {
+            entries.add(new EntityKillLogEntry(
+                    new UUID(0L, random.nextInt(1000)).toString(),
+                    TYPES[i % TYPES.length],
+                    "coin",
+                    100 + random.nextInt(100),
+                    now,
+                    UUID.randomUUID().toString()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeDatabase() {
+        db.shutdown();
+        api.close();
+        EntityBenchmarkSupport.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public int insertBatch() {
+        return db.insertKillLogs(entries);
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.mcengine.extension.addon.economy.entity.benchmark;
+
+import io.github.mcengine.common.party.MCEnginePartyCommon;
+import io.github.mcengine.extension.addon.economy.entity.party.EntityPartyIndex;
+import io.github.mcengine.extension.addon.economy.entity.party.EntityPartyRoster;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving a killer's party members through {@link EntityPartyIndex}, both from a fresh
+ * snapshot and when the snapshot has to be rebuilt from the online player list, with and without
+ * offline members from the {@link EntityPartyRoster}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EntityPartyBenchmark {
+
+    /** Online players. */
+    @Param({"10", "100", "500"})
+    public int players;
+
+    /** Members per party; every player is in a party. */
+    @Param({"4"})
+    public int partySize;
+
+    private MCEnginePartyCommon partyApi;
+    private EntityPartyIndex index;
+    private String killerParty;
+    private UUID killerId;
+
+    @Setup(Level.Trial)
+    public void createPlayers() {
+        List<Player> online = new ArrayList<>(players);
+        Map<UUID, String> partyOf = new HashMap<>();
+        for (int i = 0; i < players; i++) {
+            UUID id = new UUID(0L, i);
+            online.add(EntityBenchmarkSupport.player(id, "player" + i));
+            partyOf.put(id, "party-" + (i / partySize));
+        }
+        EntityBenchmarkSupport.setOnlinePlayers(online);
+
+        partyApi = new MCEnginePartyCommon(partyOf);
+        index = new EntityPartyIndex(TimeUnit.HOURS.toMillis(1), new EntityPartyRoster(null, 0L, null));
+        killerId = new UUID(0L, players - 1);
+        killerParty = partyOf.get(killerId);
+    }
+
+    @Benchmark
+    public Set<UUID> cachedLookup() {
+        return index.getMembers(partyApi, killerParty, killerId);
+    }
+
+    @Benchmark
+    public Set<UUID> cachedRosterLookup() {
+        return index.getAllMembers(partyApi, killerParty, killerId);
+    }
+
+    @Benchmark
+    public Set<UUID> rebuildLookup() {
+        index.invalidate();
+        return index.getMembers(partyApi, killerParty, killerId);
+    }
+}
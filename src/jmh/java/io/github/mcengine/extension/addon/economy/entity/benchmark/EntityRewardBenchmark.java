@@ -0,0 +1,113 @@
+package io.github.mcengine.extension.addon.economy.entity.benchmark;
+
+import io.github.mcengine.extension.addon.economy.entity.util.EntityRewardDistribution;
+import io.github.mcengine.extension.addon.economy.entity.util.EntityUtil.RewardConfig;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rolling a reward amount: a fixed amount and a range with a {@link Random} shared by all
+ * reward threads and with {@link ThreadLocalRandom}, plus the alias-table backed distributions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EntityRewardBenchmark {
+
+    /** Reward with {@code min == max}. */
+    private final RewardConfig fixed = new RewardConfig("coin", 0, EntityRewardDistribution.uniform(50, 50));
+
+    /** Reward with a {@code 100~200} range. */
+    private final RewardConfig range = new RewardConfig("coin", 0, EntityRewardDistribution.uniform(100, 200));
+
+    /** Generator shared by all benchmark threads, as a single static {@link Random} would be. */
+    private final Random shared = new Random(42L);
+
+    private RewardConfig weighted;
+    private RewardConfig normal;
+    private RewardConfig geometricWithJackpot;
+
+    @Setup
+    public void compileDistributions() throws InvalidConfigurationException {
+        weighted = compile("""
+                distribution: weighted
+                weights:
+                  "10": 50
+                  "20~40": 30
+                  "100~150": 15
+                  "1000": 5
+                """);
+        normal = compile("""
+                distribution: normal
+                amount: 0~10000
+                mean: 2500
+                stddev: 800
+                """);
+        geometricWithJackpot = compile("""
+                distribution: geometric
+                amount: 1~500
+                p: 0.05
+                jackpot:
+                  chance: 0.001
+                  amount: 5000~10000
+                """);
+    }
+
+    @Benchmark
+    public int fixedAmount() {
+        return fixed.getRandomAmount(ThreadLocalRandom.current());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int rangeAmountSharedRandom() {
+        return range.getRandomAmount(shared);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int rangeAmountThreadLocal() {
+        return range.getRandomAmount(ThreadLocalRandom.current());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int weightedAmount() {
+        return weighted.getRandomAmount(ThreadLocalRandom.current());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int normalAmount() {
+        return normal.getRandomAmount(ThreadLocalRandom.current());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int geometricWithJackpotAmount() {
+        return geometricWithJackpot.getRandomAmount(ThreadLocalRandom.current());
+    }
+
+    /**
+     * @param yaml reward file body
+     * @return the compiled reward
+     * @throws InvalidConfigurationException if the YAML is malformed
+     */
+    private static RewardConfig compile(String yaml) throws InvalidConfigurationException {
+        YamlConfiguration config = new YamlConfiguration();
+        config.loadFromString(yaml);
+        return new RewardConfig("coin", 0, EntityRewardDistribution.parse(config));
+    }
+}
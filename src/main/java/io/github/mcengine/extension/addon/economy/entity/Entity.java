@@ -3,19 +3,50 @@ package io.github.mcengine.extension.addon.economy.entity;
 import io.github.mcengine.api.economy.extension.addon.IMCEngineEconomyAddOn;
 import io.github.mcengine.api.core.MCEngineCoreApi;
 import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import io.github.mcengine.common.economy.MCEngineEconomyCommon;
+import io.github.mcengine.extension.addon.economy.entity.command.EntityCommand;
 import io.github.mcengine.extension.addon.economy.entity.listener.EntityListener;
+import io.github.mcengine.extension.addon.economy.entity.listener.EntitySpawnListener;
+import io.github.mcengine.extension.addon.economy.entity.logging.EntityAuditLog;
+import io.github.mcengine.extension.addon.economy.entity.logging.EntityLog;
+import io.github.mcengine.extension.addon.economy.entity.metrics.EntityMetrics;
+import io.github.mcengine.extension.addon.economy.entity.metrics.EntityMetricsExporter;
+import io.github.mcengine.extension.addon.economy.entity.network.EntityNetworkNode;
+import io.github.mcengine.extension.addon.economy.entity.party.EntityPartyIndex;
+import io.github.mcengine.extension.addon.economy.entity.party.EntityPartyRoster;
+import io.github.mcengine.extension.addon.economy.entity.reward.EntityAntiFarm;
+import io.github.mcengine.extension.addon.economy.entity.reward.EntityRewardAggregator;
+import io.github.mcengine.extension.addon.economy.entity.reward.EntityRewardNotifier;
+import io.github.mcengine.extension.addon.economy.entity.reward.EntityRewardRegistry;
+import io.github.mcengine.extension.addon.economy.entity.reward.EntityRewardWorker;
+import io.github.mcengine.extension.addon.economy.entity.stats.EntityEarnings;
+import io.github.mcengine.extension.addon.economy.entity.stats.EntityEarningsPlaceholders;
 import io.github.mcengine.extension.addon.economy.entity.util.EntityUtil;
+import io.github.mcengine.extension.addon.economy.entity.util.EntityCommandUtil;
 import io.github.mcengine.extension.addon.economy.entity.util.EntityConfigUtil;
+import io.github.mcengine.extension.addon.economy.entity.util.EntityRewardGate;
 import io.github.mcengine.extension.addon.economy.entity.database.EntityDB;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogEntry;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogExport;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogJournal;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogWriter;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityStage;
 import io.github.mcengine.extension.addon.economy.entity.database.sqlite.EntityDBSQLite;
 import io.github.mcengine.extension.addon.economy.entity.database.mysql.EntityDBMySQL;
 import io.github.mcengine.extension.addon.economy.entity.database.postgresql.EntityDBPostgreSQL;
 import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.ServicePriority;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Main class for the MCEngineEntity Economy AddOn.
@@ -28,6 +59,111 @@ public class Entity implements IMCEngineEconomyAddOn {
      */
     private final String folderPath = "extensions/addons/configs/MCEngineEntity";
 
+    /**
+     * Logger created in {@link #onLoad(Plugin)} and reused during unload.
+     */
+    private MCEngineExtensionLogger logger;
+
+    /**
+     * Dialect-specific database accessor, stopped on {@link #onDisload(Plugin)}.
+     */
+    private EntityDB entityDB;
+
+    /**
+     * Write-behind kill log pipeline, flushed on {@link #onDisload(Plugin)}.
+     */
+    private EntityKillLogWriter killLogWriter;
+
+    /**
+     * Dedicated reward executor, drained on {@link #onDisload(Plugin)}.
+     */
+    private EntityRewardWorker rewardWorker;
+
+    /**
+     * Per-player credit aggregator, flushed on {@link #onDisload(Plugin)}.
+     */
+    private EntityRewardAggregator rewardAggregator;
+
+    /**
+     * Batched reward notification sender, stopped on {@link #onDisload(Plugin)}.
+     */
+    private EntityRewardNotifier rewardNotifier;
+
+    /**
+     * Offline-aware party roster, saved on {@link #onDisload(Plugin)}.
+     */
+    private EntityPartyRoster partyRoster;
+
+    /**
+     * Party index listener, unregistered on {@link #onDisload(Plugin)}.
+     */
+    private EntityPartyIndex partyIndex;
+
+    /**
+     * Anti-farm throttle, stopped on {@link #onDisload(Plugin)}; {@code null} if disabled.
+     */
+    private EntityAntiFarm antiFarm;
+
+    /**
+     * Live reward table holder, reloadable at runtime.
+     */
+    private EntityRewardRegistry rewardRegistry;
+
+    /**
+     * Admin command, unregistered on {@link #onDisload(Plugin)}.
+     */
+    private EntityCommand command;
+
+    /**
+     * Optional Prometheus file/HTTP export, stopped on {@link #onDisload(Plugin)}.
+     */
+    private EntityMetricsExporter metricsExporter;
+
+    /**
+     * Background kill log exporter, stopped on {@link #onDisload(Plugin)}.
+     */
+    private EntityKillLogExport killLogExport;
+
+    /**
+     * In-memory earnings totals and leaderboards; {@code null} if disabled.
+     */
+    private EntityEarnings earnings;
+
+    /**
+     * Unregisters the PlaceholderAPI expansion; {@code null} if not registered.
+     */
+    private Runnable placeholderUnregister;
+
+    /**
+     * Network mode node, stopped on {@link #onDisload(Plugin)}; {@code null} outside network mode.
+     */
+    private EntityNetworkNode networkNode;
+
+    /**
+     * Structured reward audit trail, closed on {@link #onDisload(Plugin)}; {@code null} if disabled.
+     */
+    private EntityAuditLog auditLog;
+
+    /**
+     * Death listener; registered only while any reward is configured.
+     */
+    private EntityListener killListener;
+
+    /**
+     * Spawn tagging listener; registered only while a rule matches on spawn reasons.
+     */
+    private EntitySpawnListener spawnListener;
+
+    /**
+     * Whether {@link #killListener} is registered.
+     */
+    private boolean killListenerRegistered;
+
+    /**
+     * Whether {@link #spawnListener} is registered.
+     */
+    private boolean spawnListenerRegistered;
+
     /**
      * Called when the addon is loaded by the plugin.
      * Registers listeners, loads example files, and checks for updates.
@@ -37,6 +173,7 @@ public class Entity implements IMCEngineEconomyAddOn {
     @Override
     public void onLoad(Plugin plugin) {
         MCEngineExtensionLogger logger = new MCEngineExtensionLogger(plugin, "AddOn", "MCEngineEntity");
+        this.logger = logger;
 
         // Create default config.yml
         EntityConfigUtil.createConfig(plugin, folderPath, logger);
@@ -52,6 +189,8 @@ public class Entity implements IMCEngineEconomyAddOn {
         }
 
         try {
+            EntityMetrics metrics = new EntityMetrics();
+
             // Ensure DB schema (dialect-specific) for optional entity logging
             String dbType;
             try {
@@ -60,7 +199,6 @@ public class Entity implements IMCEngineEconomyAddOn {
                 dbType = "sqlite";
             }
 
-            EntityDB entityDB;
             switch (dbType == null ? "sqlite" : dbType.toLowerCase()) {
                 case "mysql" -> entityDB = new EntityDBMySQL(logger);
                 case "postgresql", "postgres" -> entityDB = new EntityDBPostgreSQL(logger);
@@ -72,12 +210,212 @@ public class Entity implements IMCEngineEconomyAddOn {
             }
             entityDB.ensureSchema();
 
+            // Journaled, asynchronous kill log writer; audit logging is skipped if the journal cannot open
+            try {
+                EntityKillLogJournal journal = new EntityKillLogJournal(
+                        logger,
+                        new File(plugin.getDataFolder(), folderPath + "/journal"),
+                        config.getLong("killLog.journalSegmentBytes", 16L * 1024L * 1024L));
+                killLogWriter = new EntityKillLogWriter(
+                        logger,
+                        entityDB,
+                        journal,
+                        config.getInt("killLog.batchSize", 200),
+                        config.getLong("killLog.flushIntervalMs", 1000L),
+                        metrics);
+                killLogWriter.importLegacySpill(new File(plugin.getDataFolder(), folderPath + "/kill-log-spill.tsv"));
+            } catch (IOException e) {
+                logger.warning("Failed to open kill log journal, kill logging disabled: " + e.getMessage());
+            }
+
             // Create example config files
             EntityUtil.createSimpleFiles(plugin, folderPath, logger);
 
             PluginManager pluginManager = Bukkit.getPluginManager();
-            // Pass DB to listener so it can audit per-kill rewards.
-            pluginManager.registerEvents(new EntityListener(plugin, folderPath, logger, entityDB), plugin);
+
+            // Party roster remembers members after they log out so offline members get their share
+            if (config.isSet("party.rosterMaxAgeDays")) {
+                logger.warning("party.rosterMaxAgeDays is no longer read; set party.rosterMaxAgeHours instead.");
+            }
+            partyRoster = new EntityPartyRoster(
+                    new File(plugin.getDataFolder(), folderPath + "/party-roster.dat").toPath(),
+                    TimeUnit.HOURS.toMillis(config.getLong("party.rosterMaxAgeHours", 6L)),
+                    logger);
+
+            // Party index is invalidated on join/quit and otherwise refreshed lazily.
+            partyIndex = new EntityPartyIndex(config.getLong("party.indexTtlMs", 5000L), partyRoster);
+            pluginManager.registerEvents(partyIndex, plugin);
+
+            // Dedicated reward executor, off the shared Bukkit async pool
+            rewardWorker = new EntityRewardWorker(logger,
+                    config.getInt("rewardWorker.threads", 2),
+                    config.getInt("rewardWorker.queueCapacity", 10000),
+                    config.getBoolean("rewardWorker.virtualThreads", true),
+                    metrics);
+
+            // Network mode: paid by whichever node holds the merge lease, which also writes the kill log
+            Consumer<EntityKillLogEntry> killLogSink = killLogWriter == null ? null : killLogWriter::enqueue;
+            if (config.getBoolean("network.enabled", false)) {
+                EntityStage stage = entityDB.stage();
+                if (stage.ensureSchema()) {
+                    // Merged receipts are already gone from the stage, so the merger always coalesces and
+                    // keeps failed payments pending instead of paying each receipt as it is taken
+                    long mergeIntervalMs = config.getLong("network.mergeIntervalMs", 1000L);
+                    long windowMs = config.getLong("rewardAggregation.windowMs", 250L);
+                    networkNode = new EntityNetworkNode(logger, stage,
+                            config.getString("network.nodeId", ""),
+                            TimeUnit.SECONDS.toMillis(config.getLong("network.leaseSeconds", 15L)),
+                            mergeIntervalMs,
+                            new EntityRewardAggregator(logger, MCEngineEconomyCommon.getApi(),
+                                    windowMs > 0 ? windowMs : Math.max(100L, mergeIntervalMs),
+                                    config.getInt("rewardAggregation.maxPendingKills", 500),
+                                    killLogSink,
+                                    config.getInt("rewardWorker.maxConcurrentDbCalls", 4),
+                                    metrics),
+                            metrics);
+                } else {
+                    logger.warning("Network stage unavailable; rewards are paid by this server alone.");
+                }
+            }
+
+            // Fold old raw kill log rows into hourly/daily rollups and keep monthly partitions ahead of the
+            // clock; in network mode only the merge lease holder does. Disabled retention keeps the partitions.
+            EntityNetworkNode leaseNode = networkNode;
+            entityDB.startRollup(
+                    config.getBoolean("retention.enabled", true)
+                            ? TimeUnit.DAYS.toMillis(config.getLong("retention.rawMaxAgeDays", 30L)) : 0L,
+                    TimeUnit.MINUTES.toMillis(config.getLong("retention.intervalMinutes", 60L)),
+                    config.getInt("retention.chunkSize", 5000),
+                    leaseNode == null ? () -> true : leaseNode::isLeader);
+
+            // Earnings totals and leaderboards, seeded once from the kill log and then fed by paid (or, in
+            // network mode, shipped) shares of this server; the seed waits for the previous run's journal
+            Consumer<EntityKillLogEntry> receiptSink = networkNode == null ? killLogSink : null;
+            if (config.getBoolean("earnings.enabled", true)) {
+                EntityEarnings stats = new EntityEarnings(logger);
+                EntityDB db = entityDB;
+                if (killLogWriter == null) {
+                    stats.seed(db);
+                } else {
+                    killLogWriter.whenDrained(() -> stats.seed(db));
+                }
+                Consumer<EntityKillLogEntry> writerSink = receiptSink;
+                receiptSink = writerSink == null ? stats::record : receipt -> {
+                    stats.record(receipt);
+                    writerSink.accept(receipt);
+                };
+                earnings = stats;
+                Bukkit.getServicesManager().register(EntityEarnings.class, stats, plugin, ServicePriority.Normal);
+            }
+
+            // Coalesce credits per player and coin type before they hit the economy DB
+            rewardAggregator = new EntityRewardAggregator(logger, MCEngineEconomyCommon.getApi(),
+                    config.getLong("rewardAggregation.windowMs", 250L),
+                    config.getInt("rewardAggregation.maxPendingKills", 500),
+                    receiptSink,
+                    config.getInt("rewardWorker.maxConcurrentDbCalls", 4),
+                    metrics,
+                    networkNode == null ? null : networkNode::ship);
+            pluginManager.registerEvents(rewardAggregator, plugin);
+
+            // One summarised reward message per player per interval
+            rewardNotifier = new EntityRewardNotifier(plugin,
+                    EntityRewardNotifier.Mode.fromString(config.getString("messages.mode", "CHAT")),
+                    config.getLong("messages.intervalTicks", 20L),
+                    config.getString("messages.single", EntityConfigUtil.DEFAULT_SINGLE_MESSAGE),
+                    config.getString("messages.summary", EntityConfigUtil.DEFAULT_SUMMARY_MESSAGE));
+
+            // Reward tables, reloadable via /mcengineentity reload or the optional file watcher
+            rewardRegistry = new EntityRewardRegistry(plugin, folderPath, logger,
+                    EntityRewardGate.Worlds.fromConfig(config, logger));
+            if (config.getBoolean("reload.watchConfigs", false)) {
+                rewardRegistry.startWatching(config.getLong("reload.watchDebounceMs", 500L));
+            }
+            killLogExport = new EntityKillLogExport(plugin, logger, entityDB,
+                    new File(plugin.getDataFolder(), folderPath + "/exports").toPath());
+            command = new EntityCommand(rewardRegistry, metrics, killLogExport);
+            if (!EntityCommandUtil.register(command, logger)) command = null;
+
+            // Per-player and per-chunk diminishing returns for mob grinders
+            if (config.getBoolean("antiFarm.enabled", true)) {
+                antiFarm = new EntityAntiFarm(
+                        new EntityAntiFarm.Limits(
+                                TimeUnit.SECONDS.toMillis(config.getLong("antiFarm.player.windowSeconds", 60L)),
+                                config.getInt("antiFarm.player.softLimit", 120),
+                                config.getInt("antiFarm.player.hardLimit", 600)),
+                        new EntityAntiFarm.Limits(
+                                TimeUnit.SECONDS.toMillis(config.getLong("antiFarm.chunk.windowSeconds", 300L)),
+                                config.getInt("antiFarm.chunk.softLimit", 200),
+                                config.getInt("antiFarm.chunk.hardLimit", 1000)),
+                        config.getInt("antiFarm.maxTrackedPlayers", 10000),
+                        config.getInt("antiFarm.maxTrackedChunks", 20000));
+            }
+
+            // Spawn reasons are tagged on spawn for rules that match on them
+            NamespacedKey spawnReasonKey = new NamespacedKey(plugin, "entity_spawn_reason");
+            spawnListener = new EntitySpawnListener(rewardRegistry, spawnReasonKey);
+
+            // Console verbosity; the older logging.debug flag still selects DEBUG when no level is set
+            EntityLog log = new EntityLog(logger, EntityLog.Level.fromString(config.getString("logging.level"),
+                    config.getBoolean("logging.debug", false) ? EntityLog.Level.DEBUG : EntityLog.Level.INFO));
+
+            // Optional JSON Lines audit trail, written off-thread through a bounded ring
+            if (config.getBoolean("logging.audit.enabled", false)) {
+                auditLog = new EntityAuditLog(logger,
+                        new File(plugin.getDataFolder(), folderPath + "/audit").toPath(),
+                        config.getInt("logging.audit.bufferSize", 8192),
+                        config.getLong("logging.audit.flushIntervalMs", 1000L),
+                        config.getInt("logging.audit.retainDays", 14),
+                        metrics);
+            }
+
+            killListener = new EntityListener(plugin, rewardRegistry, log,
+                    partyIndex, rewardWorker, rewardAggregator, rewardNotifier,
+                    metrics, antiFarm, spawnReasonKey, auditLog);
+
+            // Death and spawn listeners are registered only while the reward table needs them
+            syncListeners(plugin, rewardRegistry.gate());
+            rewardRegistry.onPublish(gate -> syncListeners(plugin, gate));
+
+            // Earnings placeholders, only when PlaceholderAPI is installed
+            if (earnings != null && config.getBoolean("earnings.placeholders", true)
+                    && pluginManager.getPlugin("PlaceholderAPI") != null) {
+                placeholderUnregister = EntityEarningsPlaceholders.register(plugin, earnings);
+            }
+
+            // Queue gauges, read on demand by /mcengineentity metrics and the exporters
+            EntityRewardWorker worker = rewardWorker;
+            EntityRewardAggregator aggregator = rewardAggregator;
+            EntityKillLogWriter writer = killLogWriter;
+            metrics.registerGauge("reward_worker_queue_depth", "Kills waiting for a reward worker.", worker::queueSize);
+            metrics.registerGauge("reward_aggregator_pending", "Coalesced credits not yet applied.", aggregator::pendingCount);
+            if (writer != null) {
+                metrics.registerGauge("kill_log_journal_backlog_bytes", "Journaled kill log bytes not yet shipped.", writer::backlogBytes);
+            }
+            EntityAntiFarm farm = antiFarm;
+            if (farm != null) {
+                metrics.registerGauge("anti_farm_tracked", "Players and chunks tracked by the anti-farm throttle.", farm::trackedCount);
+            }
+            EntityNetworkNode node = networkNode;
+            if (node != null) {
+                metrics.registerGauge("network_merge_leader", "1 while this server holds the network merge lease.",
+                        () -> node.isLeader() ? 1L : 0L);
+            }
+            metrics.registerGauge("party_roster_players", "Players in the party roster, offline included.", partyRoster::size);
+            EntityAuditLog audit = auditLog;
+            if (audit != null) {
+                metrics.registerGauge("audit_backlog", "Audit events waiting to be written.", audit::backlog);
+            }
+
+            metricsExporter = new EntityMetricsExporter(logger, metrics);
+            if (config.getBoolean("metrics.prometheusFile.enabled", false)) {
+                metricsExporter.startFile(new File(plugin.getDataFolder(), folderPath + "/metrics.prom"),
+                        TimeUnit.SECONDS.toMillis(config.getLong("metrics.prometheusFile.intervalSeconds", 15L)));
+            }
+            if (config.getBoolean("metrics.http.enabled", false)) {
+                metricsExporter.startHttp(config.getString("metrics.http.host", "127.0.0.1"),
+                        config.getInt("metrics.http.port", 9464));
+            }
 
         } catch (Exception e) {
             logger.warning("Failed to initialize Entity: " + e.getMessage());
@@ -85,6 +423,40 @@ public class Entity implements IMCEngineEconomyAddOn {
         }
     }
 
+    /**
+     * Registers or unregisters the death and spawn listeners to match the live reward table, so
+     * deaths and spawns are not dispatched to this addon at all while nothing would be rewarded.
+     * Runs on the main thread after the initial load and after every reload.
+     *
+     * @param plugin the Bukkit plugin instance
+     * @param gate   the live reward gate
+     */
+    private void syncListeners(Plugin plugin, EntityRewardGate gate) {
+        if (rewardRegistry == null) return;
+        killListenerRegistered = syncListener(plugin, killListener, killListenerRegistered, !gate.isEmpty());
+        spawnListenerRegistered = syncListener(plugin, spawnListener, spawnListenerRegistered,
+                gate.table().rules().tagsAnySpawnReason());
+        if (gate.isEmpty()) {
+            logger.info("No entity rewards loaded; entity death listener not registered.");
+        }
+    }
+
+    /**
+     * @param plugin     the Bukkit plugin instance
+     * @param listener   listener to (un)register
+     * @param registered whether it is currently registered
+     * @param needed     whether it should be registered
+     * @return whether it is registered afterwards
+     */
+    private static boolean syncListener(Plugin plugin, Listener listener, boolean registered, boolean needed) {
+        if (needed && !registered) {
+            Bukkit.getPluginManager().registerEvents(listener, plugin);
+        } else if (!needed && registered) {
+            HandlerList.unregisterAll(listener);
+        }
+        return needed;
+    }
+
     /**
      * Sets the unique identifier for the Entity AddOn.
      *
@@ -97,9 +469,87 @@ public class Entity implements IMCEngineEconomyAddOn {
 
     /**
      * Called when the AddOn is disabled or unloaded.
+     * Drains queued rewards, applies pending coalesced credits and sends the last reward messages,
+     * then flushes any kill log rows still pending in the write-behind queue.
      *
      * @param plugin The Bukkit plugin instance.
      */
     @Override
-    public void onDisload(Plugin plugin) {}
+    public void onDisload(Plugin plugin) {
+        if (killListenerRegistered) {
+            HandlerList.unregisterAll(killListener);
+            killListenerRegistered = false;
+        }
+        if (spawnListenerRegistered) {
+            HandlerList.unregisterAll(spawnListener);
+            spawnListenerRegistered = false;
+        }
+        if (partyIndex != null) {
+            HandlerList.unregisterAll(partyIndex);
+            partyIndex = null;
+        }
+        if (command != null) {
+            EntityCommandUtil.unregister(command, logger);
+            command = null;
+        }
+        if (killLogExport != null) {
+            killLogExport.shutdown();
+            killLogExport = null;
+        }
+        if (placeholderUnregister != null) {
+            placeholderUnregister.run();
+            placeholderUnregister = null;
+        }
+        if (metricsExporter != null) {
+            metricsExporter.shutdown();
+            metricsExporter = null;
+        }
+        if (rewardRegistry != null) {
+            rewardRegistry.onPublish(null);
+            rewardRegistry.shutdown();
+            rewardRegistry = null;
+        }
+        if (antiFarm != null) {
+            antiFarm.shutdown();
+            antiFarm = null;
+        }
+        if (rewardWorker != null) {
+            rewardWorker.shutdown(10000L);
+            rewardWorker = null;
+        }
+        if (rewardAggregator != null) {
+            HandlerList.unregisterAll(rewardAggregator);
+            rewardAggregator.shutdown();
+            rewardAggregator = null;
+        }
+        if (rewardNotifier != null) {
+            rewardNotifier.shutdown();
+            rewardNotifier = null;
+        }
+        if (networkNode != null) {
+            networkNode.shutdown();
+            networkNode = null;
+        }
+        if (auditLog != null) {
+            auditLog.shutdown(5000L);
+            auditLog = null;
+        }
+        if (partyRoster != null) {
+            partyRoster.shutdown();
+            partyRoster = null;
+        }
+        if (earnings != null) {
+            Bukkit.getServicesManager().unregister(earnings);
+            earnings.shutdown();
+            earnings = null;
+        }
+        if (killLogWriter != null) {
+            killLogWriter.shutdown();
+            killLogWriter = null;
+        }
+        if (entityDB != null) {
+            entityDB.shutdown();
+            entityDB = null;
+        }
+    }
 }
@@ -0,0 +1,163 @@
+package io.github.mcengine.extension.addon.economy.entity.command;
+
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogExport;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogFilter;
+import io.github.mcengine.extension.addon.economy.entity.metrics.EntityMetrics;
+import io.github.mcengine.extension.addon.economy.entity.reward.EntityRewardRegistry;
+import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Admin command for the Entity AddOn: {@code /mcengineentity reload|metrics|export}.
+ */
+public class EntityCommand extends Command {
+
+    /** Permission required to run any subcommand. */
+    public static final String PERMISSION = "mcengine.entity.admin";
+
+    /** Known subcommands, used for tab completion. */
+    private static final List<String> SUBCOMMANDS = List.of("reload", "metrics", "export");
+
+    /** Usage of {@code export}. */
+    private static final String EXPORT_USAGE = "export <csv|jsonl> [player:<uuid|name>] [entity:<type>] [coin:<type>]"
+            + " [from:<yyyy-mm-dd>] [to:<yyyy-mm-dd>]";
+
+    /** Registry reloaded by {@code reload}. */
+    private final EntityRewardRegistry rewardRegistry;
+
+    /** Metrics printed by {@code metrics}. */
+    private final EntityMetrics metrics;
+
+    /** Kill log exporter used by {@code export}. */
+    private final EntityKillLogExport export;
+
+    /**
+     * Creates the command.
+     *
+     * @param rewardRegistry registry reloaded by {@code reload}
+     * @param metrics        metrics printed by {@code metrics}
+     * @param export         kill log exporter used by {@code export}
+     */
+    public EntityCommand(EntityRewardRegistry rewardRegistry, EntityMetrics metrics, EntityKillLogExport export) {
+        super("mcengineentity", "Manage the MCEngine Entity AddOn.", "/mcengineentity <reload|metrics|export>", List.of("entityreward"));
+        setPermission(PERMISSION);
+        this.rewardRegistry = rewardRegistry;
+        this.metrics = metrics;
+        this.export = export;
+    }
+
+    @Override
+    public boolean execute(CommandSender sender, String label, String[] args) {
+        if (!testPermission(sender)) return true;
+
+        if (args.length == 0) {
+            sender.sendMessage("§eUsage: /" + label + " <" + String.join("|", SUBCOMMANDS) + ">");
+            return true;
+        }
+
+        switch (args[0].toLowerCase(Locale.ROOT)) {
+            case "reload" -> {
+                boolean started = rewardRegistry.reload(table ->
+                        sender.sendMessage("§aReloaded §e" + table.size() + "§a entity reward configs."));
+                sender.sendMessage(started ? "§7Reloading entity reward configs..." : "§cA reload is already in progress.");
+            }
+            case "metrics" -> {
+                sender.sendMessage("§6MCEngine Entity metrics:");
+                for (String line : metrics.summaryLines()) {
+                    sender.sendMessage("§7" + line);
+                }
+            }
+            case "export" -> export(sender, label, args);
+            default -> sender.sendMessage("§cUnknown subcommand. Usage: /" + label + " <" + String.join("|", SUBCOMMANDS) + ">");
+        }
+        return true;
+    }
+
+    /**
+     * Parses {@code export} arguments and starts the export.
+     *
+     * @param sender command sender
+     * @param label  command label
+     * @param args   all arguments, {@code args[0]} being {@code export}
+     */
+    private void export(CommandSender sender, String label, String[] args) {
+        EntityKillLogExport.Format format = args.length < 2 ? null : EntityKillLogExport.Format.fromString(args[1]);
+        if (format == null) {
+            sender.sendMessage("§eUsage: /" + label + " " + EXPORT_USAGE);
+            return;
+        }
+
+        UUID playerId = null;
+        String entityType = null;
+        String coinType = null;
+        long fromMillis = 0L;
+        long toMillis = 0L;
+        try {
+            for (int i = 2; i < args.length; i++) {
+                int sep = args[i].indexOf(':');
+                String key = sep < 0 ? args[i] : args[i].substring(0, sep).toLowerCase(Locale.ROOT);
+                String value = sep < 0 ? "" : args[i].substring(sep + 1);
+                switch (key) {
+                    case "player" -> playerId = resolvePlayer(value);
+                    case "entity" -> entityType = value.toUpperCase(Locale.ROOT);
+                    case "coin" -> coinType = value;
+                    case "from" -> fromMillis = startOfDay(LocalDate.parse(value));
+                    case "to" -> toMillis = startOfDay(LocalDate.parse(value).plusDays(1));
+                    default -> throw new IllegalArgumentException("Unknown filter '" + args[i] + "'");
+                }
+            }
+            EntityKillLogFilter filter = new EntityKillLogFilter(playerId, entityType, coinType, fromMillis, toMillis);
+            boolean started = export.start(filter, format, message -> sender.sendMessage("§a" + message));
+            sender.sendMessage(started ? "§7Exporting kill log..." : "§cAn export is already in progress.");
+        } catch (DateTimeParseException e) {
+            sender.sendMessage("§cInvalid date '" + e.getParsedString() + "' (expected yyyy-mm-dd).");
+        } catch (IllegalArgumentException e) {
+            sender.sendMessage("§c" + e.getMessage() + ". Usage: /" + label + " " + EXPORT_USAGE);
+        }
+    }
+
+    /**
+     * @param value player UUID, or name of an online player
+     * @return the player's UUID
+     * @throws IllegalArgumentException if the value is neither
+     */
+    private static UUID resolvePlayer(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            Player player = Bukkit.getPlayerExact(value);
+            if (player != null) return player.getUniqueId();
+            throw new IllegalArgumentException("Unknown player '" + value + "' (use a UUID for offline players)");
+        }
+    }
+
+    /**
+     * @param date date in the server's time zone
+     * @return epoch millis of its start
+     */
+    private static long startOfDay(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Override
+    public List<String> tabComplete(CommandSender sender, String alias, String[] args) {
+        List<String> matches = new ArrayList<>();
+        if (args.length == 1 && sender.hasPermission(PERMISSION)) {
+            String prefix = args[0].toLowerCase(Locale.ROOT);
+            for (String sub : SUBCOMMANDS) {
+                if (sub.startsWith(prefix)) matches.add(sub);
+            }
+        }
+        return matches;
+    }
+}
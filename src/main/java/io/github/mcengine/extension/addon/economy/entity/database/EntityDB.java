@@ -1,12 +1,23 @@
 package io.github.mcengine.extension.addon.economy.entity.database;
 
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
 /**
  * Abstraction for Economy Entity database operations (multi-dialect support).
  *
- * <p>Implementations should manage the table:</p>
+ * <p>Implementations should manage the tables (schema v3):</p>
  * <ul>
  *   <li><strong>economy_entity_kill_log</strong>:
- *       kill_id (PK), player_uuid, entity_type, coin_type, amount, created_time</li>
+ *       kill_id (PK), reward_key (unique idempotency key), player_uuid (16-byte/native UUID),
+ *       entity_type_id, coin_type_id, amount, created_time</li>
+ *   <li><strong>economy_entity_type_dict</strong> / <strong>economy_entity_coin_dict</strong>:
+ *       small-int id, unique name</li>
+ *   <li><strong>economy_entity_kill_rollup_hour</strong> / <strong>economy_entity_kill_rollup_day</strong>:
+ *       bucket_start, player_uuid, entity_type_id, coin_type_id (PK), kills, total_amount</li>
+ *   <li><strong>economy_entity_schema</strong>: schema version, migration and rollup progress</li>
+ *   <li><strong>economy_entity_stage</strong> / <strong>economy_entity_lease</strong>: network mode
+ *       staging rows and merge lease, created only when network mode is enabled</li>
  * </ul>
  */
 public interface EntityDB {
@@ -15,12 +26,72 @@ public interface EntityDB {
     void ensureSchema();
 
     /**
-     * Inserts a kill log row (optional utility for future features).
+     * Inserts a single kill log row (optional utility for future features). A row whose reward key
+     * is already present is not inserted again.
+     *
+     * @param entry row to insert
+     * @return the row's {@code kill_id} as generated by the database (or of the existing row with
+     *         the same reward key), or {@code null} if it could not be determined
+     */
+    Long insertKillLog(EntityKillLogEntry entry);
+
+    /**
+     * Inserts many kill log rows using the dialect's fastest ingest path.
+     * <p>
+     * Rows are written in order, in one or more chunks. Writing stops at the first chunk that
+     * fails, so callers can retry exactly the rows that were not persisted. Rows whose reward key
+     * already exists are skipped, so retrying or replaying a chunk never duplicates it.
+     *
+     * @param entries rows to insert
+     * @return number of leading rows from {@code entries} that were persisted
+     */
+    int insertKillLogs(List<EntityKillLogEntry> entries);
+
+    /**
+     * Starts the background job that folds raw kill log rows older than {@code rawMaxAgeMillis}
+     * into the hourly and daily rollup tables and deletes them. The same job keeps the dialect's
+     * monthly kill log partitions ahead of the clock. When several servers share the database,
+     * only the one for which {@code active} returns {@code true} may run it, or the same rows are
+     * counted once per server.
+     *
+     * @param rawMaxAgeMillis age after which raw rows are rolled up; {@code 0} keeps raw rows and
+     *                        only maintains partitions
+     * @param intervalMillis  delay between runs
+     * @param chunkSize       rows per rollup/delete chunk
+     * @param active          checked before every chunk; the job skips work while it returns {@code false}
+     */
+    void startRollup(long rawMaxAgeMillis, long intervalMillis, int chunkSize, BooleanSupplier active);
+
+    /**
+     * Streams lifetime earnings per (player, entity type, coin type) from the daily rollup and
+     * the raw kill log, keyset-paged by player (see {@link EntityEarningsLoader}).
+     *
+     * @param beforeMillis raw kill log rows at or after this epoch millis are skipped
+     * @param sink         receives the aggregated rows
+     * @return {@code true} if every row was read
+     */
+    boolean loadEarnings(long beforeMillis, EntityEarningsLoader.Sink sink);
+
+    /**
+     * Reads one keyset page of kill log rows in {@code kill_id} order (see {@link EntityKillLogReader}).
+     * Walk all matching rows by passing each page's {@link EntityKillLogPage#nextCursor()} as
+     * {@code afterKillId} until {@link EntityKillLogPage#hasMore()} is {@code false}.
      *
-     * @param playerUuid UUID string of the player
-     * @param entityType killed entity type name
-     * @param coinType   rewarded coin type
-     * @param amount     rewarded amount
+     * @param filter      row filter
+     * @param afterKillId exclusive {@code kill_id} cursor; {@code 0} for the first page
+     * @param limit       most rows to return, capped at {@link EntityKillLogReader#MAX_PAGE_ROWS}
+     * @return the page, or {@code null} if the query failed
      */
-    void insertKillLog(String playerUuid, String entityType, String coinType, int amount);
+    EntityKillLogPage queryKillLog(EntityKillLogFilter filter, long afterKillId, int limit);
+
+    /**
+     * Returns the network mode stage (see {@link EntityStage}). Its tables are created by
+     * {@link EntityStage#ensureSchema()}, not by {@link #ensureSchema()}.
+     *
+     * @return the stage
+     */
+    EntityStage stage();
+
+    /** Stops background work such as online migrations and rollups. */
+    void shutdown();
 }
@@ -0,0 +1,70 @@
+package io.github.mcengine.extension.addon.economy.entity.database;
+
+import io.github.mcengine.common.economy.MCEngineEconomyCommon;
+import io.github.mcengine.extension.addon.economy.entity.util.EntitySqlUtil;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Small-int dictionary backed by a {@code (id, name UNIQUE)} table, used to store entity and coin
+ * types compactly in the kill log.
+ * <p>
+ * Ids are cached in memory after the first lookup, so only the first sighting of a name costs a
+ * round-trip. New names are inserted with the dialect's insert-or-ignore form, so concurrent
+ * nodes or threads that race on the same name converge on one id.
+ */
+public class EntityDictionary {
+
+    /** Dictionary table name. */
+    private final String table;
+
+    /** Id column name. */
+    private final String idColumn;
+
+    /** Statement prefix up to and including {@code INTO}, e.g. {@code "INSERT IGNORE INTO "}. */
+    private final String insertPrefix;
+
+    /** Statement suffix after the values, e.g. {@code " ON CONFLICT (name) DO NOTHING"}. */
+    private final String insertSuffix;
+
+    /** Cached name to id mappings. */
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a dictionary accessor.
+     *
+     * @param table        dictionary table name
+     * @param idColumn     id column name
+     * @param insertPrefix dialect insert-or-ignore prefix ending in {@code INTO }
+     * @param insertSuffix dialect insert-or-ignore suffix (may be empty)
+     */
+    public EntityDictionary(String table, String idColumn, String insertPrefix, String insertSuffix) {
+        this.table = table;
+        this.idColumn = idColumn;
+        this.insertPrefix = insertPrefix;
+        this.insertSuffix = insertSuffix;
+    }
+
+    /**
+     * Returns the id for a name, creating the dictionary row if needed.
+     *
+     * @param name entity or coin type name
+     * @return the dictionary id
+     * @throws IllegalStateException if the id cannot be resolved
+     */
+    public int idOf(String name) {
+        Integer cached = ids.get(name);
+        if (cached != null) return cached;
+
+        StringBuilder literal = EntitySqlUtil.appendLiteral(new StringBuilder(), name);
+        MCEngineEconomyCommon.getApi().executeQuery(
+                insertPrefix + table + " (name) VALUES (" + literal + ")" + insertSuffix + ";");
+        Integer id = MCEngineEconomyCommon.getApi().getValue(
+                "SELECT " + idColumn + " FROM " + table + " WHERE name = " + literal + ";", Integer.class);
+        if (id == null) throw new IllegalStateException("Could not resolve " + table + " id for '" + name + "'");
+
+        ids.put(name, id);
+        return id;
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.mcengine.extension.addon.economy.entity.database;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import io.github.mcengine.common.economy.MCEngineEconomyCommon;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Reads lifetime earnings per (player, entity type, coin type) from the daily rollup and the raw
+ * kill log, for seeding the in-memory earnings aggregates at startup.
+ * <p>
+ * The economy DB API only returns single values, so each page is one query that aggregates its
+ * rows into a single text value with the dialect's string aggregate. Pages hold up to
+ * {@link #PAGE_PLAYERS} players and are walked by keyset on {@code player_uuid}, so every page is
+ * an index range scan and a player's totals always come from one statement, even while the
+ * rollup job moves their rows. Each row is encoded as
+ * {@code playerHex,entityTypeHex,coinTypeHex,kills,amount} with names hex-encoded, so rows may be
+ * separated by anything outside {@code [0-9a-fA-F,]} (a newline, or JSON array punctuation).
+ */
+public class EntityEarningsLoader {
+
+    /** Players per page. */
+    public static final int PAGE_PLAYERS = 500;
+
+    /** Anything that cannot occur inside an encoded row. */
+    private static final Pattern ROW_SEPARATOR = Pattern.compile("[^0-9a-fA-F,]+");
+
+    /** Keyset cursor before the first player; excludes the all-zero UUID used for unknown players. */
+    private static final String FIRST_CURSOR = "0".repeat(32);
+
+    /**
+     * Receives one aggregated row.
+     */
+    @FunctionalInterface
+    public interface Sink {
+
+        /**
+         * @param playerId   rewarded player
+         * @param entityType killed entity type name
+         * @param coinType   coin type
+         * @param kills      rewarded kills
+         * @param amount     total amount
+         */
+        void accept(UUID playerId, String entityType, String coinType, long kills, long amount);
+    }
+
+    /** Logger for diagnostics. */
+    private final MCEngineExtensionLogger logger;
+
+    /** Dialect name used in log messages. */
+    private final String dialect;
+
+    /**
+     * Page query returning one text value, receiving the exclusive keyset cursor as 32 lowercase
+     * hex digits in {@code %1$s}, the page size in {@code %2$d} and the raw row cutoff in epoch
+     * seconds in {@code %3$d}.
+     */
+    private final String pageSql;
+
+    /**
+     * Creates the loader.
+     *
+     * @param logger  extension logger
+     * @param dialect dialect name for log messages
+     * @param pageSql page query format (see {@link #pageSql})
+     */
+    public EntityEarningsLoader(MCEngineExtensionLogger logger, String dialect, String pageSql) {
+        this.logger = logger;
+        this.dialect = dialect;
+        this.pageSql = pageSql;
+    }
+
+    /**
+     * Streams every earnings row created before {@code beforeMillis} into {@code sink}.
+     *
+     * @param beforeMillis raw kill log rows at or after this epoch millis are skipped
+     * @param sink         receives the rows
+     * @return {@code true} if every page was read, {@code false} if interrupted or a query failed
+     */
+    public boolean load(long beforeMillis, Sink sink) {
+        String cursor = FIRST_CURSOR;
+        long rows = 0;
+        try {
+            if (EntitySchemaMeta.get(EntitySchemaMeta.V2_COPY_MAX_ID) != null && logger != null) {
+                logger.info("[EntityDB] " + dialect + " earnings exclude legacy rows not yet migrated.");
+            }
+            while (!Thread.currentThread().isInterrupted()) {
+                String page = MCEngineEconomyCommon.getApi().getValue(
+                        pageSql.formatted(cursor, PAGE_PLAYERS, beforeMillis / 1000L), String.class);
+                if (page == null || page.isEmpty()) return true;
+
+                String last = cursor;
+                for (String row : ROW_SEPARATOR.split(page)) {
+                    String[] f = row.split(",", -1);
+                    if (f.length != 5 || f[0].length() != 32) continue;
+                    String player = f[0].toLowerCase();
+                    sink.accept(uuid(player), text(f[1], "UNKNOWN"), text(f[2], ""),
+                            Long.parseLong(f[3]), Long.parseLong(f[4]));
+                    rows++;
+                    // Rows may come in any order (e.g. JSON_ARRAYAGG); the cursor is the highest player seen.
+                    if (player.compareTo(last) > 0) last = player;
+                }
+                if (last.equals(cursor)) return true;
+                cursor = last;
+            }
+            return false;
+        } catch (Exception e) {
+            if (logger != null) logger.warning("[EntityDB] " + dialect + " earnings load stopped after "
+                    + rows + " rows: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @param hex 32 lowercase hex digits
+     * @return the UUID they encode
+     */
+    private static UUID uuid(String hex) {
+        return new UUID(Long.parseUnsignedLong(hex.substring(0, 16), 16), Long.parseUnsignedLong(hex.substring(16), 16));
+    }
+
+    /**
+     * @param hex      hex-encoded UTF-8 text
+     * @param fallback value for empty text
+     * @return the decoded text
+     */
+    private static String text(String hex, String fallback) {
+        if (hex.isEmpty()) return fallback;
+        return new String(HexFormat.of().parseHex(hex), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.mcengine.extension.addon.economy.entity.database;
+
+/**
+ * Immutable row destined for the {@code economy_entity_kill_log} table.
+ *
+ * @param playerUuid UUID string of the rewarded player
+ * @param entityType killed entity type name
+ * @param coinType   rewarded coin type
+ * @param amount     rewarded amount
+ * @param createdAt  epoch millis at which the reward was granted
+ * @param rewardKey  idempotency key (UUID string) of this reward share, or {@code null} for legacy rows
+ */
+public record EntityKillLogEntry(String playerUuid, String entityType, String coinType, int amount, long createdAt,
+                                 String rewardKey) {
+
+    /**
+     * Serializes this entry as a single tab-separated line (used by the legacy spill file).
+     *
+     * @return the encoded line without a trailing newline
+     */
+    public String toLine() {
+        return playerUuid + '\t' + entityType + '\t' + coinType + '\t' + amount + '\t' + createdAt
+                + (rewardKey == null ? "" : "\t" + rewardKey);
+    }
+
+    /**
+     * Parses a line produced by {@link #toLine()}. Lines without a reward key are accepted.
+     *
+     * @param line encoded line
+     * @return the decoded entry, or {@code null} if the line is malformed
+     */
+    public static EntityKillLogEntry fromLine(String line) {
+        String[] parts = line.split("\t");
+        if (parts.length != 5 && parts.length != 6) return null;
+        try {
+            return new EntityKillLogEntry(parts[0], parts[1], parts[2],
+                    Integer.parseInt(parts[3]), Long.parseLong(parts[4]), parts.length == 6 ? parts[5] : null);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package io.github.mcengine.extension.addon.economy.entity.database;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Streams filtered kill log rows to a CSV or JSON Lines file.
+ * <p>
+ * Rows are read with {@link EntityDB#queryKillLog} one keyset page at a time and written straight
+ * to a buffered file, so memory stays constant however many rows match. One export runs at a
+ * time, on its own daemon thread, and the file appears under its final name only once complete.
+ */
+public class EntityKillLogExport {
+
+    /**
+     * Output format.
+     */
+    public enum Format {
+
+        /** Comma-separated values with a header row. */
+        CSV("csv"),
+
+        /** One JSON object per line. */
+        JSONL("jsonl");
+
+        /** File extension. */
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * @param name format name, case-insensitive
+         * @return the format, or {@code null} if unknown
+         */
+        public static Format fromString(String name) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(name) || format.name().equalsIgnoreCase(name)) return format;
+            }
+            return null;
+        }
+    }
+
+    /** Export file name timestamp. */
+    private static final DateTimeFormatter FILE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss", Locale.ROOT).withZone(ZoneOffset.UTC);
+
+    /** Plugin used to report completion on the main thread. */
+    private final Plugin plugin;
+
+    /** Logger for diagnostics. */
+    private final MCEngineExtensionLogger logger;
+
+    /** Kill log database. */
+    private final EntityDB entityDB;
+
+    /** Directory receiving export files. */
+    private final Path directory;
+
+    /** Running export, or {@code null}. */
+    private Thread running;
+
+    /**
+     * Creates the exporter.
+     *
+     * @param plugin    plugin used to report completion on the main thread
+     * @param logger    extension logger
+     * @param entityDB  kill log database
+     * @param directory directory receiving export files
+     */
+    public EntityKillLogExport(Plugin plugin, MCEngineExtensionLogger logger, EntityDB entityDB, Path directory) {
+        this.plugin = plugin;
+        this.logger = logger;
+        this.entityDB = entityDB;
+        this.directory = directory;
+    }
+
+    /**
+     * Starts an export in the background.
+     *
+     * @param filter     rows to export
+     * @param format     output format
+     * @param onComplete receives a summary message on the main thread when the export ends
+     * @return {@code false} if another export is still running
+     */
+    public synchronized boolean start(EntityKillLogFilter filter, Format format, Consumer<String> onComplete) {
+        if (running != null && running.isAlive()) return false;
+        Path file = directory.resolve("kill-log-" + FILE_TIME.format(Instant.now()) + "." + format.extension);
+        running = new Thread(() -> {
+            String message;
+            try {
+                long start = System.nanoTime();
+                long rows = export(filter, format, file);
+                message = rows < 0 ? "Export stopped; see the server log."
+                        : "Exported " + rows + " rows to " + file + " in " + (System.nanoTime() - start) / 1_000_000L + "ms.";
+            } catch (IOException e) {
+                if (logger != null) logger.warning("[EntityDB] Export to " + file + " failed: " + e.getMessage());
+                message = "Export failed: " + e.getMessage();
+            }
+            String result = message;
+            if (plugin.isEnabled()) Bukkit.getScheduler().runTask(plugin, () -> onComplete.accept(result));
+        }, "MCEngineEntity-Export");
+        running.setDaemon(true);
+        running.start();
+        return true;
+    }
+
+    /**
+     * Stops a running export; its partial file is removed.
+     */
+    public synchronized void shutdown() {
+        if (running != null) running.interrupt();
+    }
+
+    /**
+     * Writes every matching row to {@code file}.
+     *
+     * @param filter rows to export
+     * @param format output format
+     * @param file   destination
+     * @return rows written, or {@code -1} if a read failed or the export was interrupted
+     * @throws IOException on write failure
+     */
+    private long export(EntityKillLogFilter filter, Format format, Path file) throws IOException {
+        Files.createDirectories(directory);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long rows = 0;
+        boolean complete = false;
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            if (format == Format.CSV) out.write("kill_id,player_uuid,entity_type,coin_type,amount,created_at,reward_key\n");
+            long cursor = 0L;
+            while (!Thread.currentThread().isInterrupted()) {
+                EntityKillLogPage page = entityDB.queryKillLog(filter, cursor, EntityKillLogReader.MAX_PAGE_ROWS);
+                if (page == null) break;
+                for (EntityKillLogPage.Row row : page.rows()) {
+                    if (format == Format.CSV) writeCsv(out, row); else writeJson(out, row);
+                }
+                rows += page.rows().size();
+                if (!page.hasMore()) {
+                    complete = true;
+                    break;
+                }
+                cursor = page.nextCursor();
+            }
+        } finally {
+            if (!complete) Files.deleteIfExists(tmp);
+        }
+        if (!complete) return -1L;
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows;
+    }
+
+    /**
+     * @param out destination
+     * @param row row to write as one CSV line
+     * @throws IOException on write failure
+     */
+    private static void writeCsv(Writer out, EntityKillLogPage.Row row) throws IOException {
+        EntityKillLogEntry e = row.entry();
+        out.write(Long.toString(row.killId()));
+        out.write(',');
+        out.write(csv(e.playerUuid()));
+        out.write(',');
+        out.write(csv(e.entityType()));
+        out.write(',');
+        out.write(csv(e.coinType()));
+        out.write(',');
+        out.write(Integer.toString(e.amount()));
+        out.write(',');
+        out.write(Instant.ofEpochMilli(e.createdAt()).toString());
+        out.write(',');
+        out.write(csv(e.rewardKey()));
+        out.write('\n');
+    }
+
+    /**
+     * @param out destination
+     * @param row row to write as one JSON object line
+     * @throws IOException on write failure
+     */
+    private static void writeJson(Writer out, EntityKillLogPage.Row row) throws IOException {
+        EntityKillLogEntry e = row.entry();
+        out.write("{\"kill_id\":");
+        out.write(Long.toString(row.killId()));
+        out.write(",\"player_uuid\":");
+        out.write(json(e.playerUuid()));
+        out.write(",\"entity_type\":");
+        out.write(json(e.entityType()));
+        out.write(",\"coin_type\":");
+        out.write(json(e.coinType()));
+        out.write(",\"amount\":");
+        out.write(Integer.toString(e.amount()));
+        out.write(",\"created_at\":\"");
+        out.write(Instant.ofEpochMilli(e.createdAt()).toString());
+        out.write("\",\"reward_key\":");
+        out.write(json(e.rewardKey()));
+        out.write("}\n");
+    }
+
+    /**
+     * @param value field value, may be {@code null}
+     * @return the value as a CSV field, quoted when needed
+     */
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * @param value string value, may be {@code null}
+     * @return the value as a JSON string literal, or {@code null}
+     */
+    private static String json(String value) {
+        if (value == null) return "null";
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c)); else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.mcengine.extension.addon.economy.entity.database;
+
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Filter for kill log reads. Every condition is optional.
+ *
+ * @param playerId   rewarded player, or {@code null} for any
+ * @param entityType entity type name, or {@code null} for any
+ * @param coinType   coin type, or {@code null} for any
+ * @param fromMillis first epoch millis included, or {@code 0} for no lower bound
+ * @param toMillis   first epoch millis excluded, or {@code 0} for no upper bound
+ */
+public record EntityKillLogFilter(UUID playerId, String entityType, String coinType, long fromMillis, long toMillis) {
+
+    /** Names accepted for entity and coin types; keeps filters safe to inline in every dialect. */
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_.:-]{1,64}");
+
+    /** Filter matching every row. */
+    public static final EntityKillLogFilter ALL = new EntityKillLogFilter(null, null, null, 0L, 0L);
+
+    /**
+     * Validates the filter.
+     *
+     * @throws IllegalArgumentException if a type name has unsupported characters or the range is empty
+     */
+    public EntityKillLogFilter {
+        if (entityType != null && !NAME.matcher(entityType).matches()) {
+            throw new IllegalArgumentException("Invalid entity type '" + entityType + "'");
+        }
+        if (coinType != null && !NAME.matcher(coinType).matches()) {
+            throw new IllegalArgumentException("Invalid coin type '" + coinType + "'");
+        }
+        if (fromMillis < 0 || toMillis < 0 || (toMillis > 0 && toMillis <= fromMillis)) {
+            throw new IllegalArgumentException("Invalid time range " + fromMillis + " to " + toMillis);
+        }
+    }
+
+    /**
+     * Appends this filter as {@code AND ...} conditions on the unaliased kill log columns.
+     *
+     * @param sql         statement under construction
+     * @param uuidLiteral dialect format turning 32 hex digits ({@code %s}) into a UUID literal
+     * @param timeLiteral dialect format turning epoch millis ({@code %d}) into a timestamp literal
+     * @return the same builder
+     */
+    StringBuilder appendConditions(StringBuilder sql, String uuidLiteral, String timeLiteral) {
+        if (playerId != null) {
+            String hex = playerId.toString().replace("-", "");
+            sql.append(" AND player_uuid = ").append(uuidLiteral.formatted(hex));
+        }
+        if (entityType != null) {
+            sql.append(" AND entity_type_id = (SELECT type_id FROM economy_entity_type_dict WHERE name = '")
+                    .append(entityType).append("')");
+        }
+        if (coinType != null) {
+            sql.append(" AND coin_type_id = (SELECT coin_id FROM economy_entity_coin_dict WHERE name = '")
+                    .append(coinType).append("')");
+        }
+        // The literal truncates to the stored precision, so whole-second dialects match a row by the
+        // second it is stored under and adjacent ranges neither overlap nor leave a gap.
+        if (fromMillis > 0) sql.append(" AND created_time >= ").append(timeLiteral.formatted(fromMillis));
+        if (toMillis > 0) sql.append(" AND created_time < ").append(timeLiteral.formatted(toMillis));
+        return sql;
+    }
+}
@@ -0,0 +1,515 @@
+package io.github.mcengine.extension.addon.economy.entity.database;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, segmented on-disk journal of kill log rows.
+ * <p>
+ * Rows are appended to the active segment file ({@code kill-log-<n>.journal}) through a
+ * {@link FileChannel} as {@code [length][crc32][payload]} records, and the segment rolls over once
+ * it reaches {@code segmentBytes}. A reader walks records from a checkpoint ({@code checkpoint}
+ * file, replaced atomically), and segments wholly before the checkpoint are deleted.
+ * <p>
+ * On open, the active segment is scanned and truncated after its last intact record, so a torn
+ * write from a crash is discarded instead of corrupting later appends.
+ * <p>
+ * Appends are thread-safe. {@link #read(int)} and {@link #commit(Position)} are meant for a single
+ * shipper thread.
+ */
+public class EntityKillLogJournal {
+
+    /** Segment file name prefix. */
+    private static final String SEGMENT_PREFIX = "kill-log-";
+
+    /** Segment file name suffix. */
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    /** Record header: payload length and CRC32. */
+    private static final int HEADER_BYTES = 8;
+
+    /** Upper bound on a record payload; anything larger is treated as corruption. */
+    private static final int MAX_PAYLOAD_BYTES = 4096;
+
+    /** Payload flag bit: player stored as a 16-byte UUID rather than a string. */
+    private static final byte FLAG_UUID = 1;
+
+    /** Payload flag bit: a 16-byte reward key follows the player. */
+    private static final byte FLAG_REWARD_KEY = 2;
+
+    /**
+     * Location in the journal.
+     *
+     * @param segment segment number
+     * @param offset  byte offset within the segment
+     */
+    public record Position(long segment, long offset) {}
+
+    /**
+     * Rows read from one segment.
+     *
+     * @param entries decoded rows
+     * @param segment segment the rows came from
+     * @param ends    offset just past each row, parallel to {@code entries}
+     */
+    public record Batch(List<EntityKillLogEntry> entries, long segment, long[] ends) {
+
+        /**
+         * @param count number of leading rows consumed
+         * @return the position just past those rows
+         */
+        public Position after(int count) {
+            return new Position(segment, ends[count - 1]);
+        }
+    }
+
+    /** Logger for diagnostics. */
+    private final MCEngineExtensionLogger logger;
+
+    /** Journal directory. */
+    private final File dir;
+
+    /** Segment size that triggers a roll-over. */
+    private final long segmentBytes;
+
+    /** Reusable encode buffer, guarded by {@code this}. */
+    private final ByteBuffer encodeBuffer = ByteBuffer.allocate(HEADER_BYTES + MAX_PAYLOAD_BYTES);
+
+    /** Checksum used for encoding, guarded by {@code this}. */
+    private final CRC32 encodeCrc = new CRC32();
+
+    /** Channel of the active segment, guarded by {@code this}. */
+    private FileChannel writeChannel;
+
+    /** Active segment number, guarded by {@code this}. */
+    private long writeSegment;
+
+    /** End of the last complete record in the active segment, guarded by {@code this}. */
+    private long writeOffset;
+
+    /** Last committed read position; written only by the shipper thread. */
+    private volatile Position checkpoint;
+
+    /** Cached read channel; owned by the shipper thread. */
+    private FileChannel readChannel;
+
+    /** Segment that {@link #readChannel} belongs to, or {@code -1}. */
+    private long readChannelSegment = -1L;
+
+    /**
+     * Opens (or creates) the journal, recovering the active segment.
+     *
+     * @param logger       extension logger
+     * @param dir          journal directory
+     * @param segmentBytes segment size that triggers a roll-over
+     * @throws IOException if the directory or active segment cannot be opened
+     */
+    public EntityKillLogJournal(MCEngineExtensionLogger logger, File dir, long segmentBytes) throws IOException {
+        this.logger = logger;
+        this.dir = dir;
+        this.segmentBytes = Math.max(64L * 1024L, segmentBytes);
+        Files.createDirectories(dir.toPath());
+
+        TreeMap<Long, File> segments = listSegments();
+        checkpoint = loadCheckpoint(segments);
+        writeSegment = segments.isEmpty() ? checkpoint.segment() : Math.max(segments.lastKey(), checkpoint.segment());
+
+        File active = segmentFile(writeSegment);
+        writeChannel = FileChannel.open(active.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writeOffset = recover(writeChannel);
+        if (writeOffset < writeChannel.size()) {
+            if (logger != null) logger.warning("[EntityDB] Discarded " + (writeChannel.size() - writeOffset)
+                    + " bytes of incomplete kill log journal data in " + active.getName());
+            writeChannel.truncate(writeOffset);
+        }
+        writeChannel.position(writeOffset);
+    }
+
+    /**
+     * Appends a row.
+     *
+     * @param entry row to append
+     * @throws IOException if the write fails
+     */
+    public synchronized void append(EntityKillLogEntry entry) throws IOException {
+        ByteBuffer buffer = encode(entry);
+        if (writeOffset > 0 && writeOffset + buffer.remaining() > segmentBytes) roll();
+        while (buffer.hasRemaining()) {
+            writeChannel.write(buffer);
+        }
+        writeOffset = writeChannel.position();
+    }
+
+    /**
+     * Forces appended data to the storage device.
+     *
+     * @throws IOException if the sync fails
+     */
+    public synchronized void force() throws IOException {
+        writeChannel.force(false);
+    }
+
+    /**
+     * Reads up to {@code max} rows after the checkpoint. Rows never span segments, so a batch may
+     * be shorter than {@code max} even when more rows are available.
+     *
+     * @param max maximum number of rows
+     * @return the rows read; empty when the journal is fully shipped
+     * @throws IOException if a segment cannot be read
+     */
+    public Batch read(int max) throws IOException {
+        while (true) {
+            long segment = checkpoint.segment();
+            long limit;
+            synchronized (this) {
+                limit = segment == writeSegment ? writeOffset : -1L;
+                if (segment > writeSegment) return new Batch(List.of(), segment, new long[0]);
+            }
+
+            FileChannel channel = readChannel(segment);
+            if (channel == null || limit < 0 && checkpoint.offset() >= channel.size()) {
+                // Sealed segment fully shipped (or missing); move on to the next one.
+                commit(new Position(segment + 1, 0L));
+                continue;
+            }
+            if (limit < 0) limit = channel.size();
+            return readRecords(channel, segment, checkpoint.offset(), limit, max);
+        }
+    }
+
+    /**
+     * Records that everything before {@code position} has been shipped, and deletes segments that
+     * are no longer needed.
+     *
+     * @param position new checkpoint
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public void commit(Position position) throws IOException {
+        Path target = new File(dir, "checkpoint").toPath();
+        Path tmp = new File(dir, "checkpoint.tmp").toPath();
+        ByteBuffer buffer = ByteBuffer.allocate(16).putLong(position.segment()).putLong(position.offset());
+        Files.write(tmp, buffer.array());
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        long previous = checkpoint.segment();
+        checkpoint = position;
+        if (position.segment() > previous) {
+            closeReadChannel();
+            for (long s = previous; s < position.segment(); s++) {
+                File file = segmentFile(s);
+                if (file.exists() && !file.delete() && logger != null) {
+                    logger.warning("[EntityDB] Failed to delete shipped kill log journal segment: " + file.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * Estimates the bytes appended but not yet shipped.
+     *
+     * @return backlog in bytes
+     */
+    public long backlogBytes() {
+        Position from = checkpoint;
+        long active;
+        long end;
+        synchronized (this) {
+            active = writeSegment;
+            end = writeOffset;
+        }
+        long total = -from.offset();
+        for (long s = from.segment(); s < active; s++) {
+            total += segmentFile(s).length();
+        }
+        return Math.max(0L, total + end);
+    }
+
+    /**
+     * Closes all channels after syncing the active segment.
+     */
+    public synchronized void close() {
+        try {
+            writeChannel.force(false);
+            writeChannel.close();
+        } catch (IOException e) {
+            if (logger != null) logger.warning("[EntityDB] Failed to close kill log journal: " + e.getMessage());
+        }
+        closeReadChannel();
+    }
+
+    /**
+     * Seals the active segment and starts the next one.
+     */
+    private void roll() throws IOException {
+        writeChannel.force(false);
+        writeChannel.close();
+        writeSegment++;
+        writeChannel = FileChannel.open(segmentFile(writeSegment).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writeChannel.truncate(0L);
+        writeOffset = 0L;
+    }
+
+    /**
+     * Reads complete, checksum-valid records in {@code [from, limit)}.
+     */
+    private Batch readRecords(FileChannel channel, long segment, long from, long limit, int max) throws IOException {
+        List<EntityKillLogEntry> entries = new ArrayList<>(Math.min(max, 1024));
+        long[] ends = new long[max];
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        long offset = from;
+
+        while (entries.size() < max && offset + HEADER_BYTES <= limit) {
+            header.clear();
+            readFully(channel, header, offset);
+            header.flip();
+            int length = header.getInt();
+            int expectedCrc = header.getInt();
+            if (length <= 0 || length > MAX_PAYLOAD_BYTES) {
+                if (entries.isEmpty()) skipCorrupt(segment, offset);
+                break;
+            }
+            if (offset + HEADER_BYTES + length > limit) {
+                // Truncated tail of a sealed segment; complete records in the active one are never cut.
+                if (entries.isEmpty() && limit == channel.size()) skipCorrupt(segment, offset);
+                break;
+            }
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(channel, payload, offset + HEADER_BYTES);
+            crc.reset();
+            crc.update(payload.array(), 0, length);
+            if ((int) crc.getValue() != expectedCrc) {
+                if (entries.isEmpty()) skipCorrupt(segment, offset);
+                break;
+            }
+
+            payload.flip();
+            ends[entries.size()] = offset + HEADER_BYTES + length;
+            entries.add(decode(payload));
+            offset += HEADER_BYTES + length;
+        }
+        return new Batch(entries, segment, ends);
+    }
+
+    /**
+     * Gives up on the rest of a damaged segment so shipping can continue with the next one. If the
+     * damage is in the active segment, appends move to a fresh segment first.
+     */
+    private void skipCorrupt(long segment, long offset) throws IOException {
+        if (logger != null) logger.warning("[EntityDB] Corrupt kill log journal record in segment " + segment
+                + " at offset " + offset + "; skipping the rest of the segment.");
+        synchronized (this) {
+            if (segment == writeSegment) roll();
+        }
+        commit(new Position(segment + 1, 0L));
+    }
+
+    /**
+     * Scans a segment from the start and returns the end of its last intact record.
+     */
+    private static long recover(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long offset = 0L;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        while (offset + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(channel, header, offset);
+            header.flip();
+            int length = header.getInt();
+            int expectedCrc = header.getInt();
+            if (length <= 0 || length > MAX_PAYLOAD_BYTES || offset + HEADER_BYTES + length > size) break;
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(channel, payload, offset + HEADER_BYTES);
+            crc.reset();
+            crc.update(payload.array(), 0, length);
+            if ((int) crc.getValue() != expectedCrc) break;
+            offset += HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    /**
+     * Encodes a row as one record into {@link #encodeBuffer}.
+     */
+    private ByteBuffer encode(EntityKillLogEntry entry) throws IOException {
+        ByteBuffer buffer = encodeBuffer;
+        buffer.clear();
+        buffer.position(HEADER_BYTES);
+        try {
+            UUID uuid = parseUuid(entry.playerUuid());
+            UUID rewardKey = parseUuid(entry.rewardKey());
+            buffer.put((byte) ((uuid != null ? FLAG_UUID : 0) | (rewardKey != null ? FLAG_REWARD_KEY : 0)));
+            if (uuid != null) {
+                buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+            } else {
+                putString(buffer, entry.playerUuid());
+            }
+            if (rewardKey != null) {
+                buffer.putLong(rewardKey.getMostSignificantBits()).putLong(rewardKey.getLeastSignificantBits());
+            }
+            putString(buffer, entry.entityType());
+            putString(buffer, entry.coinType());
+            buffer.putInt(entry.amount()).putLong(entry.createdAt());
+        } catch (java.nio.BufferOverflowException e) {
+            throw new IOException("Kill log row too large for the journal", e);
+        }
+
+        int length = buffer.position() - HEADER_BYTES;
+        encodeCrc.reset();
+        encodeCrc.update(buffer.array(), HEADER_BYTES, length);
+        buffer.putInt(0, length).putInt(4, (int) encodeCrc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Decodes a record payload.
+     */
+    private static EntityKillLogEntry decode(ByteBuffer payload) {
+        byte flags = payload.get();
+        String player = (flags & FLAG_UUID) != 0
+                ? new UUID(payload.getLong(), payload.getLong()).toString()
+                : getString(payload);
+        String rewardKey = (flags & FLAG_REWARD_KEY) != 0
+                ? new UUID(payload.getLong(), payload.getLong()).toString()
+                : null;
+        String entityType = getString(payload);
+        String coinType = getString(payload);
+        return new EntityKillLogEntry(player, entityType, coinType, payload.getInt(), payload.getLong(), rewardKey);
+    }
+
+    /**
+     * Writes a nullable string as a signed-short length (-1 for null) followed by UTF-8 bytes.
+     */
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #putString(ByteBuffer, String)}.
+     */
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the parsed UUID, or {@code null} if {@code value} is not one that round-trips
+     */
+    private static UUID parseUuid(String value) {
+        if (value == null || value.length() != 36) return null;
+        try {
+            UUID uuid = UUID.fromString(value);
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Fills {@code buffer} from {@code channel} starting at {@code position}.
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long pos = position;
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, pos);
+            if (n < 0) throw new IOException("Unexpected end of kill log journal segment");
+            pos += n;
+        }
+    }
+
+    /**
+     * Returns a read channel for a segment, or {@code null} if the segment file does not exist.
+     */
+    private FileChannel readChannel(long segment) throws IOException {
+        if (readChannelSegment == segment && readChannel != null) return readChannel;
+        closeReadChannel();
+        File file = segmentFile(segment);
+        if (!file.exists()) return null;
+        readChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        readChannelSegment = segment;
+        return readChannel;
+    }
+
+    /**
+     * Closes the cached read channel, if any.
+     */
+    private void closeReadChannel() {
+        if (readChannel == null) return;
+        try {
+            readChannel.close();
+        } catch (IOException ignored) {
+            // Read-only channel; nothing to lose.
+        }
+        readChannel = null;
+        readChannelSegment = -1L;
+    }
+
+    /**
+     * Loads the checkpoint, defaulting to the start of the oldest segment.
+     */
+    private Position loadCheckpoint(TreeMap<Long, File> segments) {
+        Path path = new File(dir, "checkpoint").toPath();
+        if (Files.exists(path)) {
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+                if (buffer.remaining() == 16) return new Position(buffer.getLong(), buffer.getLong());
+            } catch (IOException e) {
+                if (logger != null) logger.warning("[EntityDB] Failed to read kill log journal checkpoint: " + e.getMessage());
+            }
+        }
+        return new Position(segments.isEmpty() ? 0L : segments.firstKey(), 0L);
+    }
+
+    /**
+     * @return existing segment files keyed by segment number
+     */
+    private TreeMap<Long, File> listSegments() {
+        TreeMap<Long, File> segments = new TreeMap<>();
+        File[] files = dir.listFiles();
+        if (files == null) return segments;
+        for (File file : files) {
+            String name = file.getName();
+            if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) continue;
+            try {
+                segments.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())), file);
+            } catch (NumberFormatException ignored) {
+                // Not one of ours.
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * @return the file for a segment number
+     */
+    private File segmentFile(long segment) {
+        return new File(dir, SEGMENT_PREFIX + String.format("%016d", segment) + SEGMENT_SUFFIX);
+    }
+}
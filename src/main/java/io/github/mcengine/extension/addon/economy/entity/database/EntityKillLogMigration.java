@@ -0,0 +1,134 @@
+package io.github.mcengine.extension.addon.economy.entity.database;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import io.github.mcengine.common.economy.MCEngineEconomyCommon;
+
+import java.util.List;
+
+/**
+ * Background copier for the v1 to v2 kill log migration.
+ * <p>
+ * The legacy table ({@code economy_entity_kill_log_v1}) is copied into the new table in
+ * {@code kill_id} ranges of {@code chunkSize} rows, pausing between chunks so the database is never
+ * locked for long and live inserts keep flowing into the new table. Legacy {@code kill_id}s are
+ * preserved and each chunk is inserted with the dialect's insert-or-ignore form, so a chunk that
+ * is repeated after a crash is harmless. Progress is checkpointed in {@link EntitySchemaMeta}.
+ */
+public class EntityKillLogMigration {
+
+    /** Logger for diagnostics. */
+    private final MCEngineExtensionLogger logger;
+
+    /** Dialect name used in log messages. */
+    private final String dialect;
+
+    /**
+     * Statements executed per chunk, in order. Each is a format string receiving the exclusive
+     * lower bound as {@code %1$d} and the inclusive upper bound as {@code %2$d}.
+     */
+    private final List<String> chunkStatements;
+
+    /** Statement dropping the legacy table once everything is copied. */
+    private final String dropLegacySql;
+
+    /** Dialect upsert used to checkpoint progress (see {@link EntitySchemaMeta#set}). */
+    private final String metaUpsertSql;
+
+    /** Rows per chunk. */
+    private final long chunkSize;
+
+    /** Pause between chunks in milliseconds. */
+    private final long pauseMillis;
+
+    /** Copier thread, or {@code null} when not started. */
+    private Thread thread;
+
+    /** Whether the copier should keep running. */
+    private volatile boolean running;
+
+    /**
+     * Creates the migration.
+     *
+     * @param logger          extension logger
+     * @param dialect         dialect name for log messages
+     * @param chunkStatements per-chunk statement formats (see {@link #chunkStatements})
+     * @param dropLegacySql   statement dropping the legacy table
+     * @param metaUpsertSql   dialect upsert used to checkpoint progress
+     * @param chunkSize       rows per chunk
+     * @param pauseMillis     pause between chunks
+     */
+    public EntityKillLogMigration(MCEngineExtensionLogger logger, String dialect, List<String> chunkStatements,
+                                  String dropLegacySql, String metaUpsertSql, long chunkSize, long pauseMillis) {
+        this.logger = logger;
+        this.dialect = dialect;
+        this.chunkStatements = chunkStatements;
+        this.dropLegacySql = dropLegacySql;
+        this.metaUpsertSql = metaUpsertSql;
+        this.chunkSize = Math.max(1L, chunkSize);
+        this.pauseMillis = Math.max(0L, pauseMillis);
+    }
+
+    /**
+     * Starts copying if a migration is pending in {@link EntitySchemaMeta}.
+     */
+    public synchronized void startIfPending() {
+        if (thread != null) return;
+        Long cursor = EntitySchemaMeta.get(EntitySchemaMeta.V2_COPY_CURSOR);
+        Long maxId = EntitySchemaMeta.get(EntitySchemaMeta.V2_COPY_MAX_ID);
+        if (cursor == null || maxId == null) return;
+
+        running = true;
+        thread = new Thread(() -> copy(cursor, maxId), "MCEngineEntity-KillLogMigration");
+        thread.setDaemon(true);
+        thread.start();
+        if (logger != null) logger.info("[EntityDB] " + dialect + " kill_log migration resumed at kill_id " + cursor + " of " + maxId + ".");
+    }
+
+    /**
+     * Stops the copier after its current chunk. Progress is kept and resumed on next start.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(5000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    /**
+     * Copier body.
+     *
+     * @param from  last copied legacy id
+     * @param maxId highest legacy id to copy
+     */
+    private void copy(long from, long maxId) {
+        long cursor = from;
+        try {
+            while (running && cursor < maxId) {
+                long hi = Math.min(maxId, cursor + chunkSize);
+                for (String statement : chunkStatements) {
+                    MCEngineEconomyCommon.getApi().executeQuery(statement.formatted(cursor, hi));
+                }
+                EntitySchemaMeta.set(metaUpsertSql, EntitySchemaMeta.V2_COPY_CURSOR, hi);
+                cursor = hi;
+                if (pauseMillis > 0) Thread.sleep(pauseMillis);
+            }
+            if (cursor >= maxId) {
+                MCEngineEconomyCommon.getApi().executeQuery(dropLegacySql);
+                EntitySchemaMeta.remove(EntitySchemaMeta.V2_COPY_CURSOR);
+                EntitySchemaMeta.remove(EntitySchemaMeta.V2_COPY_MAX_ID);
+                if (logger != null) logger.info("[EntityDB] " + dialect + " kill_log migration complete.");
+            }
+        } catch (InterruptedException e) {
+            // Stopped; progress is checkpointed.
+        } catch (Exception e) {
+            if (logger != null) logger.warning("[EntityDB] " + dialect + " kill_log migration paused at kill_id "
+                    + cursor + ": " + e.getMessage());
+        }
+    }
+}
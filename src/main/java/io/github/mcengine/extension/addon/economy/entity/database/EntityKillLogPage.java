@@ -0,0 +1,28 @@
+package io.github.mcengine.extension.addon.economy.entity.database;
+
+import java.util.List;
+
+/**
+ * One keyset page of kill log rows, in {@code kill_id} order.
+ *
+ * @param rows       rows of this page
+ * @param nextCursor {@code kill_id} to pass as {@code afterKillId} for the next page, or {@code -1}
+ *                   if this was the last page
+ */
+public record EntityKillLogPage(List<Row> rows, long nextCursor) {
+
+    /**
+     * One kill log row.
+     *
+     * @param killId row id
+     * @param entry  row content; {@code createdAt} has whole-second precision
+     */
+    public record Row(long killId, EntityKillLogEntry entry) {}
+
+    /**
+     * @return whether more rows may follow
+     */
+    public boolean hasMore() {
+        return nextCursor >= 0;
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.mcengine.extension.addon.economy.entity.database;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import io.github.mcengine.common.economy.MCEngineEconomyCommon;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Keyset-paged kill log reads shared by the dialects.
+ * <p>
+ * The economy DB API only returns single values, so there is no JDBC cursor or fetch size to
+ * stream with. Instead each page is one statement that selects up to {@link #MAX_PAGE_ROWS} rows
+ * after a {@code kill_id} and aggregates them into a single text value with the dialect's string
+ * aggregate. Seeking by primary key keeps every page the same cost however deep the walk is, and
+ * memory stays bounded by one page. Each row is encoded as
+ * {@code killId,playerHex,entityTypeHex,coinTypeHex,amount,epochSeconds,rewardKeyHex} with names
+ * hex-encoded, so rows may be separated by anything outside {@code [0-9a-fA-F,]}.
+ */
+public class EntityKillLogReader {
+
+    /** Most rows per page. */
+    public static final int MAX_PAGE_ROWS = 1000;
+
+    /** Anything that cannot occur inside an encoded row. */
+    private static final Pattern ROW_SEPARATOR = Pattern.compile("[^0-9a-fA-F,]+");
+
+    /** Logger for diagnostics. */
+    private final MCEngineExtensionLogger logger;
+
+    /** Dialect name used in log messages. */
+    private final String dialect;
+
+    /**
+     * Page query returning one text value, receiving the exclusive {@code kill_id} cursor in
+     * {@code %1$d}, the page size in {@code %2$d} and extra {@code AND ...} conditions on the
+     * unaliased kill log columns in {@code %3$s}.
+     */
+    private final String pageSql;
+
+    /** Format turning 32 hex digits into the dialect's UUID literal. */
+    private final String uuidLiteral;
+
+    /** Format turning epoch millis into the dialect's timestamp literal, truncated to the stored precision. */
+    private final String timeLiteral;
+
+    /**
+     * Creates the reader.
+     *
+     * @param logger      extension logger
+     * @param dialect     dialect name for log messages
+     * @param pageSql     page query format (see {@link #pageSql})
+     * @param uuidLiteral UUID literal format with one {@code %s}
+     * @param timeLiteral timestamp literal format with one {@code %d}
+     */
+    public EntityKillLogReader(MCEngineExtensionLogger logger, String dialect, String pageSql,
+                               String uuidLiteral, String timeLiteral) {
+        this.logger = logger;
+        this.dialect = dialect;
+        this.pageSql = pageSql;
+        this.uuidLiteral = uuidLiteral;
+        this.timeLiteral = timeLiteral;
+    }
+
+    /**
+     * Reads the next page of matching rows.
+     *
+     * @param filter      row filter
+     * @param afterKillId exclusive {@code kill_id} cursor; {@code 0} for the first page
+     * @param limit       most rows to return, capped at {@link #MAX_PAGE_ROWS}
+     * @return the page, or {@code null} if the query failed
+     */
+    public EntityKillLogPage page(EntityKillLogFilter filter, long afterKillId, int limit) {
+        int size = Math.max(1, Math.min(MAX_PAGE_ROWS, limit));
+        String conditions = filter.appendConditions(new StringBuilder(), uuidLiteral, timeLiteral).toString();
+        String text;
+        try {
+            text = MCEngineEconomyCommon.getApi().getValue(pageSql.formatted(afterKillId, size, conditions), String.class);
+        } catch (Exception e) {
+            if (logger != null) logger.warning("[EntityDB] " + dialect + " kill_log read after kill_id "
+                    + afterKillId + " failed: " + e.getMessage());
+            return null;
+        }
+        if (text == null || text.isEmpty()) return new EntityKillLogPage(List.of(), -1L);
+
+        List<EntityKillLogPage.Row> rows = new ArrayList<>(size);
+        for (String encoded : ROW_SEPARATOR.split(text)) {
+            String[] f = encoded.split(",", -1);
+            if (f.length != 7 || f[0].isEmpty()) continue;
+            rows.add(new EntityKillLogPage.Row(Long.parseLong(f[0]), new EntityKillLogEntry(
+                    uuid(f[1]), text(f[2]), text(f[3]), Integer.parseInt(f[4]),
+                    Long.parseLong(f[5]) * 1000L, uuid(f[6]))));
+        }
+        // Not every string aggregate keeps the subquery's order.
+        rows.sort(Comparator.comparingLong(EntityKillLogPage.Row::killId));
+        long next = rows.size() < size ? -1L : rows.get(rows.size() - 1).killId();
+        return new EntityKillLogPage(rows, next);
+    }
+
+    /**
+     * @param hex 32 hex digits, or empty
+     * @return the dashed UUID string, or {@code null} if empty
+     */
+    private static String uuid(String hex) {
+        if (hex.length() != 32) return null;
+        String h = hex.toLowerCase();
+        return h.substring(0, 8) + '-' + h.substring(8, 12) + '-' + h.substring(12, 16) + '-'
+                + h.substring(16, 20) + '-' + h.substring(20);
+    }
+
+    /**
+     * @param hex hex-encoded UTF-8 text, or empty
+     * @return the decoded text, or {@code null} if empty
+     */
+    private static String text(String hex) {
+        return hex.isEmpty() ? null : new String(HexFormat.of().parseHex(hex), StandardCharsets.UTF_8);
+    }
+}
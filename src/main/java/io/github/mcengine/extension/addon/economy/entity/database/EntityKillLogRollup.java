@@ -0,0 +1,189 @@
+package io.github.mcengine.extension.addon.economy.entity.database;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import io.github.mcengine.common.economy.MCEngineEconomyCommon;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Background retention job that folds old raw kill log rows into the hourly and daily rollup
+ * tables ({@code economy_entity_kill_rollup_hour} / {@code economy_entity_kill_rollup_day}) and
+ * then deletes them.
+ * <p>
+ * Each run finds the highest {@code kill_id} older than {@code rawMaxAgeMillis} and walks up to it
+ * in {@code kill_id} ranges of {@code chunkSize} rows. A chunk is first added into the rollups with
+ * the dialect's upsert, then checkpointed in {@link EntitySchemaMeta}, then deleted, so every
+ * statement touches a bounded number of rows and locks are held only briefly. A crash between the
+ * upsert and the checkpoint can count that one chunk twice; a crash before the delete leaves rows
+ * that the next run removes without re-counting them.
+ * <p>
+ * The job stays idle while the v1 to v2 copy is still in progress, because copied legacy rows
+ * carry ids below the rollup cursor. It also stays idle while its {@code active} check fails: with
+ * several servers on one database (network mode) only the merge lease holder rolls up, since every
+ * server reads the same cursor and would add the same chunk to the rollups. The check runs before
+ * every chunk, so a server that loses the lease stops after at most one more chunk, well within
+ * the lease duration the new holder waits out.
+ * <p>
+ * Every run first calls the dialect's partition maintenance, if any, so monthly partitions are
+ * created ahead of time for as long as the server stays up. A {@code rawMaxAgeMillis} of {@code 0}
+ * keeps raw rows forever and leaves only the maintenance.
+ */
+public class EntityKillLogRollup {
+
+    /** Logger for diagnostics. */
+    private final MCEngineExtensionLogger logger;
+
+    /** Dialect name used in log messages. */
+    private final String dialect;
+
+    /**
+     * Query returning the highest {@code kill_id} older than a cutoff, receiving the cutoff in
+     * epoch seconds as {@code %1$d}.
+     */
+    private final String cutoffSql;
+
+    /**
+     * Upserts executed per chunk, in order. Each is a format string receiving the exclusive lower
+     * bound as {@code %1$d} and the inclusive upper bound as {@code %2$d}.
+     */
+    private final List<String> rollupStatements;
+
+    /** Delete statement for a chunk, with the same bounds as {@link #rollupStatements}. */
+    private final String deleteSql;
+
+    /** Dialect upsert used to checkpoint progress (see {@link EntitySchemaMeta#set}). */
+    private final String metaUpsertSql;
+
+    /** Age after which raw rows are rolled up; {@code 0} keeps them. */
+    private final long rawMaxAgeMillis;
+
+    /** Rows per chunk. */
+    private final long chunkSize;
+
+    /** Pause between chunks in milliseconds. */
+    private final long pauseMillis;
+
+    /** Whether this server may roll up right now. */
+    private final BooleanSupplier active;
+
+    /** Partition maintenance run before each rollup, or {@code null}. */
+    private final Runnable maintenance;
+
+    /** Single scheduler thread, or {@code null} when not started. */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Creates the job.
+     *
+     * @param logger           extension logger
+     * @param dialect          dialect name for log messages
+     * @param cutoffSql        query for the last rollable id (see {@link #cutoffSql})
+     * @param rollupStatements per-chunk upsert formats (see {@link #rollupStatements})
+     * @param deleteSql        per-chunk delete format
+     * @param metaUpsertSql    dialect upsert used to checkpoint progress
+     * @param rawMaxAgeMillis  age after which raw rows are rolled up; {@code <= 0} keeps them
+     * @param chunkSize        rows per chunk
+     * @param pauseMillis      pause between chunks
+     * @param active           whether this server may roll up; checked before every chunk
+     * @param maintenance      partition maintenance run at the start of every run, or {@code null}
+     */
+    public EntityKillLogRollup(MCEngineExtensionLogger logger, String dialect, String cutoffSql,
+                               List<String> rollupStatements, String deleteSql, String metaUpsertSql,
+                               long rawMaxAgeMillis, long chunkSize, long pauseMillis, BooleanSupplier active,
+                               Runnable maintenance) {
+        this.logger = logger;
+        this.dialect = dialect;
+        this.cutoffSql = cutoffSql;
+        this.rollupStatements = rollupStatements;
+        this.deleteSql = deleteSql;
+        this.metaUpsertSql = metaUpsertSql;
+        this.rawMaxAgeMillis = Math.max(0L, rawMaxAgeMillis);
+        this.chunkSize = Math.max(1L, chunkSize);
+        this.pauseMillis = Math.max(0L, pauseMillis);
+        this.active = active;
+        this.maintenance = maintenance;
+    }
+
+    /**
+     * Schedules the job. The first run starts after one minute so startup stays quick.
+     *
+     * @param intervalMillis delay between the end of one run and the start of the next
+     */
+    public synchronized void start(long intervalMillis) {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "MCEngineEntity-KillLogRollup");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(TimeUnit.MINUTES.toMillis(1), intervalMillis);
+        scheduler.scheduleWithFixedDelay(this::runOnce, TimeUnit.MINUTES.toMillis(1), interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the job after its current chunk. Progress is checkpointed.
+     */
+    public synchronized void stop() {
+        if (scheduler == null) return;
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+    }
+
+    /**
+     * Runs the partition maintenance, then rolls up every raw row older than {@link #rawMaxAgeMillis}.
+     */
+    private void runOnce() {
+        if (!active.getAsBoolean()) return;
+        if (maintenance != null) {
+            try {
+                maintenance.run();
+            } catch (Exception e) {
+                if (logger != null) logger.warning("[EntityDB] " + dialect + " kill_log partition maintenance failed: " + e.getMessage());
+            }
+        }
+        if (rawMaxAgeMillis == 0L) return;
+
+        long cursor = 0L;
+        try {
+            if (EntitySchemaMeta.get(EntitySchemaMeta.V2_COPY_MAX_ID) != null) return;
+
+            Long stored = EntitySchemaMeta.get(EntitySchemaMeta.ROLLUP_CURSOR);
+            cursor = stored == null ? 0L : stored;
+            if (cursor > 0) {
+                // Finish the delete of a chunk that was checkpointed but not removed.
+                MCEngineEconomyCommon.getApi().executeQuery(deleteSql.formatted(Math.max(0L, cursor - chunkSize), cursor));
+            }
+
+            long cutoffSeconds = (System.currentTimeMillis() - rawMaxAgeMillis) / 1000L;
+            Long target = MCEngineEconomyCommon.getApi().getValue(cutoffSql.formatted(cutoffSeconds), Long.class);
+            if (target == null || target <= cursor) return;
+
+            long start = cursor;
+            while (cursor < target && !Thread.currentThread().isInterrupted() && active.getAsBoolean()) {
+                long hi = Math.min(target, cursor + chunkSize);
+                for (String statement : rollupStatements) {
+                    MCEngineEconomyCommon.getApi().executeQuery(statement.formatted(cursor, hi));
+                }
+                EntitySchemaMeta.set(metaUpsertSql, EntitySchemaMeta.ROLLUP_CURSOR, hi);
+                MCEngineEconomyCommon.getApi().executeQuery(deleteSql.formatted(cursor, hi));
+                cursor = hi;
+                if (pauseMillis > 0) Thread.sleep(pauseMillis);
+            }
+            if (logger != null) logger.info("[EntityDB] " + dialect + " kill_log rolled up kill_id " + start + " to " + cursor + ".");
+        } catch (InterruptedException e) {
+            // Stopped; progress is checkpointed.
+        } catch (Exception e) {
+            if (logger != null) logger.warning("[EntityDB] " + dialect + " kill_log rollup paused at kill_id "
+                    + cursor + ": " + e.getMessage());
+        }
+    }
+}
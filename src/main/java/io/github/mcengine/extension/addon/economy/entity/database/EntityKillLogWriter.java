@@ -0,0 +1,248 @@
+package io.github.mcengine.extension.addon.economy.entity.database;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import io.github.mcengine.extension.addon.economy.entity.metrics.EntityMetrics;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind pipeline for {@code economy_entity_kill_log}.
+ * <p>
+ * Reward threads {@link #enqueue(EntityKillLogEntry) enqueue} rows straight into the on-disk
+ * {@link EntityKillLogJournal}, so a row is durable at disk-append speed regardless of database
+ * latency. A single shipper thread reads the journal from its checkpoint and writes rows through
+ * {@link EntityDB#insertKillLogs(List)}, either when {@code batchSize} rows are pending or when
+ * {@code flushIntervalMs} has elapsed, whichever comes first. The checkpoint only advances past
+ * rows the database accepted, so after an outage or a crash shipping resumes where it stopped.
+ * <p>
+ * While the database is failing, the shipper backs off exponentially up to
+ * {@link #MAX_BACKOFF_MS} instead of piling up retries.
+ */
+public class EntityKillLogWriter {
+
+    /** Longest pause between retries while the database is failing. */
+    private static final long MAX_BACKOFF_MS = 30_000L;
+
+    /** Logger for diagnostics. */
+    private final MCEngineExtensionLogger logger;
+
+    /** Dialect-specific database accessor performing the bulk inserts. */
+    private final EntityDB entityDB;
+
+    /** Durable journal holding rows until they are shipped. */
+    private final EntityKillLogJournal journal;
+
+    /** Hot-path metrics. */
+    private final EntityMetrics metrics;
+
+    /** Maximum rows per INSERT statement. */
+    private final int batchSize;
+
+    /** Maximum time a row may wait before being shipped. */
+    private final long flushIntervalMs;
+
+    /** Rows appended since the shipper last ran; used to wake it early. */
+    private final AtomicInteger unshipped = new AtomicInteger();
+
+    /** Monitor the shipper waits on between runs. */
+    private final Object signal = new Object();
+
+    /** Single shipper thread. */
+    private final Thread shipper;
+
+    /** Whether the shipper should keep running. */
+    private volatile boolean running = true;
+
+    /** Completed by the shipper the first time it drains the journal. */
+    private final CompletableFuture<Void> drained = new CompletableFuture<>();
+
+    /**
+     * Creates the writer and starts its shipper thread.
+     *
+     * @param logger          extension logger
+     * @param entityDB        database accessor used for bulk inserts
+     * @param journal         durable journal rows are appended to
+     * @param batchSize       maximum rows per INSERT statement
+     * @param flushIntervalMs maximum time in milliseconds a row waits before being shipped
+     * @param metrics         hot-path metrics
+     */
+    public EntityKillLogWriter(MCEngineExtensionLogger logger, EntityDB entityDB, EntityKillLogJournal journal,
+                               int batchSize, long flushIntervalMs, EntityMetrics metrics) {
+        this.logger = logger;
+        this.entityDB = entityDB;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1L, flushIntervalMs);
+
+        this.shipper = new Thread(this::shipLoop, "MCEngineEntity-KillLogWriter");
+        this.shipper.setDaemon(true);
+        this.shipper.start();
+    }
+
+    /**
+     * Appends a kill log row to the journal for asynchronous insertion. If the journal cannot be
+     * written, the row is inserted directly instead.
+     *
+     * @param entry row to write
+     */
+    public void enqueue(EntityKillLogEntry entry) {
+        try {
+            journal.append(entry);
+        } catch (IOException e) {
+            metrics.increment(EntityMetrics.Counter.JOURNAL_APPEND_FAILURES);
+            if (logger != null) logger.warning("[EntityDB] Kill log journal append failed, inserting directly: " + e.getMessage());
+            if (entityDB.insertKillLogs(List.of(entry)) == 0 && logger != null) {
+                logger.warning("[EntityDB] Dropped kill log row for player=" + entry.playerUuid());
+            }
+            return;
+        }
+
+        if (unshipped.incrementAndGet() >= batchSize) {
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Moves rows left in a pre-journal spill file ({@code kill-log-spill.tsv} and its
+     * {@code .replay} companion) into the journal, then deletes the file.
+     *
+     * @param spillFile legacy spill file
+     */
+    public void importLegacySpill(File spillFile) {
+        for (File file : new File[]{new File(spillFile.getPath() + ".replay"), spillFile}) {
+            if (!file.exists()) continue;
+            int imported = 0;
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    EntityKillLogEntry entry = EntityKillLogEntry.fromLine(line);
+                    if (entry == null) continue;
+                    journal.append(entry);
+                    imported++;
+                }
+            } catch (IOException e) {
+                if (logger != null) logger.warning("[EntityDB] Failed to import spilled kill log rows: " + e.getMessage());
+                continue;
+            }
+            if (!file.delete() && logger != null) {
+                logger.warning("[EntityDB] Failed to delete imported spill file: " + file.getAbsolutePath());
+            }
+            if (logger != null) logger.info("[EntityDB] Imported " + imported + " spilled kill log rows into the journal.");
+        }
+    }
+
+    /**
+     * Runs {@code action} once every row journaled before this call, including rows left by a
+     * previous run, is in the database. Runs on the shipper thread, or right away if the journal
+     * was already drained once.
+     *
+     * @param action action to run
+     */
+    public void whenDrained(Runnable action) {
+        drained.thenRun(action);
+    }
+
+    /**
+     * @return estimated bytes journaled but not yet shipped
+     */
+    public long backlogBytes() {
+        return journal.backlogBytes();
+    }
+
+    /**
+     * Stops the shipper, which makes one last attempt to ship every journaled row and closes the
+     * journal. Rows that cannot be shipped stay in the journal for the next start.
+     * <p>
+     * The shipper is woken rather than interrupted: an interrupt during journal I/O would close the
+     * journal's channel, and the journal must only be read and committed from the shipper thread.
+     */
+    public void shutdown() {
+        synchronized (signal) {
+            running = false;
+            signal.notifyAll();
+        }
+        try {
+            shipper.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (shipper.isAlive() && logger != null) {
+            logger.warning("[EntityDB] Kill log shipper still busy after 10s; unshipped rows stay in the journal.");
+        }
+    }
+
+    /**
+     * Shipper body: waits for enough rows or the flush interval, syncs the journal, then ships.
+     * On shutdown it ships once more and closes the journal.
+     */
+    private void shipLoop() {
+        long backoff = 0L;
+        while (true) {
+            try {
+                long wait = backoff > 0 ? backoff : flushIntervalMs;
+                synchronized (signal) {
+                    if (running && (backoff > 0 || unshipped.get() < batchSize)) signal.wait(wait);
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (!running) break;
+
+            if (ship()) {
+                backoff = 0L;
+                if (!drained.isDone()) drained.complete(null);
+            } else {
+                backoff = backoff == 0L ? flushIntervalMs : Math.min(MAX_BACKOFF_MS, backoff * 2);
+            }
+        }
+
+        ship();
+        journal.close();
+    }
+
+    /**
+     * Ships journaled rows until the journal is drained or the database rejects a chunk.
+     *
+     * @return {@code true} if everything available was shipped
+     */
+    private boolean ship() {
+        try {
+            journal.force();
+            unshipped.set(0);
+            while (true) {
+                EntityKillLogJournal.Batch batch = journal.read(batchSize);
+                if (batch.entries().isEmpty()) return true;
+
+                int written;
+                long start = System.nanoTime();
+                try {
+                    written = entityDB.insertKillLogs(batch.entries());
+                } catch (Exception e) {
+                    if (logger != null) logger.warning("[EntityDB] KillLog batch insert failed: " + e.getMessage());
+                    written = 0;
+                }
+                metrics.recordSince(EntityMetrics.Timer.KILL_LOG_INSERT, start);
+                metrics.add(EntityMetrics.Counter.KILL_LOG_ROWS_SHIPPED, written);
+
+                if (written > 0) journal.commit(batch.after(written));
+                if (written < batch.entries().size()) {
+                    metrics.add(EntityMetrics.Counter.KILL_LOG_INSERT_FAILURES, batch.entries().size() - written);
+                    return false;
+                }
+            }
+        } catch (IOException e) {
+            if (logger != null) logger.warning("[EntityDB] Kill log journal read failed: " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.mcengine.extension.addon.economy.entity.database;
+
+import io.github.mcengine.common.economy.MCEngineEconomyCommon;
+
+/**
+ * Key/value bookkeeping table ({@code economy_entity_schema}) used by every dialect to track the
+ * schema version and the progress of online migrations.
+ * <p>
+ * Reads and deletes are portable across SQLite, MySQL and PostgreSQL. Writes are a single upsert
+ * statement in the dialect's own form ({@link #MYSQL_UPSERT}, {@link #POSTGRESQL_UPSERT},
+ * {@link #SQLITE_UPSERT}), so a key is never missing between a delete and an insert and two nodes
+ * writing the same key never conflict.
+ */
+public final class EntitySchemaMeta {
+
+    /** Schema version written by the current code. */
+    public static final int CURRENT_VERSION = 3;
+
+    /** Key holding the schema version. */
+    public static final String VERSION = "version";
+
+    /** Key holding the last legacy {@code kill_id} copied by the v1 to v2 migration. */
+    public static final String V2_COPY_CURSOR = "v2_copy_cursor";
+
+    /** Key holding the highest legacy {@code kill_id} to copy. */
+    public static final String V2_COPY_MAX_ID = "v2_copy_max_id";
+
+    /** Key holding the last {@code kill_id} folded into the rollup tables. */
+    public static final String ROLLUP_CURSOR = "rollup_cursor";
+
+    /** DDL for the bookkeeping table. */
+    public static final String CREATE_SQL = """
+            CREATE TABLE IF NOT EXISTS economy_entity_schema (
+                name VARCHAR(64) NOT NULL PRIMARY KEY,
+                value BIGINT NOT NULL
+            );
+            """;
+
+    /** MySQL upsert, receiving the key as {@code %1$s} and the value as {@code %2$d}. */
+    public static final String MYSQL_UPSERT = "INSERT INTO economy_entity_schema (name, value) VALUES ('%1$s', %2$d)"
+            + " ON DUPLICATE KEY UPDATE value = VALUES(value);";
+
+    /** PostgreSQL upsert, receiving the key as {@code %1$s} and the value as {@code %2$d}. */
+    public static final String POSTGRESQL_UPSERT = "INSERT INTO economy_entity_schema (name, value) VALUES ('%1$s', %2$d)"
+            + " ON CONFLICT (name) DO UPDATE SET value = EXCLUDED.value;";
+
+    /** SQLite upsert, receiving the key as {@code %1$s} and the value as {@code %2$d}. */
+    public static final String SQLITE_UPSERT = "INSERT OR REPLACE INTO economy_entity_schema (name, value) VALUES ('%1$s', %2$d);";
+
+    private EntitySchemaMeta() {}
+
+    /**
+     * Reads a value.
+     *
+     * @param name key
+     * @return the value, or {@code null} if absent
+     */
+    public static Long get(String name) {
+        return MCEngineEconomyCommon.getApi()
+                .getValue("SELECT value FROM economy_entity_schema WHERE name = '" + name + "';", Long.class);
+    }
+
+    /**
+     * Writes a value, replacing any previous one, in one statement.
+     *
+     * @param upsertSql the dialect's upsert, such as {@link #MYSQL_UPSERT}
+     * @param name      key
+     * @param value     value
+     */
+    public static void set(String upsertSql, String name, long value) {
+        MCEngineEconomyCommon.getApi().executeQuery(upsertSql.formatted(name, value));
+    }
+
+    /**
+     * Deletes a value.
+     *
+     * @param name key
+     */
+    public static void remove(String name) {
+        MCEngineEconomyCommon.getApi().executeQuery("DELETE FROM economy_entity_schema WHERE name = '" + name + "';");
+    }
+}
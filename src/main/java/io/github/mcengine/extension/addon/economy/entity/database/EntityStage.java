@@ -0,0 +1,292 @@
+package io.github.mcengine.extension.addon.economy.entity.database;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import io.github.mcengine.common.economy.MCEngineEconomyCommon;
+import io.github.mcengine.extension.addon.economy.entity.util.EntitySqlUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Shared staging table and merge lease for network mode, where several servers credit rewards
+ * against one economy database.
+ * <p>
+ * Each node ships its coalesced receipts as one row per (player, coin type) into
+ * {@code economy_entity_stage}, in a single multi-row insert per flush. One node at a time holds
+ * the {@code merge} row of {@code economy_entity_lease}, renewed on the database clock, and drains
+ * the stage: it claims a keyset range of rows with a token (the claim only applies while it still
+ * holds the lease, so two nodes never claim the same row), reads the claimed rows in one statement
+ * and decodes them, and only then deletes them. The caller pays the returned receipts only after
+ * the delete, so a merge cut short before that point leaves rows claimed but unpaid; such claims
+ * are released after {@code 2 * leaseTtl} and merged again. A row that cannot be decoded is
+ * logged and skipped rather than failing the whole take.
+ * <p>
+ * Payloads are encoded as {@code playerHex,coinHex} followed by
+ * {@code entityTypeHex,amount,createdAtMillis,rewardKeyHex} per receipt, so, as for
+ * {@link EntityKillLogReader}, claimed rows can be aggregated into one text value separated by
+ * anything outside {@code [0-9a-fA-F,]}.
+ */
+public class EntityStage {
+
+    /** Most stage rows claimed per {@link #take} call. */
+    public static final int MAX_TAKE_ROWS = 200;
+
+    /** Receipts per payload row; larger credits are split across rows. */
+    private static final int MAX_RECEIPTS_PER_ROW = 2000;
+
+    /** Most rows per insert; older SQLite builds cap multi-row {@code VALUES} at 500 terms. */
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    /** Upper bound on the size of one insert, below every dialect's default packet limit. */
+    private static final int MAX_STATEMENT_BYTES = 512 * 1024;
+
+    /** Name of the lease row. */
+    private static final String LEASE = "'merge'";
+
+    /** Anything that cannot occur inside an encoded row. */
+    private static final Pattern ROW_SEPARATOR = Pattern.compile("[^0-9a-fA-F,]+");
+
+    /** Logger for diagnostics. */
+    private final MCEngineExtensionLogger logger;
+
+    /** Dialect name used in log messages. */
+    private final String dialect;
+
+    /** Statements creating both tables and the lease row; each must be idempotent. */
+    private final List<String> createSql;
+
+    /** Expression evaluating to the database clock in epoch millis. */
+    private final String nowMillis;
+
+    /**
+     * Query returning every row claimed by the token in {@code %1$s} (a quoted literal) as one text
+     * value of {@code stageId,payload} entries.
+     */
+    private final String takeSql;
+
+    /**
+     * Creates the stage helper.
+     *
+     * @param logger    extension logger
+     * @param dialect   dialect name for log messages
+     * @param createSql idempotent statements creating the tables and the lease row
+     * @param nowMillis expression for the database clock in epoch millis
+     * @param takeSql   claimed row query (see {@link #takeSql})
+     */
+    public EntityStage(MCEngineExtensionLogger logger, String dialect, List<String> createSql,
+                       String nowMillis, String takeSql) {
+        this.logger = logger;
+        this.dialect = dialect;
+        this.createSql = createSql;
+        this.nowMillis = nowMillis;
+        this.takeSql = takeSql;
+    }
+
+    /**
+     * Creates the stage and lease tables if missing.
+     *
+     * @return {@code false} if the schema could not be created
+     */
+    public boolean ensureSchema() {
+        try {
+            for (String sql : createSql) {
+                MCEngineEconomyCommon.getApi().executeQuery(sql);
+            }
+            return true;
+        } catch (Exception e) {
+            if (logger != null) logger.warning("[EntityDB] " + dialect + " stage schema creation failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Ships receipts to the stage. Receipts of one (player, coin type) must be contiguous; each run
+     * becomes one row. Rows are written in order, in one or more statements, stopping at the
+     * first statement that fails.
+     *
+     * @param nodeId   shipping node
+     * @param receipts receipts grouped by player and coin type
+     * @return number of leading receipts persisted
+     */
+    public int ship(String nodeId, List<EntityKillLogEntry> receipts) {
+        String node = EntitySqlUtil.appendLiteral(new StringBuilder(), nodeId).toString();
+        int shipped = 0;
+        int index = 0;
+        try {
+            while (index < receipts.size()) {
+                StringBuilder sql = new StringBuilder(Math.min(MAX_STATEMENT_BYTES, 256 + receipts.size() * 96));
+                int rows = 0;
+                int statementEnd = index;
+                while (statementEnd < receipts.size() && rows < MAX_ROWS_PER_STATEMENT
+                        && sql.length() < MAX_STATEMENT_BYTES) {
+                    sql.append(rows == 0 ? "INSERT INTO economy_entity_stage (node_id, payload) VALUES (" : ", (")
+                            .append(node).append(", ");
+                    statementEnd = appendPayload(sql, receipts, statementEnd);
+                    sql.append(')');
+                    rows++;
+                }
+                sql.append(';');
+                MCEngineEconomyCommon.getApi().executeQuery(sql.toString());
+                shipped = statementEnd;
+                index = statementEnd;
+            }
+        } catch (Exception e) {
+            if (logger != null) logger.warning("[EntityDB] " + dialect + " stage insert failed after "
+                    + shipped + " of " + receipts.size() + " receipts: " + e.getMessage());
+        }
+        return shipped;
+    }
+
+    /**
+     * Acquires or renews the merge lease.
+     *
+     * @param nodeId     node asking for the lease
+     * @param ttlMillis  lease duration from now
+     * @return whether {@code nodeId} holds the lease
+     */
+    public boolean holdLease(String nodeId, long ttlMillis) {
+        StringBuilder node = EntitySqlUtil.appendLiteral(new StringBuilder(), nodeId);
+        try {
+            MCEngineEconomyCommon.getApi().executeQuery("UPDATE economy_entity_lease SET holder = " + node
+                    + ", expires_at = " + nowMillis + " + " + ttlMillis
+                    + " WHERE name = " + LEASE + " AND (holder = " + node + " OR expires_at < " + nowMillis + ");");
+            String holder = MCEngineEconomyCommon.getApi().getValue("SELECT holder FROM economy_entity_lease WHERE name = "
+                    + LEASE + " AND expires_at > " + nowMillis + ";", String.class);
+            return nodeId.equals(holder);
+        } catch (Exception e) {
+            if (logger != null) logger.warning("[EntityDB] " + dialect + " merge lease check failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Gives up the merge lease so another node can take over without waiting for it to expire.
+     *
+     * @param nodeId node releasing the lease
+     */
+    public void releaseLease(String nodeId) {
+        try {
+            MCEngineEconomyCommon.getApi().executeQuery("UPDATE economy_entity_lease SET expires_at = 0 WHERE name = "
+                    + LEASE + " AND holder = " + EntitySqlUtil.appendLiteral(new StringBuilder(), nodeId) + ";");
+        } catch (Exception e) {
+            if (logger != null) logger.warning("[EntityDB] " + dialect + " merge lease release failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Claims, reads and deletes the oldest unclaimed stage rows. Only has an effect while
+     * {@code nodeId} holds the merge lease.
+     *
+     * @param nodeId    node holding the merge lease
+     * @param token     claim token, unique per call
+     * @param ttlMillis lease duration; claims older than twice this are released first
+     * @return the receipts of the taken rows, or {@code null} if a statement failed
+     */
+    public List<EntityKillLogEntry> take(String nodeId, String token, long ttlMillis) {
+        StringBuilder claim = EntitySqlUtil.appendLiteral(new StringBuilder(), token);
+        try {
+            MCEngineEconomyCommon.getApi().executeQuery("UPDATE economy_entity_stage SET claim = NULL, claimed_at = NULL"
+                    + " WHERE claim IS NOT NULL AND claimed_at < " + nowMillis + " - " + 2L * ttlMillis + ";");
+            Long upTo = MCEngineEconomyCommon.getApi().getValue("SELECT MAX(stage_id) FROM (SELECT stage_id FROM"
+                    + " economy_entity_stage WHERE claim IS NULL ORDER BY stage_id LIMIT " + MAX_TAKE_ROWS + ") s;", Long.class);
+            if (upTo == null) return List.of();
+
+            MCEngineEconomyCommon.getApi().executeQuery("UPDATE economy_entity_stage SET claim = " + claim
+                    + ", claimed_at = " + nowMillis + " WHERE stage_id <= " + upTo + " AND claim IS NULL"
+                    + " AND EXISTS (SELECT 1 FROM economy_entity_lease WHERE name = " + LEASE + " AND holder = "
+                    + EntitySqlUtil.appendLiteral(new StringBuilder(), nodeId) + " AND expires_at > " + nowMillis + ");");
+            String text = MCEngineEconomyCommon.getApi().getValue(takeSql.formatted(claim), String.class);
+            List<EntityKillLogEntry> receipts = decode(text);
+            MCEngineEconomyCommon.getApi().executeQuery("DELETE FROM economy_entity_stage WHERE claim = " + claim + ";");
+            return receipts;
+        } catch (Exception e) {
+            if (logger != null) logger.warning("[EntityDB] " + dialect + " stage merge failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Appends one payload literal for the run of receipts starting at {@code from}.
+     *
+     * @param sql      statement under construction
+     * @param receipts receipts grouped by player and coin type
+     * @param from     first receipt of the run
+     * @return index after the last receipt encoded
+     */
+    private static int appendPayload(StringBuilder sql, List<EntityKillLogEntry> receipts, int from) {
+        EntityKillLogEntry first = receipts.get(from);
+        HexFormat hex = HexFormat.of();
+        sql.append('\'').append(undash(first.playerUuid())).append(',')
+                .append(hex.formatHex(first.coinType().getBytes(StandardCharsets.UTF_8)));
+        int index = from;
+        while (index < receipts.size() && index - from < MAX_RECEIPTS_PER_ROW) {
+            EntityKillLogEntry r = receipts.get(index);
+            if (!r.playerUuid().equals(first.playerUuid()) || !r.coinType().equals(first.coinType())) break;
+            sql.append(',').append(hex.formatHex(r.entityType().getBytes(StandardCharsets.UTF_8)))
+                    .append(',').append(r.amount())
+                    .append(',').append(r.createdAt())
+                    .append(',').append(r.rewardKey() == null ? "" : undash(r.rewardKey()));
+            index++;
+        }
+        sql.append('\'');
+        return index;
+    }
+
+    /**
+     * Decodes claimed rows. A malformed row is logged and skipped whole, so it neither fails the
+     * take nor pays part of a row.
+     *
+     * @param text claimed rows as returned by {@link #takeSql}, may be {@code null}
+     * @return the decoded receipts
+     */
+    private List<EntityKillLogEntry> decode(String text) {
+        if (text == null || text.isEmpty()) return List.of();
+        List<EntityKillLogEntry> receipts = new ArrayList<>();
+        for (String encoded : ROW_SEPARATOR.split(text)) {
+            String[] f = encoded.split(",", -1);
+            if (f.length < 7 || (f.length - 3) % 4 != 0 || f[0].isEmpty() || f[1].length() != 32) continue;
+            int start = receipts.size();
+            try {
+                String player = dash(f[1]);
+                String coin = text(f[2]);
+                for (int i = 3; i < f.length; i += 4) {
+                    receipts.add(new EntityKillLogEntry(player, text(f[i]), coin, Integer.parseInt(f[i + 1]),
+                            Long.parseLong(f[i + 2]), f[i + 3].length() == 32 ? dash(f[i + 3]) : null));
+                }
+            } catch (IllegalArgumentException e) {
+                receipts.subList(start, receipts.size()).clear();
+                if (logger != null) logger.warning("[EntityDB] " + dialect + " skipped malformed stage row " + f[0] + ": " + e.getMessage());
+            }
+        }
+        return receipts;
+    }
+
+    /**
+     * @param uuid UUID string
+     * @return its 32 lowercase hex digits
+     */
+    private static String undash(String uuid) {
+        return uuid.replace("-", "").toLowerCase();
+    }
+
+    /**
+     * @param hex 32 hex digits
+     * @return the dashed UUID string
+     */
+    private static String dash(String hex) {
+        String h = hex.toLowerCase();
+        return h.substring(0, 8) + '-' + h.substring(8, 12) + '-' + h.substring(12, 16) + '-'
+                + h.substring(16, 20) + '-' + h.substring(20);
+    }
+
+    /**
+     * @param hex hex-encoded UTF-8 text
+     * @return the decoded text
+     */
+    private static String text(String hex) {
+        return new String(HexFormat.of().parseHex(hex), StandardCharsets.UTF_8);
+    }
+}
@@ -3,6 +3,21 @@ package io.github.mcengine.extension.addon.economy.entity.database.mysql;
 import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
 import io.github.mcengine.common.economy.MCEngineEconomyCommon;
 import io.github.mcengine.extension.addon.economy.entity.database.EntityDB;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityDictionary;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityEarningsLoader;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogEntry;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogFilter;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogMigration;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogPage;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogReader;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogRollup;
+import io.github.mcengine.extension.addon.economy.entity.database.EntitySchemaMeta;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityStage;
+import io.github.mcengine.extension.addon.economy.entity.util.EntitySqlUtil;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.BooleanSupplier;
 
 /**
  * MySQL implementation of {@link EntityDB}.
@@ -10,14 +25,76 @@ import io.github.mcengine.extension.addon.economy.entity.database.EntityDB;
  * Uses the unified Economy DB API ({@code executeQuery} / {@code getValue}) so it
  * does not hold a raw JDBC {@code Connection}. This keeps it compatible with both
  * SQL and NoSQL backends through a common interface.
+ * <p>
+ * Schema v3 stores players and reward keys as {@code BINARY(16)} and entity/coin types as {@code SMALLINT}
+ * dictionary ids, indexes {@code (player_uuid, created_time)} and {@code (created_time)}, and
+ * range-partitions the kill log by month. Rows are unique per {@code (reward_key, created_time)}, so
+ * replayed inserts are absorbed by {@code ON DUPLICATE KEY UPDATE}.
  */
 public class EntityDBMySQL implements EntityDB {
 
+    /**
+     * Upper bound on the size of a single bulk INSERT statement, kept well below the smallest
+     * {@code max_allowed_packet} default (4 MiB on MySQL 5.7) to leave room for protocol overhead.
+     */
+    private static final int MAX_STATEMENT_BYTES = 1024 * 1024;
+
+    /** Column list shared by the single and bulk inserts. */
+    private static final String INSERT_COLUMNS =
+            "INSERT INTO economy_entity_kill_log (reward_key, player_uuid, entity_type_id, coin_type_id, amount, created_time) VALUES ";
+
+    /** No-op update that makes a duplicate reward key skip the row without masking other errors. */
+    private static final String ON_DUPLICATE = " ON DUPLICATE KEY UPDATE kill_id = kill_id";
+
+    /** Number of future monthly partitions kept ahead of the current month. */
+    private static final int PARTITIONS_AHEAD = 2;
+
+    /** Kill log page query for {@link EntityKillLogReader}. */
+    private static final String KILL_LOG_PAGE_SQL = """
+            SELECT JSON_ARRAYAGG(CONCAT_WS(',', l.kill_id, COALESCE(LOWER(HEX(l.player_uuid)), ''), HEX(COALESCE(t.name, '')),
+                    HEX(COALESCE(c.name, '')), l.amount, UNIX_TIMESTAMP(l.created_time), COALESCE(LOWER(HEX(l.reward_key)), '')))
+            FROM (SELECT kill_id, player_uuid, entity_type_id, coin_type_id, amount, created_time, reward_key
+                  FROM economy_entity_kill_log WHERE kill_id > %1$d%3$s ORDER BY kill_id LIMIT %2$d) l
+            LEFT JOIN economy_entity_type_dict t ON t.type_id = l.entity_type_id
+            LEFT JOIN economy_entity_coin_dict c ON c.coin_id = l.coin_type_id;
+            """;
+
+    /** Earnings page query for {@link EntityEarningsLoader}. */
+    private static final String EARNINGS_PAGE_SQL = earningsPageSql();
+
+    /** Database clock in epoch millis, for the network mode lease. */
+    private static final String NOW_MILLIS = "CAST(UNIX_TIMESTAMP(NOW(3)) * 1000 AS SIGNED)";
+
+    /** Claimed stage rows query for {@link EntityStage}. */
+    private static final String STAGE_TAKE_SQL = """
+            SELECT JSON_ARRAYAGG(CONCAT(stage_id, ',', payload)) FROM economy_entity_stage WHERE claim = %1$s;
+            """;
+
     /**
      * Logger for diagnostics and setup messages.
      */
     private final MCEngineExtensionLogger logger;
 
+    /** Entity type dictionary. */
+    private final EntityDictionary entityTypes =
+            new EntityDictionary("economy_entity_type_dict", "type_id", "INSERT IGNORE INTO ", "");
+
+    /** Coin type dictionary. */
+    private final EntityDictionary coinTypes =
+            new EntityDictionary("economy_entity_coin_dict", "coin_id", "INSERT IGNORE INTO ", "");
+
+    /** Online copier for legacy v1 rows. */
+    private final EntityKillLogMigration migration;
+
+    /** Keyset-paged kill log reads. */
+    private final EntityKillLogReader killLogReader;
+
+    /** Network mode stage and merge lease. */
+    private final EntityStage stage;
+
+    /** Retention job, or {@code null} until {@link #startRollup(long, long, int, BooleanSupplier)}. */
+    private EntityKillLogRollup rollup;
+
     /**
      * Constructs the DB helper for MySQL.
      *
@@ -25,52 +102,405 @@ public class EntityDBMySQL implements EntityDB {
      */
     public EntityDBMySQL(MCEngineExtensionLogger logger) {
         this.logger = logger;
+        this.stage = new EntityStage(logger, "MySQL", List.of(
+                """
+                CREATE TABLE IF NOT EXISTS economy_entity_stage (
+                    stage_id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+                    node_id VARCHAR(64) NOT NULL,
+                    claim VARCHAR(128) NULL,
+                    claimed_at BIGINT NULL,
+                    payload MEDIUMTEXT NOT NULL,
+                    KEY idx_economy_entity_stage_claim (claim)
+                ) ENGINE=InnoDB;
+                """,
+                """
+                CREATE TABLE IF NOT EXISTS economy_entity_lease (
+                    name VARCHAR(32) NOT NULL PRIMARY KEY,
+                    holder VARCHAR(64) NULL,
+                    expires_at BIGINT NOT NULL
+                ) ENGINE=InnoDB;
+                """,
+                "INSERT IGNORE INTO economy_entity_lease (name, holder, expires_at) VALUES ('merge', NULL, 0);"),
+                NOW_MILLIS, STAGE_TAKE_SQL);
+        this.killLogReader = new EntityKillLogReader(logger, "MySQL", KILL_LOG_PAGE_SQL,
+                "X'%s'", "FROM_UNIXTIME(%d DIV 1000)");
+        this.migration = new EntityKillLogMigration(logger, "MySQL", List.of(
+                """
+                INSERT IGNORE INTO economy_entity_type_dict (name)
+                SELECT DISTINCT entity_type FROM economy_entity_kill_log_v1
+                WHERE kill_id > %1$d AND kill_id <= %2$d AND entity_type IS NOT NULL;
+                """,
+                """
+                INSERT IGNORE INTO economy_entity_coin_dict (name)
+                SELECT DISTINCT coin_type FROM economy_entity_kill_log_v1
+                WHERE kill_id > %1$d AND kill_id <= %2$d AND coin_type IS NOT NULL;
+                """,
+                """
+                INSERT IGNORE INTO economy_entity_kill_log (kill_id, player_uuid, entity_type_id, coin_type_id, amount, created_time)
+                SELECT l.kill_id, UNHEX(REPLACE(l.player_uuid, '-', '')), t.type_id, c.coin_id,
+                       COALESCE(l.amount, 0), COALESCE(l.created_time, CURRENT_TIMESTAMP)
+                FROM economy_entity_kill_log_v1 l
+                LEFT JOIN economy_entity_type_dict t ON t.name = l.entity_type
+                LEFT JOIN economy_entity_coin_dict c ON c.name = l.coin_type
+                WHERE l.kill_id > %1$d AND l.kill_id <= %2$d;
+                """),
+                "DROP TABLE IF EXISTS economy_entity_kill_log_v1;",
+                EntitySchemaMeta.MYSQL_UPSERT, 5000L, 50L);
     }
 
     @Override
     public void ensureSchema() {
-        final String sql = """
-            CREATE TABLE IF NOT EXISTS economy_entity_kill_log (
-                kill_id INT NOT NULL AUTO_INCREMENT,
-                player_uuid VARCHAR(36),
-                entity_type TEXT,
-                coin_type TEXT,
-                amount INT,
-                created_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                PRIMARY KEY (kill_id)
-            ) ENGINE=InnoDB;
-            """;
         try {
-            MCEngineEconomyCommon.getApi().executeQuery(sql);
+            MCEngineEconomyCommon.getApi().executeQuery(EntitySchemaMeta.CREATE_SQL);
+
+            Long version = EntitySchemaMeta.get(EntitySchemaMeta.VERSION);
+            if (version == null) {
+                // No version row says nothing about the table; only one without the v2 columns is legacy.
+                version = !tableExists("economy_entity_kill_log") ? 0L
+                        : !columnExists("economy_entity_kill_log", "entity_type_id") ? 1L
+                        : columnExists("economy_entity_kill_log", "reward_key") ? EntitySchemaMeta.CURRENT_VERSION : 2L;
+                if (version > 0L) EntitySchemaMeta.set(EntitySchemaMeta.MYSQL_UPSERT, EntitySchemaMeta.VERSION, version);
+            }
+
+            if (version == 1L && !tableExists("economy_entity_kill_log_v1")
+                    && !columnExists("economy_entity_kill_log", "entity_type_id")) {
+                // Record the copy range, then move the legacy table aside; its rows are copied in the background.
+                Long maxId = MCEngineEconomyCommon.getApi().getValue(
+                        "SELECT COALESCE(MAX(kill_id), 0) FROM economy_entity_kill_log;", Long.class);
+                EntitySchemaMeta.set(EntitySchemaMeta.MYSQL_UPSERT, EntitySchemaMeta.V2_COPY_MAX_ID, maxId == null ? 0L : maxId);
+                EntitySchemaMeta.set(EntitySchemaMeta.MYSQL_UPSERT, EntitySchemaMeta.V2_COPY_CURSOR, 0L);
+                MCEngineEconomyCommon.getApi().executeQuery(
+                        "RENAME TABLE economy_entity_kill_log TO economy_entity_kill_log_v1;");
+            }
+
+            createKillLogSchema();
+            createRollupSchema();
+
+            if (version < EntitySchemaMeta.CURRENT_VERSION) {
+                Long maxId = EntitySchemaMeta.get(EntitySchemaMeta.V2_COPY_MAX_ID);
+                if (maxId != null) {
+                    // Keep new ids above every legacy id so copied rows never collide.
+                    MCEngineEconomyCommon.getApi().executeQuery(
+                            "ALTER TABLE economy_entity_kill_log AUTO_INCREMENT = " + (maxId + 1) + ";");
+                }
+                EntitySchemaMeta.set(EntitySchemaMeta.MYSQL_UPSERT, EntitySchemaMeta.VERSION, EntitySchemaMeta.CURRENT_VERSION);
+                if (logger != null) logger.info("[EntityDB] MySQL schema upgraded to v" + EntitySchemaMeta.CURRENT_VERSION + ".");
+            }
+
             if (logger != null) logger.info("[EntityDB] MySQL schema ensured.");
 
-            // Example: verify table exists / row count using getValue
-            Integer count = MCEngineEconomyCommon.getApi()
-                    .getValue("SELECT COUNT(*) FROM economy_entity_kill_log;", Integer.class);
-            if (logger != null) logger.info("[EntityDB] MySQL kill_log rows: " + count);
+            migration.startIfPending();
         } catch (Exception e) {
             if (logger != null) logger.warning("[EntityDB] MySQL schema creation failed: " + e.getMessage());
         }
     }
 
+    /**
+     * MySQL has no {@code RETURNING}, and {@code LAST_INSERT_ID()} is per connection, which the
+     * pooled API does not pin; the id is therefore read back through the unique reward key.
+     */
     @Override
-    public void insertKillLog(String playerUuid, String entityType, String coinType, int amount) {
-        // NOTE: Using string formatting for demonstration to align with executeQuery(String).
-        // In production, prefer parameterized execution in the underlying implementation.
-        final String sql = """
-            INSERT INTO economy_entity_kill_log (player_uuid, entity_type, coin_type, amount, created_time)
-            VALUES ('%s', '%s', '%s', %d, CURRENT_TIMESTAMP);
-            """.formatted(playerUuid, entityType, coinType, amount);
+    public Long insertKillLog(EntityKillLogEntry entry) {
         try {
-            MCEngineEconomyCommon.getApi().executeQuery(sql);
-            if (logger != null) logger.info("[EntityDB] MySQL KillLog inserted for player=" + playerUuid);
+            StringBuilder sql = new StringBuilder(200).append(INSERT_COLUMNS);
+            appendRow(sql, entry);
+            sql.append(ON_DUPLICATE).append(';');
+            MCEngineEconomyCommon.getApi().executeQuery(sql.toString());
+            if (!EntitySqlUtil.isUuid(entry.rewardKey())) return null;
 
-            // Example: read back the latest id using getValue
-            Long lastId = MCEngineEconomyCommon.getApi()
-                    .getValue("SELECT MAX(kill_id) FROM economy_entity_kill_log;", Long.class);
-            if (logger != null) logger.info("[EntityDB] MySQL last inserted kill_id=" + lastId);
+            StringBuilder lookup = new StringBuilder(160).append("SELECT kill_id FROM economy_entity_kill_log WHERE reward_key = ");
+            EntitySqlUtil.appendUuidBlob(lookup, entry.rewardKey())
+                    .append(" AND created_time = FROM_UNIXTIME(").append(entry.createdAt() / 1000L).append(");");
+            return MCEngineEconomyCommon.getApi().getValue(lookup.toString(), Long.class);
         } catch (Exception e) {
             if (logger != null) logger.warning("[EntityDB] MySQL insertKillLog failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes rows as multi-row {@code VALUES} statements, starting a new statement whenever the
+     * next row would push it past {@link #MAX_STATEMENT_BYTES}.
+     */
+    @Override
+    public int insertKillLogs(List<EntityKillLogEntry> entries) {
+        int written = 0;
+        int index = 0;
+        try {
+            while (index < entries.size()) {
+                StringBuilder sql = new StringBuilder(Math.min(MAX_STATEMENT_BYTES, 128 + entries.size() * 100));
+                sql.append(INSERT_COLUMNS);
+                int chunkStart = index;
+                while (index < entries.size()) {
+                    int mark = sql.length();
+                    if (index > chunkStart) sql.append(',');
+                    appendRow(sql, entries.get(index));
+                    // Always keep at least one row so an oversized row still gets attempted.
+                    if (sql.length() + ON_DUPLICATE.length() > MAX_STATEMENT_BYTES && index > chunkStart) {
+                        sql.setLength(mark);
+                        break;
+                    }
+                    index++;
+                }
+                sql.append(ON_DUPLICATE).append(';');
+
+                MCEngineEconomyCommon.getApi().executeQuery(sql.toString());
+                written = index;
+            }
+        } catch (Exception e) {
+            if (logger != null) logger.warning("[EntityDB] MySQL insertKillLogs failed after " + written + " rows: " + e.getMessage());
+        }
+        return written;
+    }
+
+    @Override
+    public synchronized void startRollup(long rawMaxAgeMillis, long intervalMillis, int chunkSize, BooleanSupplier active) {
+        if (rollup != null) return;
+        rollup = new EntityKillLogRollup(logger, "MySQL",
+                "SELECT MAX(kill_id) FROM economy_entity_kill_log WHERE created_time < FROM_UNIXTIME(%1$d);",
+                List.of(
+                        rollupSql("economy_entity_kill_rollup_hour",
+                                "TIMESTAMP(DATE(created_time), MAKETIME(HOUR(created_time), 0, 0))"),
+                        rollupSql("economy_entity_kill_rollup_day", "TIMESTAMP(DATE(created_time))")),
+                "DELETE FROM economy_entity_kill_log WHERE kill_id > %1$d AND kill_id <= %2$d;",
+                EntitySchemaMeta.MYSQL_UPSERT, rawMaxAgeMillis, chunkSize, 50L, active, this::ensurePartitions);
+        rollup.start(intervalMillis);
+    }
+
+    @Override
+    public boolean loadEarnings(long beforeMillis, EntityEarningsLoader.Sink sink) {
+        return new EntityEarningsLoader(logger, "MySQL", EARNINGS_PAGE_SQL).load(beforeMillis, sink);
+    }
+
+    @Override
+    public EntityKillLogPage queryKillLog(EntityKillLogFilter filter, long afterKillId, int limit) {
+        return killLogReader.page(filter, afterKillId, limit);
+    }
+
+    @Override
+    public EntityStage stage() {
+        return stage;
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        migration.stop();
+        if (rollup != null) {
+            rollup.stop();
+            rollup = null;
+        }
+    }
+
+    /**
+     * Appends one {@code (..)} value tuple for the given row.
+     *
+     * @param sql   statement under construction
+     * @param entry row to append
+     */
+    private void appendRow(StringBuilder sql, EntityKillLogEntry entry) {
+        sql.append('(');
+        EntitySqlUtil.appendUuidBlob(sql, entry.rewardKey()).append(',');
+        EntitySqlUtil.appendUuidBlob(sql, entry.playerUuid())
+                .append(',').append(entityTypes.idOf(entry.entityType()))
+                .append(',').append(coinTypes.idOf(entry.coinType()))
+                .append(',').append(entry.amount())
+                .append(",FROM_UNIXTIME(").append(entry.createdAt() / 1000L).append("))");
+    }
+
+    /**
+     * Creates the dictionaries and kill log if they do not exist, and adds the reward key to a
+     * kill log created by schema v2.
+     */
+    private void createKillLogSchema() {
+        MCEngineEconomyCommon.getApi().executeQuery("""
+            CREATE TABLE IF NOT EXISTS economy_entity_type_dict (
+                type_id SMALLINT NOT NULL AUTO_INCREMENT,
+                name VARCHAR(64) NOT NULL,
+                PRIMARY KEY (type_id),
+                UNIQUE KEY uq_economy_entity_type_dict_name (name)
+            ) ENGINE=InnoDB;
+            """);
+        MCEngineEconomyCommon.getApi().executeQuery("""
+            CREATE TABLE IF NOT EXISTS economy_entity_coin_dict (
+                coin_id SMALLINT NOT NULL AUTO_INCREMENT,
+                name VARCHAR(64) NOT NULL,
+                PRIMARY KEY (coin_id),
+                UNIQUE KEY uq_economy_entity_coin_dict_name (name)
+            ) ENGINE=InnoDB;
+            """);
+
+        // The partition key must be part of every unique key, hence (kill_id, created_time).
+        // The first partition holds everything before next month, including migrated history.
+        YearMonth next = YearMonth.now().plusMonths(1);
+        MCEngineEconomyCommon.getApi().executeQuery("""
+            CREATE TABLE IF NOT EXISTS economy_entity_kill_log (
+                kill_id BIGINT NOT NULL AUTO_INCREMENT,
+                reward_key BINARY(16),
+                player_uuid BINARY(16),
+                entity_type_id SMALLINT,
+                coin_type_id SMALLINT,
+                amount INT NOT NULL,
+                created_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                PRIMARY KEY (kill_id, created_time),
+                UNIQUE KEY uq_economy_entity_kill_log_reward (reward_key, created_time),
+                KEY idx_economy_entity_kill_log_player_time (player_uuid, created_time),
+                KEY idx_economy_entity_kill_log_time (created_time)
+            ) ENGINE=InnoDB
+            PARTITION BY RANGE (UNIX_TIMESTAMP(created_time)) (
+                PARTITION %s VALUES LESS THAN (UNIX_TIMESTAMP('%s-01 00:00:00')),
+                PARTITION pmax VALUES LESS THAN MAXVALUE
+            );
+            """.formatted(partitionName(next.minusMonths(1)), next));
+
+        Integer hasRewardKey = MCEngineEconomyCommon.getApi().getValue(
+                "SELECT COUNT(*) FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() "
+                        + "AND TABLE_NAME = 'economy_entity_kill_log' AND COLUMN_NAME = 'reward_key';",
+                Integer.class);
+        if (hasRewardKey == null || hasRewardKey == 0) {
+            // The unique key must include the partitioning column, hence (reward_key, created_time).
+            MCEngineEconomyCommon.getApi().executeQuery("""
+                ALTER TABLE economy_entity_kill_log
+                    ADD COLUMN reward_key BINARY(16) NULL AFTER kill_id,
+                    ADD UNIQUE KEY uq_economy_entity_kill_log_reward (reward_key, created_time);
+                """);
+        }
+    }
+
+    /**
+     * Splits {@code pmax} so that monthly partitions exist from the current month up to
+     * {@link #PARTITIONS_AHEAD} months ahead. Runs on the rollup thread, which keeps {@code pmax}
+     * empty while the server is up, so each split is a metadata-only change. After a long downtime
+     * the missing months are split off one at a time, oldest first, so rows that reached
+     * {@code pmax} land in the partition of their own month.
+     */
+    private void ensurePartitions() {
+        String last = MCEngineEconomyCommon.getApi().getValue(
+                "SELECT MAX(PARTITION_NAME) FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() "
+                        + "AND TABLE_NAME = 'economy_entity_kill_log' AND PARTITION_NAME <> 'pmax';",
+                String.class);
+        YearMonth through = YearMonth.now().plusMonths(PARTITIONS_AHEAD);
+        YearMonth target = last == null ? YearMonth.now()
+                : YearMonth.of(Integer.parseInt(last.substring(1, 5)), Integer.parseInt(last.substring(5, 7))).plusMonths(1);
+        for (; !target.isAfter(through); target = target.plusMonths(1)) {
+            String name = partitionName(target);
+            MCEngineEconomyCommon.getApi().executeQuery("""
+                ALTER TABLE economy_entity_kill_log REORGANIZE PARTITION pmax INTO (
+                    PARTITION %s VALUES LESS THAN (UNIX_TIMESTAMP('%s-01 00:00:00')),
+                    PARTITION pmax VALUES LESS THAN MAXVALUE
+                );
+                """.formatted(name, target.plusMonths(1)));
+        }
+    }
+
+    /**
+     * Creates the hourly and daily rollup tables if they do not exist.
+     */
+    private void createRollupSchema() {
+        for (String table : List.of("economy_entity_kill_rollup_hour", "economy_entity_kill_rollup_day")) {
+            MCEngineEconomyCommon.getApi().executeQuery("""
+                CREATE TABLE IF NOT EXISTS %1$s (
+                    bucket_start DATETIME NOT NULL,
+                    player_uuid BINARY(16) NOT NULL,
+                    entity_type_id SMALLINT NOT NULL,
+                    coin_type_id SMALLINT NOT NULL,
+                    kills BIGINT NOT NULL,
+                    total_amount BIGINT NOT NULL,
+                    PRIMARY KEY (bucket_start, player_uuid, entity_type_id, coin_type_id),
+                    KEY idx_%1$s_player (player_uuid, bucket_start)
+                ) ENGINE=InnoDB;
+                """.formatted(table));
         }
     }
+
+    /**
+     * Builds the per-chunk upsert adding raw rows into one rollup table. Rows with a missing
+     * player or type are folded under an all-zero UUID and id {@code 0}.
+     *
+     * @param table  rollup table
+     * @param bucket SQL expression truncating {@code created_time} to the bucket start
+     * @return format string taking the chunk bounds
+     */
+    private static String rollupSql(String table, String bucket) {
+        return "INSERT INTO " + table + " (bucket_start, player_uuid, entity_type_id, coin_type_id, kills, total_amount) "
+                + "SELECT b, p, t, c, COUNT(*), SUM(amount) FROM ("
+                + "SELECT " + bucket + " AS b, COALESCE(player_uuid, X'00000000000000000000000000000000') AS p, "
+                + "COALESCE(entity_type_id, 0) AS t, COALESCE(coin_type_id, 0) AS c, amount "
+                + "FROM economy_entity_kill_log WHERE kill_id > %1$d AND kill_id <= %2$d) r "
+                + "GROUP BY b, p, t, c "
+                + "ON DUPLICATE KEY UPDATE kills = kills + VALUES(kills), total_amount = total_amount + VALUES(total_amount);";
+    }
+
+    /**
+     * Builds the earnings page query. The page's players are the lowest above the cursor in
+     * either table; each branch is limited first so both stay index range scans.
+     * {@code JSON_ARRAYAGG} is used instead of {@code GROUP_CONCAT}, whose result is cut at
+     * {@code group_concat_max_len} (1024 bytes by default).
+     *
+     * @return format string for {@link EntityEarningsLoader}
+     */
+    private static String earningsPageSql() {
+        String players = """
+                SELECT x.player_uuid FROM (
+                    SELECT a.player_uuid FROM (SELECT DISTINCT player_uuid FROM economy_entity_kill_rollup_day
+                        WHERE player_uuid > UNHEX('%1$s') ORDER BY player_uuid LIMIT %2$d) a
+                    UNION
+                    SELECT b.player_uuid FROM (SELECT DISTINCT player_uuid FROM economy_entity_kill_log
+                        WHERE player_uuid > UNHEX('%1$s') AND created_time < FROM_UNIXTIME(%3$d)
+                        ORDER BY player_uuid LIMIT %2$d) b
+                ) x ORDER BY x.player_uuid LIMIT %2$d""";
+        return """
+                SELECT JSON_ARRAYAGG(CONCAT_WS(',', LOWER(HEX(g.player_uuid)), HEX(COALESCE(t.name, '')),
+                        HEX(COALESCE(c.name, '')), g.kills, g.amount))
+                FROM (
+                    SELECT u.player_uuid, u.entity_type_id, u.coin_type_id, SUM(u.kills) AS kills, SUM(u.amount) AS amount
+                    FROM (
+                        SELECT r.player_uuid, r.entity_type_id, r.coin_type_id, r.kills, r.total_amount AS amount
+                        FROM economy_entity_kill_rollup_day r JOIN ({players}) p ON p.player_uuid = r.player_uuid
+                        UNION ALL
+                        SELECT l.player_uuid, l.entity_type_id, l.coin_type_id, 1, l.amount
+                        FROM economy_entity_kill_log l JOIN ({players}) p ON p.player_uuid = l.player_uuid
+                        WHERE l.created_time < FROM_UNIXTIME(%3$d)
+                    ) u
+                    GROUP BY u.player_uuid, u.entity_type_id, u.coin_type_id
+                ) g
+                LEFT JOIN economy_entity_type_dict t ON t.type_id = g.entity_type_id
+                LEFT JOIN economy_entity_coin_dict c ON c.coin_id = g.coin_type_id;
+                """.replace("{players}", players);
+    }
+
+    /**
+     * Checks whether a table exists in the current schema.
+     *
+     * @param table table name
+     * @return {@code true} if it exists
+     */
+    private static boolean tableExists(String table) {
+        Integer count = MCEngineEconomyCommon.getApi().getValue(
+                "SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '" + table + "';",
+                Integer.class);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Checks whether a table has a column.
+     *
+     * @param table  table name
+     * @param column column name
+     * @return {@code true} if the column exists
+     */
+    private static boolean columnExists(String table, String column) {
+        Integer count = MCEngineEconomyCommon.getApi().getValue(
+                "SELECT COUNT(*) FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '" + table
+                        + "' AND COLUMN_NAME = '" + column + "';",
+                Integer.class);
+        return count != null && count > 0;
+    }
+
+    /**
+     * @param month month whose rows the partition holds
+     * @return partition name such as {@code p202610}
+     */
+    private static String partitionName(YearMonth month) {
+        return "p%04d%02d".formatted(month.getYear(), month.getMonthValue());
+    }
 }
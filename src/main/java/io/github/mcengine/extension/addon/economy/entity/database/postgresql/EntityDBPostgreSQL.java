@@ -3,6 +3,21 @@ package io.github.mcengine.extension.addon.economy.entity.database.postgresql;
 import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
 import io.github.mcengine.common.economy.MCEngineEconomyCommon;
 import io.github.mcengine.extension.addon.economy.entity.database.EntityDB;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityDictionary;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityEarningsLoader;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogEntry;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogFilter;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogMigration;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogPage;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogReader;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogRollup;
+import io.github.mcengine.extension.addon.economy.entity.database.EntitySchemaMeta;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityStage;
+import io.github.mcengine.extension.addon.economy.entity.util.EntitySqlUtil;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.BooleanSupplier;
 
 /**
  * PostgreSQL implementation of {@link EntityDB}.
@@ -10,14 +25,72 @@ import io.github.mcengine.extension.addon.economy.entity.database.EntityDB;
  * Uses the unified Economy DB API ({@code executeQuery} / {@code getValue}) so it
  * does not hold a raw JDBC {@code Connection}. This keeps it compatible with both
  * SQL and NoSQL backends through a common interface.
+ * <p>
+ * Schema v3 stores players and reward keys as native {@code UUID} and entity/coin types as {@code SMALLINT}
+ * dictionary ids, indexes {@code (player_uuid, created_time)} and {@code (created_time)}, and
+ * declaratively range-partitions the kill log by month with a default partition for history. Rows
+ * are unique per {@code (reward_key, created_time)}, so replayed inserts are skipped with
+ * {@code ON CONFLICT DO NOTHING}.
  */
 public class EntityDBPostgreSQL implements EntityDB {
 
+    /**
+     * Maximum rows per {@code unnest} statement; keeps each array literal comfortably sized.
+     */
+    private static final int MAX_ROWS_PER_STATEMENT = 5000;
+
+    /** Number of future monthly partitions kept ahead of the current month. */
+    private static final int PARTITIONS_AHEAD = 2;
+
+    /** Kill log page query for {@link EntityKillLogReader}. */
+    private static final String KILL_LOG_PAGE_SQL = """
+            SELECT string_agg(l.kill_id || ',' || COALESCE(replace(l.player_uuid::text, '-', ''), '') || ','
+                    || encode(convert_to(COALESCE(t.name, ''), 'UTF8'), 'hex') || ','
+                    || encode(convert_to(COALESCE(c.name, ''), 'UTF8'), 'hex') || ',' || l.amount || ','
+                    || extract(epoch FROM l.created_time::timestamptz)::bigint || ','
+                    || COALESCE(replace(l.reward_key::text, '-', ''), ''), chr(10) ORDER BY l.kill_id)
+            FROM (SELECT kill_id, player_uuid, entity_type_id, coin_type_id, amount, created_time, reward_key
+                  FROM economy_entity_kill_log WHERE kill_id > %1$d%3$s ORDER BY kill_id LIMIT %2$d) l
+            LEFT JOIN economy_entity_type_dict t ON t.type_id = l.entity_type_id
+            LEFT JOIN economy_entity_coin_dict c ON c.coin_id = l.coin_type_id;
+            """;
+
+    /** Earnings page query for {@link EntityEarningsLoader}. */
+    private static final String EARNINGS_PAGE_SQL = earningsPageSql();
+
+    /** Database clock in epoch millis, for the network mode lease. */
+    private static final String NOW_MILLIS = "(EXTRACT(EPOCH FROM clock_timestamp()) * 1000)::bigint";
+
+    /** Claimed stage rows query for {@link EntityStage}. */
+    private static final String STAGE_TAKE_SQL = """
+            SELECT string_agg(stage_id || ',' || payload, chr(10)) FROM economy_entity_stage WHERE claim = %1$s;
+            """;
+
     /**
      * Logger for diagnostics and setup messages.
      */
     private final MCEngineExtensionLogger logger;
 
+    /** Entity type dictionary. */
+    private final EntityDictionary entityTypes = new EntityDictionary(
+            "economy_entity_type_dict", "type_id", "INSERT INTO ", " ON CONFLICT (name) DO NOTHING");
+
+    /** Coin type dictionary. */
+    private final EntityDictionary coinTypes = new EntityDictionary(
+            "economy_entity_coin_dict", "coin_id", "INSERT INTO ", " ON CONFLICT (name) DO NOTHING");
+
+    /** Online copier for legacy v1 rows. */
+    private final EntityKillLogMigration migration;
+
+    /** Keyset-paged kill log reads. */
+    private final EntityKillLogReader killLogReader;
+
+    /** Network mode stage and merge lease. */
+    private final EntityStage stage;
+
+    /** Retention job, or {@code null} until {@link #startRollup(long, long, int, BooleanSupplier)}. */
+    private EntityKillLogRollup rollup;
+
     /**
      * Constructs the DB helper for PostgreSQL.
      *
@@ -25,51 +98,442 @@ public class EntityDBPostgreSQL implements EntityDB {
      */
     public EntityDBPostgreSQL(MCEngineExtensionLogger logger) {
         this.logger = logger;
+        this.stage = new EntityStage(logger, "PostgreSQL", List.of(
+                """
+                CREATE TABLE IF NOT EXISTS economy_entity_stage (
+                    stage_id BIGSERIAL PRIMARY KEY,
+                    node_id VARCHAR(64) NOT NULL,
+                    claim VARCHAR(128),
+                    claimed_at BIGINT,
+                    payload TEXT NOT NULL
+                );
+                """,
+                "CREATE INDEX IF NOT EXISTS idx_economy_entity_stage_claim ON economy_entity_stage (claim);",
+                """
+                CREATE TABLE IF NOT EXISTS economy_entity_lease (
+                    name VARCHAR(32) PRIMARY KEY,
+                    holder VARCHAR(64),
+                    expires_at BIGINT NOT NULL
+                );
+                """,
+                "INSERT INTO economy_entity_lease (name, holder, expires_at) VALUES ('merge', NULL, 0) ON CONFLICT (name) DO NOTHING;"),
+                NOW_MILLIS, STAGE_TAKE_SQL);
+        this.killLogReader = new EntityKillLogReader(logger, "PostgreSQL", KILL_LOG_PAGE_SQL,
+                "'%s'::uuid", "to_timestamp(%d / 1000.0)::timestamp");
+        this.migration = new EntityKillLogMigration(logger, "PostgreSQL", List.of(
+                """
+                INSERT INTO economy_entity_type_dict (name)
+                SELECT DISTINCT entity_type FROM economy_entity_kill_log_v1
+                WHERE kill_id > %1$d AND kill_id <= %2$d AND entity_type IS NOT NULL
+                ON CONFLICT (name) DO NOTHING;
+                """,
+                """
+                INSERT INTO economy_entity_coin_dict (name)
+                SELECT DISTINCT coin_type FROM economy_entity_kill_log_v1
+                WHERE kill_id > %1$d AND kill_id <= %2$d AND coin_type IS NOT NULL
+                ON CONFLICT (name) DO NOTHING;
+                """,
+                """
+                INSERT INTO economy_entity_kill_log (kill_id, player_uuid, entity_type_id, coin_type_id, amount, created_time)
+                SELECT l.kill_id,
+                       CASE WHEN l.player_uuid ~* '^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$'
+                            THEN l.player_uuid::uuid END,
+                       t.type_id, c.coin_id, COALESCE(l.amount, 0), COALESCE(l.created_time, CURRENT_TIMESTAMP)
+                FROM economy_entity_kill_log_v1 l
+                LEFT JOIN economy_entity_type_dict t ON t.name = l.entity_type
+                LEFT JOIN economy_entity_coin_dict c ON c.name = l.coin_type
+                WHERE l.kill_id > %1$d AND l.kill_id <= %2$d
+                ON CONFLICT DO NOTHING;
+                """),
+                "DROP TABLE IF EXISTS economy_entity_kill_log_v1;",
+                EntitySchemaMeta.POSTGRESQL_UPSERT, 5000L, 50L);
     }
 
     @Override
     public void ensureSchema() {
-        final String sql = """
-            CREATE TABLE IF NOT EXISTS economy_entity_kill_log (
-                kill_id SERIAL PRIMARY KEY,
-                player_uuid VARCHAR(36),
-                entity_type TEXT,
-                coin_type TEXT,
-                amount INT,
-                created_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-            );
-            """;
         try {
-            MCEngineEconomyCommon.getApi().executeQuery(sql);
+            MCEngineEconomyCommon.getApi().executeQuery(EntitySchemaMeta.CREATE_SQL);
+
+            Long version = EntitySchemaMeta.get(EntitySchemaMeta.VERSION);
+            if (version == null) {
+                // No version row says nothing about the table; only one without the v2 columns is legacy.
+                version = !tableExists("economy_entity_kill_log") ? 0L
+                        : !columnExists("economy_entity_kill_log", "entity_type_id") ? 1L
+                        : columnExists("economy_entity_kill_log", "reward_key") ? EntitySchemaMeta.CURRENT_VERSION : 2L;
+                if (version > 0L) EntitySchemaMeta.set(EntitySchemaMeta.POSTGRESQL_UPSERT, EntitySchemaMeta.VERSION, version);
+            }
+
+            if (version == 1L && !tableExists("economy_entity_kill_log_v1")
+                    && !columnExists("economy_entity_kill_log", "entity_type_id")) {
+                // Record the copy range, then move the legacy table aside; its rows are copied in the background.
+                Long maxId = MCEngineEconomyCommon.getApi().getValue(
+                        "SELECT COALESCE(MAX(kill_id), 0) FROM economy_entity_kill_log;", Long.class);
+                EntitySchemaMeta.set(EntitySchemaMeta.POSTGRESQL_UPSERT, EntitySchemaMeta.V2_COPY_MAX_ID, maxId == null ? 0L : maxId);
+                EntitySchemaMeta.set(EntitySchemaMeta.POSTGRESQL_UPSERT, EntitySchemaMeta.V2_COPY_CURSOR, 0L);
+                MCEngineEconomyCommon.getApi().executeQuery(
+                        "ALTER TABLE economy_entity_kill_log RENAME TO economy_entity_kill_log_v1;");
+            }
+
+            createKillLogSchema();
+            createRollupSchema();
+
+            if (version < EntitySchemaMeta.CURRENT_VERSION) {
+                Long maxId = EntitySchemaMeta.get(EntitySchemaMeta.V2_COPY_MAX_ID);
+                if (maxId != null && maxId > 0) {
+                    // Keep new ids above every legacy id so copied rows never collide.
+                    MCEngineEconomyCommon.getApi().getValue(
+                            "SELECT setval(pg_get_serial_sequence('economy_entity_kill_log', 'kill_id'), " + maxId + ");",
+                            Long.class);
+                }
+                EntitySchemaMeta.set(EntitySchemaMeta.POSTGRESQL_UPSERT, EntitySchemaMeta.VERSION, EntitySchemaMeta.CURRENT_VERSION);
+                if (logger != null) logger.info("[EntityDB] PostgreSQL schema upgraded to v" + EntitySchemaMeta.CURRENT_VERSION + ".");
+            }
+
             if (logger != null) logger.info("[EntityDB] PostgreSQL schema ensured.");
 
-            // Example: verify table exists / row count using getValue
-            Integer count = MCEngineEconomyCommon.getApi()
-                    .getValue("SELECT COUNT(*) FROM economy_entity_kill_log;", Integer.class);
-            if (logger != null) logger.info("[EntityDB] PostgreSQL kill_log rows: " + count);
+            migration.startIfPending();
         } catch (Exception e) {
             if (logger != null) logger.warning("[EntityDB] PostgreSQL schema creation failed: " + e.getMessage());
         }
     }
 
+    /**
+     * Returns the generated id with {@code RETURNING}; when the reward key already exists nothing
+     * is returned and the existing row's id is looked up instead.
+     */
     @Override
-    public void insertKillLog(String playerUuid, String entityType, String coinType, int amount) {
-        // NOTE: Using string formatting for demonstration to align with executeQuery(String).
-        // In production, prefer parameterized execution in the underlying implementation.
-        final String sql = """
-            INSERT INTO economy_entity_kill_log (player_uuid, entity_type, coin_type, amount, created_time)
-            VALUES ('%s', '%s', '%s', %d, CURRENT_TIMESTAMP);
-            """.formatted(playerUuid, entityType, coinType, amount);
+    public Long insertKillLog(EntityKillLogEntry entry) {
         try {
-            MCEngineEconomyCommon.getApi().executeQuery(sql);
-            if (logger != null) logger.info("[EntityDB] PostgreSQL KillLog inserted for player=" + playerUuid);
+            String time = "to_timestamp(" + entry.createdAt() + " / 1000.0)::timestamp";
+            StringBuilder sql = new StringBuilder(240);
+            sql.append("INSERT INTO economy_entity_kill_log (reward_key, player_uuid, entity_type_id, coin_type_id, amount, created_time) VALUES (");
+            appendUuid(sql, entry.rewardKey()).append(',');
+            appendUuid(sql, entry.playerUuid())
+                    .append(',').append(entityTypes.idOf(entry.entityType()))
+                    .append(',').append(coinTypes.idOf(entry.coinType()))
+                    .append(',').append(entry.amount())
+                    .append(',').append(time)
+                    .append(") ON CONFLICT DO NOTHING RETURNING kill_id;");
+            Long id = MCEngineEconomyCommon.getApi().getValue(sql.toString(), Long.class);
+            if (id != null || !EntitySqlUtil.isUuid(entry.rewardKey())) return id;
 
-            // Example: read back the latest id using getValue
-            Long lastId = MCEngineEconomyCommon.getApi()
-                    .getValue("SELECT MAX(kill_id) FROM economy_entity_kill_log;", Long.class);
-            if (logger != null) logger.info("[EntityDB] PostgreSQL last inserted kill_id=" + lastId);
+            StringBuilder lookup = new StringBuilder(160).append("SELECT kill_id FROM economy_entity_kill_log WHERE reward_key = ");
+            appendUuid(lookup, entry.rewardKey()).append(" AND created_time = ").append(time).append(';');
+            return MCEngineEconomyCommon.getApi().getValue(lookup.toString(), Long.class);
         } catch (Exception e) {
             if (logger != null) logger.warning("[EntityDB] PostgreSQL insertKillLog failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes rows column-wise: each column is sent as one typed array and expanded server-side
+     * with {@code unnest}, so the planner sees a single five-parameter statement regardless of
+     * row count instead of one {@code VALUES} tuple per row.
+     */
+    @Override
+    public int insertKillLogs(List<EntityKillLogEntry> entries) {
+        int written = 0;
+        for (int start = 0; start < entries.size(); start += MAX_ROWS_PER_STATEMENT) {
+            List<EntityKillLogEntry> chunk = entries.subList(start, Math.min(entries.size(), start + MAX_ROWS_PER_STATEMENT));
+            try {
+                MCEngineEconomyCommon.getApi().executeQuery(buildUnnestInsert(chunk));
+                written += chunk.size();
+            } catch (Exception e) {
+                if (logger != null) logger.warning("[EntityDB] PostgreSQL insertKillLogs failed after " + written + " rows: " + e.getMessage());
+                break;
+            }
+        }
+        return written;
+    }
+
+    @Override
+    public synchronized void startRollup(long rawMaxAgeMillis, long intervalMillis, int chunkSize, BooleanSupplier active) {
+        if (rollup != null) return;
+        rollup = new EntityKillLogRollup(logger, "PostgreSQL",
+                "SELECT MAX(kill_id) FROM economy_entity_kill_log WHERE created_time < to_timestamp(%1$d)::timestamp;",
+                List.of(
+                        rollupSql("economy_entity_kill_rollup_hour", "hour"),
+                        rollupSql("economy_entity_kill_rollup_day", "day")),
+                "DELETE FROM economy_entity_kill_log WHERE kill_id > %1$d AND kill_id <= %2$d;",
+                EntitySchemaMeta.POSTGRESQL_UPSERT, rawMaxAgeMillis, chunkSize, 50L, active, this::ensurePartitions);
+        rollup.start(intervalMillis);
+    }
+
+    @Override
+    public boolean loadEarnings(long beforeMillis, EntityEarningsLoader.Sink sink) {
+        return new EntityEarningsLoader(logger, "PostgreSQL", EARNINGS_PAGE_SQL).load(beforeMillis, sink);
+    }
+
+    @Override
+    public EntityKillLogPage queryKillLog(EntityKillLogFilter filter, long afterKillId, int limit) {
+        return killLogReader.page(filter, afterKillId, limit);
+    }
+
+    @Override
+    public EntityStage stage() {
+        return stage;
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        migration.stop();
+        if (rollup != null) {
+            rollup.stop();
+            rollup = null;
+        }
+    }
+
+    /**
+     * Builds an {@code INSERT ... SELECT FROM unnest(...)} statement for one chunk.
+     *
+     * @param chunk rows to include
+     * @return SQL text
+     */
+    private String buildUnnestInsert(List<EntityKillLogEntry> chunk) {
+        StringBuilder keys = new StringBuilder(chunk.size() * 40);
+        StringBuilder uuids = new StringBuilder(chunk.size() * 40);
+        StringBuilder types = new StringBuilder(chunk.size() * 4);
+        StringBuilder coins = new StringBuilder(chunk.size() * 2);
+        StringBuilder amounts = new StringBuilder(chunk.size() * 6);
+        StringBuilder times = new StringBuilder(chunk.size() * 14);
+        for (int i = 0; i < chunk.size(); i++) {
+            EntityKillLogEntry e = chunk.get(i);
+            if (i > 0) {
+                keys.append(',');
+                uuids.append(',');
+                types.append(',');
+                coins.append(',');
+                amounts.append(',');
+                times.append(',');
+            }
+            appendArrayUuid(keys, e.rewardKey());
+            appendArrayUuid(uuids, e.playerUuid());
+            types.append(entityTypes.idOf(e.entityType()));
+            coins.append(coinTypes.idOf(e.coinType()));
+            amounts.append(e.amount());
+            times.append(e.createdAt());
+        }
+
+        return "INSERT INTO economy_entity_kill_log (reward_key, player_uuid, entity_type_id, coin_type_id, amount, created_time) "
+                + "SELECT k, u, t, c, a, to_timestamp(ms / 1000.0)::timestamp FROM unnest("
+                + "ARRAY[" + keys + "]::uuid[], "
+                + "ARRAY[" + uuids + "]::uuid[], "
+                + "ARRAY[" + types + "]::smallint[], "
+                + "ARRAY[" + coins + "]::smallint[], "
+                + "ARRAY[" + amounts + "]::int[], "
+                + "ARRAY[" + times + "]::bigint[]) AS r(k, u, t, c, a, ms) "
+                + "ON CONFLICT DO NOTHING;";
+    }
+
+    /**
+     * Appends a quoted UUID array element, or {@code NULL} if the value is not a UUID.
+     *
+     * @param array array body under construction
+     * @param uuid  UUID string
+     */
+    private static void appendArrayUuid(StringBuilder array, String uuid) {
+        if (EntitySqlUtil.isUuid(uuid)) {
+            array.append('\'').append(uuid).append('\'');
+        } else {
+            array.append("NULL");
         }
     }
+
+    /**
+     * Appends a UUID literal, or {@code NULL} if the value is not a UUID.
+     *
+     * @param sql  statement under construction
+     * @param uuid UUID string
+     * @return the same builder
+     */
+    private static StringBuilder appendUuid(StringBuilder sql, String uuid) {
+        return EntitySqlUtil.isUuid(uuid) ? sql.append('\'').append(uuid).append("'::uuid") : sql.append("NULL");
+    }
+
+    /**
+     * Creates the dictionaries, the partitioned kill log, its default partition and indexes, and
+     * adds the reward key to a kill log created by schema v2.
+     */
+    private void createKillLogSchema() {
+        MCEngineEconomyCommon.getApi().executeQuery("""
+            CREATE TABLE IF NOT EXISTS economy_entity_type_dict (
+                type_id SMALLSERIAL PRIMARY KEY,
+                name VARCHAR(64) NOT NULL UNIQUE
+            );
+            """);
+        MCEngineEconomyCommon.getApi().executeQuery("""
+            CREATE TABLE IF NOT EXISTS economy_entity_coin_dict (
+                coin_id SMALLSERIAL PRIMARY KEY,
+                name VARCHAR(64) NOT NULL UNIQUE
+            );
+            """);
+
+        // The partition key must be part of every unique key, hence (kill_id, created_time).
+        MCEngineEconomyCommon.getApi().executeQuery("""
+            CREATE TABLE IF NOT EXISTS economy_entity_kill_log (
+                kill_id BIGSERIAL,
+                reward_key UUID,
+                player_uuid UUID,
+                entity_type_id SMALLINT,
+                coin_type_id SMALLINT,
+                amount INT NOT NULL,
+                created_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                PRIMARY KEY (kill_id, created_time)
+            ) PARTITION BY RANGE (created_time);
+            """);
+        MCEngineEconomyCommon.getApi().executeQuery(
+                "CREATE TABLE IF NOT EXISTS economy_entity_kill_log_default PARTITION OF economy_entity_kill_log DEFAULT;");
+        MCEngineEconomyCommon.getApi().executeQuery(
+                "ALTER TABLE economy_entity_kill_log ADD COLUMN IF NOT EXISTS reward_key UUID;");
+        // A unique index on a partitioned table must include the partition key.
+        MCEngineEconomyCommon.getApi().executeQuery(
+                "CREATE UNIQUE INDEX IF NOT EXISTS uq_economy_entity_kill_log_reward ON economy_entity_kill_log (reward_key, created_time);");
+        MCEngineEconomyCommon.getApi().executeQuery(
+                "CREATE INDEX IF NOT EXISTS idx_economy_entity_kill_log_player_time ON economy_entity_kill_log (player_uuid, created_time);");
+        MCEngineEconomyCommon.getApi().executeQuery(
+                "CREATE INDEX IF NOT EXISTS idx_economy_entity_kill_log_time ON economy_entity_kill_log (created_time);");
+    }
+
+    /**
+     * Creates monthly partitions for the current month and {@link #PARTITIONS_AHEAD} months ahead.
+     * Runs on the rollup thread. A month whose rows already reached the default partition (e.g.
+     * after a long downtime) cannot be created while they are there, so the default partition is
+     * detached, the month created, its rows moved over and the default reattached, all in one
+     * statement and therefore one transaction.
+     */
+    private void ensurePartitions() {
+        YearMonth month = YearMonth.now();
+        for (int i = 0; i <= PARTITIONS_AHEAD; i++) {
+            YearMonth target = month.plusMonths(i);
+            MCEngineEconomyCommon.getApi().executeQuery("""
+                DO $$
+                BEGIN
+                    IF to_regclass('economy_entity_kill_log_%1$s') IS NOT NULL THEN
+                        RETURN;
+                    END IF;
+                    IF NOT EXISTS (SELECT 1 FROM economy_entity_kill_log_default
+                                   WHERE created_time >= '%2$s-01' AND created_time < '%3$s-01') THEN
+                        CREATE TABLE economy_entity_kill_log_%1$s PARTITION OF economy_entity_kill_log
+                            FOR VALUES FROM ('%2$s-01') TO ('%3$s-01');
+                        RETURN;
+                    END IF;
+                    ALTER TABLE economy_entity_kill_log DETACH PARTITION economy_entity_kill_log_default;
+                    CREATE TABLE economy_entity_kill_log_%1$s PARTITION OF economy_entity_kill_log
+                        FOR VALUES FROM ('%2$s-01') TO ('%3$s-01');
+                    INSERT INTO economy_entity_kill_log (kill_id, reward_key, player_uuid, entity_type_id, coin_type_id, amount, created_time)
+                    SELECT kill_id, reward_key, player_uuid, entity_type_id, coin_type_id, amount, created_time
+                    FROM economy_entity_kill_log_default WHERE created_time >= '%2$s-01' AND created_time < '%3$s-01';
+                    DELETE FROM economy_entity_kill_log_default WHERE created_time >= '%2$s-01' AND created_time < '%3$s-01';
+                    ALTER TABLE economy_entity_kill_log ATTACH PARTITION economy_entity_kill_log_default DEFAULT;
+                END $$;
+                """.formatted("p%04d%02d".formatted(target.getYear(), target.getMonthValue()), target, target.plusMonths(1)));
+        }
+    }
+
+    /**
+     * Creates the hourly and daily rollup tables if they do not exist.
+     */
+    private void createRollupSchema() {
+        for (String table : List.of("economy_entity_kill_rollup_hour", "economy_entity_kill_rollup_day")) {
+            MCEngineEconomyCommon.getApi().executeQuery("""
+                CREATE TABLE IF NOT EXISTS %1$s (
+                    bucket_start TIMESTAMP NOT NULL,
+                    player_uuid UUID NOT NULL,
+                    entity_type_id SMALLINT NOT NULL,
+                    coin_type_id SMALLINT NOT NULL,
+                    kills BIGINT NOT NULL,
+                    total_amount BIGINT NOT NULL,
+                    PRIMARY KEY (bucket_start, player_uuid, entity_type_id, coin_type_id)
+                );
+                """.formatted(table));
+            MCEngineEconomyCommon.getApi().executeQuery(
+                    "CREATE INDEX IF NOT EXISTS idx_%1$s_player ON %1$s (player_uuid, bucket_start);".formatted(table));
+        }
+    }
+
+    /**
+     * Builds the per-chunk upsert adding raw rows into one rollup table. Rows with a missing
+     * player or type are folded under the nil UUID and id {@code 0}.
+     *
+     * @param table rollup table
+     * @param unit  {@code date_trunc} unit ({@code hour} or {@code day})
+     * @return format string taking the chunk bounds
+     */
+    private static String rollupSql(String table, String unit) {
+        return "INSERT INTO " + table + " AS r (bucket_start, player_uuid, entity_type_id, coin_type_id, kills, total_amount) "
+                + "SELECT date_trunc('" + unit + "', created_time), "
+                + "COALESCE(player_uuid, '00000000-0000-0000-0000-000000000000'::uuid), "
+                + "COALESCE(entity_type_id, 0), COALESCE(coin_type_id, 0), COUNT(*), SUM(amount) "
+                + "FROM economy_entity_kill_log WHERE kill_id > %1$d AND kill_id <= %2$d "
+                + "GROUP BY 1, 2, 3, 4 "
+                + "ON CONFLICT (bucket_start, player_uuid, entity_type_id, coin_type_id) DO UPDATE "
+                + "SET kills = r.kills + EXCLUDED.kills, total_amount = r.total_amount + EXCLUDED.total_amount;";
+    }
+
+    /**
+     * Builds the earnings page query. The page's players are the lowest above the cursor in
+     * either table; each branch is limited first so both stay index range scans.
+     *
+     * @return format string for {@link EntityEarningsLoader}
+     */
+    private static String earningsPageSql() {
+        String players = """
+                SELECT x.player_uuid FROM (
+                    SELECT a.player_uuid FROM (SELECT DISTINCT player_uuid FROM economy_entity_kill_rollup_day
+                        WHERE player_uuid > '%1$s'::uuid ORDER BY player_uuid LIMIT %2$d) a
+                    UNION
+                    SELECT b.player_uuid FROM (SELECT DISTINCT player_uuid FROM economy_entity_kill_log
+                        WHERE player_uuid > '%1$s'::uuid AND created_time < to_timestamp(%3$d)::timestamp
+                        ORDER BY player_uuid LIMIT %2$d) b
+                ) x ORDER BY x.player_uuid LIMIT %2$d""";
+        return """
+                SELECT string_agg(replace(g.player_uuid::text, '-', '') || ','
+                        || encode(convert_to(COALESCE(t.name, ''), 'UTF8'), 'hex') || ','
+                        || encode(convert_to(COALESCE(c.name, ''), 'UTF8'), 'hex') || ','
+                        || g.kills || ',' || g.amount, chr(10))
+                FROM (
+                    SELECT u.player_uuid, u.entity_type_id, u.coin_type_id, SUM(u.kills) AS kills, SUM(u.amount) AS amount
+                    FROM (
+                        SELECT r.player_uuid, r.entity_type_id, r.coin_type_id, r.kills, r.total_amount AS amount
+                        FROM economy_entity_kill_rollup_day r JOIN ({players}) p ON p.player_uuid = r.player_uuid
+                        UNION ALL
+                        SELECT l.player_uuid, l.entity_type_id, l.coin_type_id, 1, l.amount
+                        FROM economy_entity_kill_log l JOIN ({players}) p ON p.player_uuid = l.player_uuid
+                        WHERE l.created_time < to_timestamp(%3$d)::timestamp
+                    ) u
+                    GROUP BY u.player_uuid, u.entity_type_id, u.coin_type_id
+                ) g
+                LEFT JOIN economy_entity_type_dict t ON t.type_id = g.entity_type_id
+                LEFT JOIN economy_entity_coin_dict c ON c.coin_id = g.coin_type_id;
+                """.replace("{players}", players);
+    }
+
+    /**
+     * Checks whether a table exists in the current schema.
+     *
+     * @param table table name
+     * @return {@code true} if it exists
+     */
+    private static boolean tableExists(String table) {
+        Integer count = MCEngineEconomyCommon.getApi().getValue(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = current_schema() AND table_name = '" + table + "';",
+                Integer.class);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Checks whether a table has a column.
+     *
+     * @param table  table name
+     * @param column column name
+     * @return {@code true} if the column exists
+     */
+    private static boolean columnExists(String table, String column) {
+        Integer count = MCEngineEconomyCommon.getApi().getValue(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = current_schema() AND table_name = '" + table
+                        + "' AND column_name = '" + column + "';",
+                Integer.class);
+        return count != null && count > 0;
+    }
 }
@@ -3,18 +3,88 @@ package io.github.mcengine.extension.addon.economy.entity.database.sqlite;
 import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
 import io.github.mcengine.common.economy.MCEngineEconomyCommon;
 import io.github.mcengine.extension.addon.economy.entity.database.EntityDB;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityDictionary;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityEarningsLoader;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogEntry;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogFilter;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogMigration;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogPage;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogReader;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogRollup;
+import io.github.mcengine.extension.addon.economy.entity.database.EntitySchemaMeta;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityStage;
+import io.github.mcengine.extension.addon.economy.entity.util.EntitySqlUtil;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
 
 /**
  * SQLite implementation of {@link EntityDB}.
  * <p>
  * Uses the unified {@link io.github.mcengine.common.economy.database.MCEngineEconomyApiDBInterface}
  * API instead of holding a raw JDBC connection.
+ * <p>
+ * Schema v3 stores players and reward keys as 16-byte {@code BLOB}s and entity/coin types as dictionary ids, with
+ * indexes on {@code (player_uuid, created_time)} and {@code (created_time)}. SQLite has no
+ * partitioning, so the kill log stays a single table. Rows are unique per {@code reward_key}, so
+ * replayed inserts are skipped with {@code ON CONFLICT DO NOTHING} (SQLite 3.24+).
  */
 public class EntityDBSQLite implements EntityDB {
 
+    /**
+     * Maximum rows per INSERT; older SQLite builds cap multi-row {@code VALUES} at 500 terms.
+     */
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    /** Column list shared by the single and bulk inserts. */
+    private static final String INSERT_COLUMNS =
+            "INSERT INTO economy_entity_kill_log (reward_key, player_uuid, entity_type_id, coin_type_id, amount, created_time) VALUES ";
+
+    /** Kill log page query for {@link EntityKillLogReader}. */
+    private static final String KILL_LOG_PAGE_SQL = """
+            SELECT group_concat(l.kill_id || ',' || lower(hex(l.player_uuid)) || ',' || hex(COALESCE(t.name, '')) || ','
+                    || hex(COALESCE(c.name, '')) || ',' || l.amount || ',' || CAST(strftime('%%s', l.created_time) AS INTEGER)
+                    || ',' || lower(hex(l.reward_key)), char(10))
+            FROM (SELECT kill_id, player_uuid, entity_type_id, coin_type_id, amount, created_time, reward_key
+                  FROM economy_entity_kill_log WHERE kill_id > %1$d%3$s ORDER BY kill_id LIMIT %2$d) l
+            LEFT JOIN economy_entity_type_dict t ON t.type_id = l.entity_type_id
+            LEFT JOIN economy_entity_coin_dict c ON c.coin_id = l.coin_type_id;
+            """;
+
+    /** Earnings page query for {@link EntityEarningsLoader}. */
+    private static final String EARNINGS_PAGE_SQL = earningsPageSql();
+
+    /** Database clock in epoch millis, for the network mode lease. */
+    private static final String NOW_MILLIS = "CAST((julianday('now') - 2440587.5) * 86400000 AS INTEGER)";
+
+    /** Claimed stage rows query for {@link EntityStage}. */
+    private static final String STAGE_TAKE_SQL = """
+            SELECT group_concat(stage_id || ',' || payload, char(10)) FROM economy_entity_stage WHERE claim = %1$s;
+            """;
+
     /** Logger for diagnostics and setup messages. */
     private final MCEngineExtensionLogger logger;
 
+    /** Entity type dictionary. */
+    private final EntityDictionary entityTypes =
+            new EntityDictionary("economy_entity_type_dict", "type_id", "INSERT OR IGNORE INTO ", "");
+
+    /** Coin type dictionary. */
+    private final EntityDictionary coinTypes =
+            new EntityDictionary("economy_entity_coin_dict", "coin_id", "INSERT OR IGNORE INTO ", "");
+
+    /** Online copier for legacy v1 rows. */
+    private final EntityKillLogMigration migration;
+
+    /** Keyset-paged kill log reads. */
+    private final EntityKillLogReader killLogReader;
+
+    /** Network mode stage and merge lease. */
+    private final EntityStage stage;
+
+    /** Retention job, or {@code null} until {@link #startRollup(long, long, int, BooleanSupplier)}. */
+    private EntityKillLogRollup rollup;
+
     /**
      * Constructs the DB helper for SQLite.
      *
@@ -22,52 +92,361 @@ public class EntityDBSQLite implements EntityDB {
      */
     public EntityDBSQLite(MCEngineExtensionLogger logger) {
         this.logger = logger;
+        this.stage = new EntityStage(logger, "SQLite", List.of(
+                """
+                CREATE TABLE IF NOT EXISTS economy_entity_stage (
+                    stage_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    node_id TEXT NOT NULL,
+                    claim TEXT,
+                    claimed_at INTEGER,
+                    payload TEXT NOT NULL
+                );
+                """,
+                "CREATE INDEX IF NOT EXISTS idx_economy_entity_stage_claim ON economy_entity_stage (claim);",
+                """
+                CREATE TABLE IF NOT EXISTS economy_entity_lease (
+                    name TEXT PRIMARY KEY,
+                    holder TEXT,
+                    expires_at INTEGER NOT NULL
+                );
+                """,
+                "INSERT OR IGNORE INTO economy_entity_lease (name, holder, expires_at) VALUES ('merge', NULL, 0);"),
+                NOW_MILLIS, STAGE_TAKE_SQL);
+        this.killLogReader = new EntityKillLogReader(logger, "SQLite", KILL_LOG_PAGE_SQL,
+                "X'%s'", "datetime(%d / 1000, 'unixepoch')");
+        // unhex() requires SQLite 3.41 or newer.
+        this.migration = new EntityKillLogMigration(logger, "SQLite", List.of(
+                """
+                INSERT OR IGNORE INTO economy_entity_type_dict (name)
+                SELECT DISTINCT entity_type FROM economy_entity_kill_log_v1
+                WHERE kill_id > %1$d AND kill_id <= %2$d AND entity_type IS NOT NULL;
+                """,
+                """
+                INSERT OR IGNORE INTO economy_entity_coin_dict (name)
+                SELECT DISTINCT coin_type FROM economy_entity_kill_log_v1
+                WHERE kill_id > %1$d AND kill_id <= %2$d AND coin_type IS NOT NULL;
+                """,
+                """
+                INSERT OR IGNORE INTO economy_entity_kill_log (kill_id, player_uuid, entity_type_id, coin_type_id, amount, created_time)
+                SELECT l.kill_id, unhex(replace(l.player_uuid, '-', '')), t.type_id, c.coin_id,
+                       COALESCE(l.amount, 0), COALESCE(l.created_time, CURRENT_TIMESTAMP)
+                FROM economy_entity_kill_log_v1 l
+                LEFT JOIN economy_entity_type_dict t ON t.name = l.entity_type
+                LEFT JOIN economy_entity_coin_dict c ON c.name = l.coin_type
+                WHERE l.kill_id > %1$d AND l.kill_id <= %2$d;
+                """),
+                "DROP TABLE IF EXISTS economy_entity_kill_log_v1;",
+                EntitySchemaMeta.SQLITE_UPSERT, 5000L, 50L);
     }
 
     @Override
     public void ensureSchema() {
-        final String sql = """
-            CREATE TABLE IF NOT EXISTS economy_entity_kill_log (
-                kill_id INTEGER PRIMARY KEY AUTOINCREMENT,
-                player_uuid VARCHAR(36),
-                entity_type TEXT,
-                coin_type TEXT,
-                amount INT,
-                created_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-            );
-            """;
         try {
-            MCEngineEconomyCommon.getApi().executeQuery(sql);
-            if (logger != null) logger.info("[EntityDB] SQLite schema ensured.");
+            // WAL lets readers proceed during batch writes; NORMAL sync is durable in WAL mode
+            // except for the last commits before a power loss, which is acceptable for audit rows.
+            String journalMode = MCEngineEconomyCommon.getApi().getValue("PRAGMA journal_mode=WAL;", String.class);
+            MCEngineEconomyCommon.getApi().executeQuery("PRAGMA synchronous=NORMAL;");
+            if (logger != null) logger.info("[EntityDB] SQLite journal_mode=" + journalMode + ", synchronous=NORMAL");
+        } catch (Exception e) {
+            if (logger != null) logger.warning("[EntityDB] SQLite pragma setup failed: " + e.getMessage());
+        }
 
-            // Example use of getValue: count how many rows exist after creation
-            Integer count = MCEngineEconomyCommon.getApi()
-                    .getValue("SELECT COUNT(*) FROM economy_entity_kill_log;", Integer.class);
-            if (logger != null) logger.info("[EntityDB] Current kill_log rows: " + count);
+        try {
+            MCEngineEconomyCommon.getApi().executeQuery(EntitySchemaMeta.CREATE_SQL);
+
+            Long version = EntitySchemaMeta.get(EntitySchemaMeta.VERSION);
+            if (version == null) {
+                // No version row says nothing about the table; only one without the v2 columns is legacy.
+                version = !tableExists("economy_entity_kill_log") ? 0L
+                        : !columnExists("economy_entity_kill_log", "entity_type_id") ? 1L
+                        : columnExists("economy_entity_kill_log", "reward_key") ? EntitySchemaMeta.CURRENT_VERSION : 2L;
+                if (version > 0L) EntitySchemaMeta.set(EntitySchemaMeta.SQLITE_UPSERT, EntitySchemaMeta.VERSION, version);
+            }
+
+            if (version == 1L && !tableExists("economy_entity_kill_log_v1")
+                    && !columnExists("economy_entity_kill_log", "entity_type_id")) {
+                // Record the copy range, then move the legacy table aside; its rows are copied in the background.
+                Long maxId = MCEngineEconomyCommon.getApi().getValue(
+                        "SELECT COALESCE(MAX(kill_id), 0) FROM economy_entity_kill_log;", Long.class);
+                EntitySchemaMeta.set(EntitySchemaMeta.SQLITE_UPSERT, EntitySchemaMeta.V2_COPY_MAX_ID, maxId == null ? 0L : maxId);
+                EntitySchemaMeta.set(EntitySchemaMeta.SQLITE_UPSERT, EntitySchemaMeta.V2_COPY_CURSOR, 0L);
+                MCEngineEconomyCommon.getApi().executeQuery(
+                        "ALTER TABLE economy_entity_kill_log RENAME TO economy_entity_kill_log_v1;");
+            }
+
+            createKillLogSchema();
+            createRollupSchema();
+
+            if (version < EntitySchemaMeta.CURRENT_VERSION) {
+                Long maxId = EntitySchemaMeta.get(EntitySchemaMeta.V2_COPY_MAX_ID);
+                if (maxId != null && maxId > 0) {
+                    // Keep new ids above every legacy id so copied rows never collide.
+                    MCEngineEconomyCommon.getApi().executeQuery("""
+                        INSERT INTO sqlite_sequence (name, seq)
+                        SELECT 'economy_entity_kill_log', 0
+                        WHERE NOT EXISTS (SELECT 1 FROM sqlite_sequence WHERE name = 'economy_entity_kill_log');
+                        """);
+                    MCEngineEconomyCommon.getApi().executeQuery(
+                            "UPDATE sqlite_sequence SET seq = MAX(seq, " + maxId + ") WHERE name = 'economy_entity_kill_log';");
+                }
+                EntitySchemaMeta.set(EntitySchemaMeta.SQLITE_UPSERT, EntitySchemaMeta.VERSION, EntitySchemaMeta.CURRENT_VERSION);
+                if (logger != null) logger.info("[EntityDB] SQLite schema upgraded to v" + EntitySchemaMeta.CURRENT_VERSION + ".");
+            }
+
+            if (logger != null) logger.info("[EntityDB] SQLite schema ensured.");
 
+            migration.startIfPending();
         } catch (Exception e) {
             if (logger != null) logger.warning("[EntityDB] SQLite schema creation failed: " + e.getMessage());
         }
     }
 
+    /**
+     * Returns the generated id with {@code RETURNING} (SQLite 3.35+); when the reward key already
+     * exists nothing is returned and the existing row's id is looked up instead.
+     */
     @Override
-    public void insertKillLog(String playerUuid, String entityType, String coinType, int amount) {
-        final String sql = """
-            INSERT INTO economy_entity_kill_log (player_uuid, entity_type, coin_type, amount, created_time)
-            VALUES ('%s', '%s', '%s', %d, CURRENT_TIMESTAMP);
-            """.formatted(playerUuid, entityType, coinType, amount);
+    public Long insertKillLog(EntityKillLogEntry entry) {
         try {
-            MCEngineEconomyCommon.getApi().executeQuery(sql);
-
-            if (logger != null) logger.info("[EntityDB] KillLog inserted for player=" + playerUuid);
-
-            // Example: query back the last inserted row ID
-            Long lastId = MCEngineEconomyCommon.getApi()
-                    .getValue("SELECT MAX(kill_id) FROM economy_entity_kill_log;", Long.class);
-            if (logger != null) logger.info("[EntityDB] Last inserted kill_id=" + lastId);
+            StringBuilder sql = new StringBuilder(200).append(INSERT_COLUMNS);
+            appendRow(sql, entry);
+            sql.append(" ON CONFLICT DO NOTHING RETURNING kill_id;");
+            Long id = MCEngineEconomyCommon.getApi().getValue(sql.toString(), Long.class);
+            if (id != null || !EntitySqlUtil.isUuid(entry.rewardKey())) return id;
 
+            StringBuilder lookup = new StringBuilder(120).append("SELECT kill_id FROM economy_entity_kill_log WHERE reward_key = ");
+            EntitySqlUtil.appendUuidBlob(lookup, entry.rewardKey()).append(';');
+            return MCEngineEconomyCommon.getApi().getValue(lookup.toString(), Long.class);
         } catch (Exception e) {
             if (logger != null) logger.warning("[EntityDB] SQLite insertKillLog failed: " + e.getMessage());
+            return null;
         }
     }
+
+    /**
+     * Writes rows as multi-row {@code VALUES} statements of up to {@link #MAX_ROWS_PER_STATEMENT}
+     * rows. Each statement runs as a single implicit transaction, so a batch no larger than that
+     * limit costs one journal commit instead of one per row.
+     */
+    @Override
+    public int insertKillLogs(List<EntityKillLogEntry> entries) {
+        int written = 0;
+        for (int start = 0; start < entries.size(); start += MAX_ROWS_PER_STATEMENT) {
+            int end = Math.min(entries.size(), start + MAX_ROWS_PER_STATEMENT);
+            try {
+                StringBuilder sql = new StringBuilder(128 + (end - start) * 120).append(INSERT_COLUMNS);
+                for (int i = start; i < end; i++) {
+                    if (i > start) sql.append(',');
+                    appendRow(sql, entries.get(i));
+                }
+                sql.append(" ON CONFLICT DO NOTHING;");
+
+                MCEngineEconomyCommon.getApi().executeQuery(sql.toString());
+                written = end;
+            } catch (Exception ex) {
+                if (logger != null) logger.warning("[EntityDB] SQLite insertKillLogs failed after " + written + " rows: " + ex.getMessage());
+                break;
+            }
+        }
+        return written;
+    }
+
+    @Override
+    public synchronized void startRollup(long rawMaxAgeMillis, long intervalMillis, int chunkSize, BooleanSupplier active) {
+        if (rollup != null) return;
+        rollup = new EntityKillLogRollup(logger, "SQLite",
+                "SELECT MAX(kill_id) FROM economy_entity_kill_log WHERE created_time < datetime(%1$d, 'unixepoch');",
+                List.of(
+                        rollupSql("economy_entity_kill_rollup_hour", 13, ":00:00"),
+                        rollupSql("economy_entity_kill_rollup_day", 10, " 00:00:00")),
+                "DELETE FROM economy_entity_kill_log WHERE kill_id > %1$d AND kill_id <= %2$d;",
+                EntitySchemaMeta.SQLITE_UPSERT, rawMaxAgeMillis, chunkSize, 50L, active, null);
+        rollup.start(intervalMillis);
+    }
+
+    @Override
+    public boolean loadEarnings(long beforeMillis, EntityEarningsLoader.Sink sink) {
+        return new EntityEarningsLoader(logger, "SQLite", EARNINGS_PAGE_SQL).load(beforeMillis, sink);
+    }
+
+    @Override
+    public EntityKillLogPage queryKillLog(EntityKillLogFilter filter, long afterKillId, int limit) {
+        return killLogReader.page(filter, afterKillId, limit);
+    }
+
+    @Override
+    public EntityStage stage() {
+        return stage;
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        migration.stop();
+        if (rollup != null) {
+            rollup.stop();
+            rollup = null;
+        }
+    }
+
+    /**
+     * Appends one {@code (..)} value tuple for the given row.
+     *
+     * @param sql   statement under construction
+     * @param entry row to append
+     */
+    private void appendRow(StringBuilder sql, EntityKillLogEntry entry) {
+        sql.append('(');
+        EntitySqlUtil.appendUuidBlob(sql, entry.rewardKey()).append(',');
+        EntitySqlUtil.appendUuidBlob(sql, entry.playerUuid())
+                .append(',').append(entityTypes.idOf(entry.entityType()))
+                .append(',').append(coinTypes.idOf(entry.coinType()))
+                .append(',').append(entry.amount())
+                .append(",datetime(").append(entry.createdAt() / 1000L).append(",'unixepoch'))");
+    }
+
+    /**
+     * Creates the dictionaries, kill log and indexes if they do not exist, and adds the reward key
+     * to a kill log created by schema v2.
+     */
+    private void createKillLogSchema() {
+        MCEngineEconomyCommon.getApi().executeQuery("""
+            CREATE TABLE IF NOT EXISTS economy_entity_type_dict (
+                type_id INTEGER PRIMARY KEY,
+                name VARCHAR(64) NOT NULL UNIQUE
+            );
+            """);
+        MCEngineEconomyCommon.getApi().executeQuery("""
+            CREATE TABLE IF NOT EXISTS economy_entity_coin_dict (
+                coin_id INTEGER PRIMARY KEY,
+                name VARCHAR(64) NOT NULL UNIQUE
+            );
+            """);
+        MCEngineEconomyCommon.getApi().executeQuery("""
+            CREATE TABLE IF NOT EXISTS economy_entity_kill_log (
+                kill_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                reward_key BLOB,
+                player_uuid BLOB,
+                entity_type_id INTEGER,
+                coin_type_id INTEGER,
+                amount INT NOT NULL,
+                created_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+            );
+            """);
+        if (!columnExists("economy_entity_kill_log", "reward_key")) {
+            MCEngineEconomyCommon.getApi().executeQuery("ALTER TABLE economy_entity_kill_log ADD COLUMN reward_key BLOB;");
+        }
+        MCEngineEconomyCommon.getApi().executeQuery(
+                "CREATE UNIQUE INDEX IF NOT EXISTS uq_economy_entity_kill_log_reward ON economy_entity_kill_log (reward_key);");
+        MCEngineEconomyCommon.getApi().executeQuery(
+                "CREATE INDEX IF NOT EXISTS idx_economy_entity_kill_log_player_time ON economy_entity_kill_log (player_uuid, created_time);");
+        MCEngineEconomyCommon.getApi().executeQuery(
+                "CREATE INDEX IF NOT EXISTS idx_economy_entity_kill_log_time ON economy_entity_kill_log (created_time);");
+    }
+
+    /**
+     * Creates the hourly and daily rollup tables if they do not exist.
+     */
+    private void createRollupSchema() {
+        for (String table : List.of("economy_entity_kill_rollup_hour", "economy_entity_kill_rollup_day")) {
+            MCEngineEconomyCommon.getApi().executeQuery("""
+                CREATE TABLE IF NOT EXISTS %1$s (
+                    bucket_start TIMESTAMP NOT NULL,
+                    player_uuid BLOB NOT NULL,
+                    entity_type_id INTEGER NOT NULL,
+                    coin_type_id INTEGER NOT NULL,
+                    kills INTEGER NOT NULL,
+                    total_amount INTEGER NOT NULL,
+                    PRIMARY KEY (bucket_start, player_uuid, entity_type_id, coin_type_id)
+                ) WITHOUT ROWID;
+                """.formatted(table));
+            MCEngineEconomyCommon.getApi().executeQuery(
+                    "CREATE INDEX IF NOT EXISTS idx_%1$s_player ON %1$s (player_uuid, bucket_start);".formatted(table));
+        }
+    }
+
+    /**
+     * Builds the per-chunk upsert adding raw rows into one rollup table. Rows with a missing
+     * player or type are folded under an all-zero UUID and id {@code 0}.
+     * <p>
+     * {@code created_time} is stored as {@code YYYY-MM-DD HH:MM:SS} text, so buckets are cut with
+     * {@code substr}. The {@code WHERE true} keeps the upsert unambiguous for SQLite's parser.
+     *
+     * @param table  rollup table
+     * @param length prefix length kept from {@code created_time} (13 for hour, 10 for day)
+     * @param suffix text appended to complete the bucket timestamp
+     * @return format string taking the chunk bounds
+     */
+    private static String rollupSql(String table, int length, String suffix) {
+        return "INSERT INTO " + table + " (bucket_start, player_uuid, entity_type_id, coin_type_id, kills, total_amount) "
+                + "SELECT b, p, t, c, COUNT(*), SUM(amount) FROM ("
+                + "SELECT substr(created_time, 1, " + length + ") || '" + suffix + "' AS b, "
+                + "COALESCE(player_uuid, zeroblob(16)) AS p, "
+                + "COALESCE(entity_type_id, 0) AS t, COALESCE(coin_type_id, 0) AS c, amount "
+                + "FROM economy_entity_kill_log WHERE kill_id > %1$d AND kill_id <= %2$d) "
+                + "WHERE true GROUP BY b, p, t, c "
+                + "ON CONFLICT (bucket_start, player_uuid, entity_type_id, coin_type_id) DO UPDATE "
+                + "SET kills = kills + excluded.kills, total_amount = total_amount + excluded.total_amount;";
+    }
+
+    /**
+     * Builds the earnings page query. The page's players are the lowest above the cursor in
+     * either table; each branch is limited first so both stay index range scans.
+     *
+     * @return format string for {@link EntityEarningsLoader}
+     */
+    private static String earningsPageSql() {
+        String players = """
+                SELECT x.player_uuid FROM (
+                    SELECT a.player_uuid FROM (SELECT DISTINCT player_uuid FROM economy_entity_kill_rollup_day
+                        WHERE player_uuid > X'%1$s' ORDER BY player_uuid LIMIT %2$d) a
+                    UNION
+                    SELECT b.player_uuid FROM (SELECT DISTINCT player_uuid FROM economy_entity_kill_log
+                        WHERE player_uuid > X'%1$s' AND created_time < datetime(%3$d, 'unixepoch')
+                        ORDER BY player_uuid LIMIT %2$d) b
+                ) x ORDER BY x.player_uuid LIMIT %2$d""";
+        return """
+                SELECT group_concat(lower(hex(g.player_uuid)) || ',' || hex(COALESCE(t.name, '')) || ','
+                        || hex(COALESCE(c.name, '')) || ',' || g.kills || ',' || g.amount, char(10))
+                FROM (
+                    SELECT u.player_uuid, u.entity_type_id, u.coin_type_id, SUM(u.kills) AS kills, SUM(u.amount) AS amount
+                    FROM (
+                        SELECT r.player_uuid, r.entity_type_id, r.coin_type_id, r.kills, r.total_amount AS amount
+                        FROM economy_entity_kill_rollup_day r JOIN ({players}) p ON p.player_uuid = r.player_uuid
+                        UNION ALL
+                        SELECT l.player_uuid, l.entity_type_id, l.coin_type_id, 1, l.amount
+                        FROM economy_entity_kill_log l JOIN ({players}) p ON p.player_uuid = l.player_uuid
+                        WHERE l.created_time < datetime(%3$d, 'unixepoch')
+                    ) u
+                    GROUP BY u.player_uuid, u.entity_type_id, u.coin_type_id
+                ) g
+                LEFT JOIN economy_entity_type_dict t ON t.type_id = g.entity_type_id
+                LEFT JOIN economy_entity_coin_dict c ON c.coin_id = g.coin_type_id;
+                """.replace("{players}", players);
+    }
+
+    /**
+     * Checks whether a table exists.
+     *
+     * @param table table name
+     * @return {@code true} if it exists
+     */
+    private static boolean tableExists(String table) {
+        Integer count = MCEngineEconomyCommon.getApi().getValue(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = '" + table + "';", Integer.class);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Checks whether a table has a column.
+     *
+     * @param table  table name
+     * @param column column name
+     * @return {@code true} if the column exists
+     */
+    private static boolean columnExists(String table, String column) {
+        Integer count = MCEngineEconomyCommon.getApi().getValue(
+                "SELECT COUNT(*) FROM pragma_table_info('" + table + "') WHERE name = '" + column + "';",
+                Integer.class);
+        return count != null && count > 0;
+    }
 }
@@ -1,147 +1,264 @@
 package io.github.mcengine.extension.addon.economy.entity.listener;
 
 import io.github.mcengine.common.party.MCEnginePartyCommon;
-import io.github.mcengine.extension.addon.economy.entity.util.EntityUtil;
 import io.github.mcengine.extension.addon.economy.entity.util.EntityUtil.RewardConfig;
-import io.github.mcengine.common.economy.MCEngineEconomyCommon;
-import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
-import io.github.mcengine.extension.addon.economy.entity.database.EntityDB;
-import org.bukkit.Bukkit;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogEntry;
+import io.github.mcengine.extension.addon.economy.entity.logging.EntityAuditLog;
+import io.github.mcengine.extension.addon.economy.entity.logging.EntityLog;
+import io.github.mcengine.extension.addon.economy.entity.metrics.EntityMetrics;
+import io.github.mcengine.extension.addon.economy.entity.party.EntityPartyIndex;
+import io.github.mcengine.extension.addon.economy.entity.reward.EntityAntiFarm;
+import io.github.mcengine.extension.addon.economy.entity.reward.EntityKillRecord;
+import io.github.mcengine.extension.addon.economy.entity.reward.EntityRewardAggregator;
+import io.github.mcengine.extension.addon.economy.entity.reward.EntityRewardNotifier;
+import io.github.mcengine.extension.addon.economy.entity.reward.EntityRewardRegistry;
+import io.github.mcengine.extension.addon.economy.entity.reward.EntityRewardWorker;
+import io.github.mcengine.extension.addon.economy.entity.util.EntityRewardGate;
+import io.github.mcengine.extension.addon.economy.entity.util.EntityRewardRules;
+import io.github.mcengine.extension.addon.economy.entity.util.EntityRewardTable;
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
 import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.plugin.Plugin;
 
-import java.util.Locale;
-import java.util.Map;
-import java.util.Random;
 import java.util.UUID;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Listener that rewards players with economy coins when they kill configured entity types.
  * If the killer is in a party, the reward is split among all party members (including offline).
  * If party support is unavailable, fallback to normal individual reward.
- * <p>Additionally, each reward distribution is logged via {@link EntityDB#insertKillLog(String, String, String, int)}.</p>
+ * <p>Each share carries a kill log receipt keyed by a per-kill reward transaction id; the
+ * {@link EntityRewardAggregator} writes it to the kill log once the share has been paid.</p>
  */
 public class EntityListener implements Listener {
 
     /** Plugin instance used for scheduling and accessing the data folder. */
     private final Plugin plugin;
 
-    /** Logger used to print debug or info messages. */
-    private final MCEngineExtensionLogger logger;
+    /** Level-gated log for per-kill debug lines. */
+    private final EntityLog log;
 
-    /** API used for modifying player economy balances. */
-    private final MCEngineEconomyCommon currencyApi;
+    /** Structured audit trail, or {@code null} if disabled. */
+    private final EntityAuditLog audit;
 
-    /** Random instance used to calculate reward amounts. */
-    private final Random random = new Random();
+    /** Coalesces credits before they reach the economy API. */
+    private final EntityRewardAggregator rewardAggregator;
 
-    /** Cached reward configurations by entity type. */
-    private final Map<EntityType, RewardConfig> rewardMap;
+    /** Batches reward chat/action-bar notifications per player. */
+    private final EntityRewardNotifier rewardNotifier;
 
-    /** Database accessor used to audit per-kill rewards. */
-    private final EntityDB entityDB;
+    /** Live reward table holder; swapped atomically on reload. */
+    private final EntityRewardRegistry rewardRegistry;
+
+    /** Cached party membership, offline members included, used to split party rewards. */
+    private final EntityPartyIndex partyIndex;
+
+    /** Dedicated executor that processes captured kills. */
+    private final EntityRewardWorker rewardWorker;
+
+    /** Hot-path metrics. */
+    private final EntityMetrics metrics;
+
+    /** Per-player and per-chunk diminishing returns, or {@code null} if disabled. */
+    private final EntityAntiFarm antiFarm;
+
+    /** Key under which {@link EntitySpawnListener} tags spawn reasons. */
+    private final NamespacedKey spawnReasonKey;
 
     /**
-     * Constructs a new EntityListener and loads reward configurations for all mobs.
+     * Constructs a new EntityListener.
      *
-     * @param plugin     The plugin instance for scheduling tasks.
-     * @param folderPath The path to the folder containing entity config files.
-     * @param logger     Logger instance for debug/info output.
-     * @param entityDB   Database accessor for optional audit logging.
+     * @param plugin           The plugin instance for scheduling tasks.
+     * @param rewardRegistry   Holder of the live reward table.
+     * @param log              Level-gated log for per-kill debug lines.
+     * @param partyIndex       Party membership index used to resolve party members.
+     * @param rewardWorker     Dedicated executor for reward processing.
+     * @param rewardAggregator Per-player credit aggregator in front of the economy API.
+     * @param rewardNotifier   Batched reward notification sender.
+     * @param metrics          Hot-path metrics.
+     * @param antiFarm         Anti-farm throttle, or {@code null} if disabled.
+     * @param spawnReasonKey   Key under which spawn reasons are tagged.
+     * @param audit            Structured audit trail, or {@code null} if disabled.
      */
-    public EntityListener(Plugin plugin, String folderPath, MCEngineExtensionLogger logger, EntityDB entityDB) {
+    public EntityListener(Plugin plugin, EntityRewardRegistry rewardRegistry, EntityLog log,
+                          EntityPartyIndex partyIndex,
+                          EntityRewardWorker rewardWorker, EntityRewardAggregator rewardAggregator,
+                          EntityRewardNotifier rewardNotifier, EntityMetrics metrics,
+                          EntityAntiFarm antiFarm, NamespacedKey spawnReasonKey, EntityAuditLog audit) {
         this.plugin = plugin;
-        this.logger = logger;
-        this.currencyApi = MCEngineEconomyCommon.getApi();
-        this.rewardMap = EntityUtil.loadAllMobConfigs(plugin, folderPath, logger);
-        this.entityDB = entityDB;
+        this.log = log;
+        this.rewardAggregator = rewardAggregator;
+        this.rewardNotifier = rewardNotifier;
+        this.rewardRegistry = rewardRegistry;
+        this.partyIndex = partyIndex;
+        this.rewardWorker = rewardWorker;
+        this.metrics = metrics;
+        this.antiFarm = antiFarm;
+        this.spawnReasonKey = spawnReasonKey;
+        this.audit = audit;
     }
 
     /**
      * Called when an entity dies. If the killer is a player and the entity type has
-     * a reward configured, it will asynchronously calculate and award the player or
-     * party members (online and offline) with economy coins. If party support is unavailable,
-     * the reward is given to the player directly. Each distribution is also logged in the DB.
+     * a reward configured, a {@link EntityKillRecord} is captured on the main thread and handed to
+     * the reward worker, which resolves the killer's party and awards the player or party members
+     * with economy coins; nothing party-related runs on the main thread. Deaths of
+     * types not rewarded in their world are dropped first by the {@link EntityRewardGate} bitsets;
+     * deaths without a player killer, denied by a contextual rule or suppressed by the anti-farm
+     * throttle are discarded next, before anything is scheduled.
      *
      * @param event The entity death event triggered by Bukkit.
      */
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR)
     public void onEntityKill(EntityDeathEvent event) {
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            Player killer = event.getEntity().getKiller();
-            if (killer == null) return;
+        EntityType type = event.getEntityType();
+        EntityRewardGate gate = rewardRegistry.gate();
+        if (!gate.rewards(type)) return;
+        LivingEntity entity = event.getEntity();
+        if (!gate.accepts(entity.getWorld(), type)) return;
+        Player killer = entity.getKiller();
+        if (killer == null) return;
+
+        metrics.killSeen(type);
+        EntityRewardTable table = gate.table();
+        RewardConfig config = table.get(type);
+        if (config == null) return;
 
-            EntityType type = event.getEntityType();
-            logger.info(killer.getName() + " killed entity: " + type.name());
+        // Contextual rules read live world/killer state, so they are evaluated here on the main thread
+        double multiplier = 1d;
+        EntityRewardRules rules = table.rules();
+        if (rules.has(type)) {
+            multiplier = rules.multiplier(type, entity, killer, spawnReasonKey);
+            if (multiplier <= 0d) return;
+        }
 
-            RewardConfig config = rewardMap.get(type);
-            if (config == null) {
-                logger.info("No reward config found for: " + type.name());
+        Location location = entity.getLocation();
+        String world = entity.getWorld().getName();
+        int chunkX = location.getBlockX() >> 4;
+        int chunkZ = location.getBlockZ() >> 4;
+        long now = System.currentTimeMillis();
+
+        // Diminishing returns for grinders; suppressed kills never reach the economy or the kill log
+        if (antiFarm != null) {
+            double farmFactor = antiFarm.record(killer.getUniqueId(), world, chunkX, chunkZ, now);
+            if (farmFactor <= 0d) {
+                metrics.increment(EntityMetrics.Counter.KILLS_SUPPRESSED);
+                if (audit != null) {
+                    audit.suppressed(killer.getUniqueId(), killer.getName(), type.name(), world, chunkX, chunkZ, now);
+                }
                 return;
             }
+            if (farmFactor < 1d) {
+                metrics.increment(EntityMetrics.Counter.KILLS_THROTTLED);
+                multiplier *= farmFactor;
+            }
+        }
+
+        EntityKillRecord record = new EntityKillRecord(
+                UUID.randomUUID(),
+                killer.getUniqueId(),
+                killer.getName(),
+                type,
+                world,
+                chunkX,
+                chunkZ,
+                now,
+                multiplier);
+
+        rewardWorker.submit(killer.getUniqueId(), () -> processKill(record, config));
+    }
 
-            int rewardAmount = config.getRandomAmount(random);
-            MCEnginePartyCommon partyApi = MCEnginePartyCommon.getApi();
-
-            if (partyApi != null) {
-                String partyId = partyApi.findPlayerPartyId(killer);
-                if (partyId != null) {
-                    // Workaround: collect members by scanning online players
-                    Set<UUID> members = Bukkit.getOnlinePlayers().stream()
-                            .filter(p -> {
-                                String pid = partyApi.findPlayerPartyId(p);
-                                return pid != null && pid.equals(partyId);
-                            })
-                            .map(Player::getUniqueId)
-                            .collect(Collectors.toSet());
-
-                    // Always include killer if not online (e.g. fallback scenario)
-                    members.add(killer.getUniqueId());
-
-                    int share = Math.max(1, rewardAmount / members.size());
-                    for (UUID memberId : members) {
-                        currencyApi.addCoin(memberId, config.coinType(), share);
-                        // Audit each member's share
-                        if (entityDB != null) {
-                            entityDB.insertKillLog(memberId.toString(), type.name(), config.coinType(), share);
-                        }
-                    }
-
-                    Bukkit.getScheduler().runTask(plugin, () -> {
-                        for (UUID memberId : members) {
-                            Player member = Bukkit.getPlayer(memberId);
-                            if (member != null) {
-                                member.sendMessage("§aYour party earned §e" + rewardAmount + " " + config.coinType() +
-                                        "§a from defeating a §6" + type.name().toLowerCase(Locale.ROOT) +
-                                        "§a. You received §e" + share + "§a.");
-                            }
-                        }
-                    });
-
-                    logger.info("Distributed " + rewardAmount + " " + config.coinType() + " to party: " + partyId);
-                    return;
+    /**
+     * Awards the killer or their party for a captured kill. Runs on the reward worker, which also
+     * resolves the killer's party through the {@link EntityPartyIndex}, so party lookups never stall
+     * a tick. If the killer has no party, or party support is unavailable, the reward is given to the
+     * player directly.
+     * Each share is keyed by {@link EntityKillRecord#rewardKey(UUID)}, which the aggregator uses to
+     * ignore a share it is still holding or paid recently; see {@link EntityRewardAggregator} for
+     * the limits of that check.
+     *
+     * @param record kill snapshot captured on the main thread
+     * @param config reward configured for the killed entity type
+     */
+    private void processKill(EntityKillRecord record, RewardConfig config) {
+        long start = System.nanoTime();
+        EntityType type = record.entityType();
+        UUID killerId = record.killerId();
+        log.debug(() -> record.killerName() + " killed entity: " + type.name());
+
+        int rewardAmount = config.getRandomAmount(ThreadLocalRandom.current());
+        if (record.multiplier() != 1d) {
+            rewardAmount = (int) Math.min(Integer.MAX_VALUE, Math.round(rewardAmount * record.multiplier()));
+            if (rewardAmount <= 0) return;
+        }
+        MCEnginePartyCommon partyApi = MCEnginePartyCommon.getApi();
+        String partyId = null;
+        Set<UUID> members = Set.of();
+        if (partyApi != null) {
+            long partyStart = System.nanoTime();
+            partyId = partyIndex.partyOf(partyApi, killerId);
+            if (partyId != null) {
+                // All members, offline included, through the cached party index and roster
+                members = partyIndex.getAllMembers(partyApi, partyId, killerId);
+            }
+            metrics.recordSince(EntityMetrics.Timer.PARTY_RESOLVE, partyStart);
+        }
+        if (partyId != null) {
+            // Even split; the killer takes the remainder so the shares add up to the reward
+            int others = members.contains(killerId) ? members.size() - 1 : members.size();
+            int share = rewardAmount / (others + 1);
+            int killerShare = rewardAmount - share * others;
+            rewardAggregator.credit(killerId, config.coinType(), killerShare, receipt(record, killerId, config, killerShare));
+            rewardNotifier.notify(killerId, config.coinType(), killerShare, type);
+            if (audit != null) audit.reward(record, killerId, config.coinType(), killerShare, partyId);
+            if (share > 0) {
+                for (UUID memberId : members) {
+                    if (memberId.equals(killerId)) continue;
+                    rewardAggregator.credit(memberId, config.coinType(), share, receipt(record, memberId, config, share));
+                    rewardNotifier.notify(memberId, config.coinType(), share, type);
+                    if (audit != null) audit.reward(record, memberId, config.coinType(), share, partyId);
                 }
             }
 
-            // Fallback or solo reward
-            currencyApi.addCoin(killer.getUniqueId(), config.coinType(), rewardAmount);
-            // Audit solo reward
-            if (entityDB != null) {
-                entityDB.insertKillLog(killer.getUniqueId().toString(), type.name(), config.coinType(), rewardAmount);
-            }
+            int distributed = rewardAmount;
+            String party = partyId;
+            log.debug(() -> "Distributed " + distributed + " " + config.coinType() + " to party: " + party);
+            metrics.killRewarded(type);
+            metrics.recordSince(EntityMetrics.Timer.REWARD_COMPUTE, start);
+            return;
+        }
 
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                killer.sendMessage("§aYou earned §e" + rewardAmount + " " + config.coinType() +
-                        "§a for defeating a §6" + type.name().toLowerCase(Locale.ROOT) + "§a.");
-            });
+        // Fallback or solo reward
+        rewardAggregator.credit(killerId, config.coinType(), rewardAmount, receipt(record, killerId, config, rewardAmount));
 
-            logger.info("Rewarded " + killer.getName() + " with " + rewardAmount + " " + config.coinType());
-        });
+        rewardNotifier.notify(killerId, config.coinType(), rewardAmount, type);
+        if (audit != null) audit.reward(record, killerId, config.coinType(), rewardAmount, null);
+
+        int rewarded = rewardAmount;
+        log.debug(() -> "Rewarded " + record.killerName() + " with " + rewarded + " " + config.coinType());
+        metrics.killRewarded(type);
+        metrics.recordSince(EntityMetrics.Timer.REWARD_COMPUTE, start);
+    }
+
+    /**
+     * Builds the kill log row for one recipient's share.
+     *
+     * @param record      kill snapshot
+     * @param recipientId player receiving the share
+     * @param config      reward configured for the killed entity type
+     * @param amount      share amount
+     * @return kill log row keyed by the share's reward key
+     */
+    private static EntityKillLogEntry receipt(EntityKillRecord record, UUID recipientId, RewardConfig config, int amount) {
+        return new EntityKillLogEntry(recipientId.toString(), record.entityType().name(), config.coinType(),
+                amount, record.timestamp(), record.rewardKey(recipientId).toString());
     }
 }
@@ -0,0 +1,46 @@
+package io.github.mcengine.extension.addon.economy.entity.listener;
+
+import io.github.mcengine.extension.addon.economy.entity.reward.EntityRewardRegistry;
+import org.bukkit.NamespacedKey;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.persistence.PersistentDataType;
+
+/**
+ * Tags spawned entities with their spawn reason so reward rules can match on it at death time;
+ * Spigot does not keep the reason on the entity. Only reasons referenced by a loaded rule are
+ * tagged, so ordinary spawns cost one array lookup and no data is written.
+ */
+public class EntitySpawnListener implements Listener {
+
+    /** Live reward table holder; its rules decide which reasons are tagged. */
+    private final EntityRewardRegistry rewardRegistry;
+
+    /** Persistent data key of the tag. */
+    private final NamespacedKey spawnReasonKey;
+
+    /**
+     * Creates the listener.
+     *
+     * @param rewardRegistry holder of the live reward table
+     * @param spawnReasonKey persistent data key of the tag
+     */
+    public EntitySpawnListener(EntityRewardRegistry rewardRegistry, NamespacedKey spawnReasonKey) {
+        this.rewardRegistry = rewardRegistry;
+        this.spawnReasonKey = spawnReasonKey;
+    }
+
+    /**
+     * Tags the entity if any rule matches on its spawn reason.
+     *
+     * @param event spawn event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCreatureSpawn(CreatureSpawnEvent event) {
+        CreatureSpawnEvent.SpawnReason reason = event.getSpawnReason();
+        if (!rewardRegistry.get().rules().tagsSpawnReason(reason)) return;
+        event.getEntity().getPersistentDataContainer().set(spawnReasonKey, PersistentDataType.STRING, reason.name());
+    }
+}
@@ -0,0 +1,349 @@
+package io.github.mcengine.extension.addon.economy.entity.logging;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import io.github.mcengine.extension.addon.economy.entity.metrics.EntityMetrics;
+import io.github.mcengine.extension.addon.economy.entity.reward.EntityKillRecord;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured audit trail of the reward path, written as compact JSON Lines.
+ * <p>
+ * Producers (the main thread and the reward workers) only claim a slot in a fixed-size ring and
+ * store an immutable event; formatting and file I/O happen on one daemon writer thread. When the
+ * ring is full the event is dropped and counted rather than blocking a tick. Files roll daily
+ * (UTC) as {@code audit-yyyy-MM-dd.jsonl}, and files older than the retention are deleted.
+ */
+public final class EntityAuditLog {
+
+    /**
+     * One audited event; recipient, coin and party fields are omitted from the line when absent.
+     *
+     * @param kind        {@code reward} or {@code suppressed}
+     * @param at          epoch millis of the kill
+     * @param rewardId    reward transaction id, or {@code null}
+     * @param killerId    killing player
+     * @param killerName  killing player's name
+     * @param entityType  killed entity type name
+     * @param world       world name
+     * @param chunkX      chunk X coordinate
+     * @param chunkZ      chunk Z coordinate
+     * @param multiplier  reward multiplier applied to the kill
+     * @param recipientId player credited, or {@code null}
+     * @param coinType    coin type, or {@code null}
+     * @param amount      amount credited
+     * @param partyId     party the reward was split across, or {@code null}
+     */
+    private record Event(String kind, long at, UUID rewardId, UUID killerId, String killerName, String entityType,
+                         String world, int chunkX, int chunkZ, double multiplier,
+                         UUID recipientId, String coinType, int amount, String partyId) {}
+
+    /** Events written before the writer flushes even if the ring is not yet empty. */
+    private static final int FLUSH_EVERY = 512;
+
+    /** Logger for diagnostics. */
+    private final MCEngineExtensionLogger logger;
+
+    /** Dropped event counter sink. */
+    private final EntityMetrics metrics;
+
+    /** Directory receiving audit files. */
+    private final Path directory;
+
+    /** Days of files kept; {@code 0} keeps everything. */
+    private final int retainDays;
+
+    /** Idle wait of the writer, in nanos. */
+    private final long idleNanos;
+
+    /** Ring slots; {@code null} means free or claimed but not yet published. */
+    private final AtomicReferenceArray<Event> slots;
+
+    /** Slot index mask; capacity is a power of two. */
+    private final int mask;
+
+    /** Next sequence producers claim. */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Next sequence the writer consumes; written by the writer only. */
+    private volatile long head;
+
+    /** Cleared to stop the writer once the ring is drained. */
+    private volatile boolean running = true;
+
+    /** Writer thread. */
+    private final Thread writer;
+
+    /** Day of the open file, or {@code null}. */
+    private LocalDate day;
+
+    /** Open file, or {@code null}. */
+    private BufferedWriter out;
+
+    /**
+     * Creates the audit log and starts its writer.
+     *
+     * @param logger          extension logger
+     * @param directory       directory receiving audit files
+     * @param capacity        ring size, rounded up to a power of two
+     * @param flushIntervalMs longest an idle writer waits before checking the ring again
+     * @param retainDays      days of files kept; {@code 0} keeps everything
+     * @param metrics         dropped event counter sink
+     */
+    public EntityAuditLog(MCEngineExtensionLogger logger, Path directory, int capacity, long flushIntervalMs,
+                          int retainDays, EntityMetrics metrics) {
+        this.logger = logger;
+        this.metrics = metrics;
+        this.directory = directory;
+        this.retainDays = Math.max(0, retainDays);
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(10L, flushIntervalMs));
+        int size = Integer.highestOneBit(Math.max(64, Math.min(1 << 20, capacity) - 1) << 1);
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.writer = new Thread(this::run, "MCEngineEntity-Audit");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Records one credited share.
+     *
+     * @param record      kill snapshot
+     * @param recipientId player credited
+     * @param coinType    coin type
+     * @param amount      amount credited
+     * @param partyId     party the reward was split across, or {@code null}
+     */
+    public void reward(EntityKillRecord record, UUID recipientId, String coinType, int amount, String partyId) {
+        offer(new Event("reward", record.timestamp(), record.rewardId(), record.killerId(), record.killerName(),
+                record.entityType().name(), record.world(), record.chunkX(), record.chunkZ(), record.multiplier(),
+                recipientId, coinType, amount, partyId));
+    }
+
+    /**
+     * Records a kill suppressed by the anti-farm throttle.
+     *
+     * @param killerId   killing player
+     * @param killerName killing player's name
+     * @param entityType killed entity type name
+     * @param world      world name
+     * @param chunkX     chunk X coordinate
+     * @param chunkZ     chunk Z coordinate
+     * @param at         epoch millis of the kill
+     */
+    public void suppressed(UUID killerId, String killerName, String entityType, String world,
+                           int chunkX, int chunkZ, long at) {
+        offer(new Event("suppressed", at, null, killerId, killerName, entityType, world, chunkX, chunkZ, 0d,
+                null, null, 0, null));
+    }
+
+    /**
+     * @return events waiting to be written
+     */
+    public long backlog() {
+        return Math.max(0L, tail.get() - head);
+    }
+
+    /**
+     * Stops accepting events, writes what is queued and closes the file.
+     *
+     * @param timeoutMillis longest wait for the writer
+     */
+    public void shutdown(long timeoutMillis) {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive() && logger != null) {
+            logger.warning("[Audit] Writer did not stop within " + timeoutMillis + "ms; " + backlog() + " events lost.");
+        }
+    }
+
+    /**
+     * Claims the next slot, or drops the event if the ring is full or closed.
+     *
+     * @param event event to queue
+     */
+    private void offer(Event event) {
+        long seq;
+        do {
+            seq = tail.get();
+            if (!running || seq - head > mask) {
+                metrics.increment(EntityMetrics.Counter.AUDIT_EVENTS_DROPPED);
+                return;
+            }
+        } while (!tail.compareAndSet(seq, seq + 1));
+        slots.lazySet((int) seq & mask, event);
+    }
+
+    /**
+     * Writer loop: drains the ring in sequence order, flushing whenever it runs dry.
+     */
+    private void run() {
+        long seq = head;
+        int unflushed = 0;
+        while (true) {
+            int index = (int) seq & mask;
+            Event event = slots.get(index);
+            if (event == null) {
+                if (seq != tail.get()) {
+                    // Claimed but not yet published; the producer is between its CAS and its store
+                    Thread.onSpinWait();
+                    continue;
+                }
+                if (unflushed > 0) {
+                    flush();
+                    unflushed = 0;
+                }
+                if (!running && seq == tail.get()) break;
+                LockSupport.parkNanos(this, idleNanos);
+                continue;
+            }
+            slots.lazySet(index, null);
+            head = ++seq;
+            write(event);
+            if (++unflushed >= FLUSH_EVERY) {
+                flush();
+                unflushed = 0;
+            }
+        }
+        close();
+    }
+
+    /**
+     * @param event event to append to the current day's file
+     */
+    private void write(Event event) {
+        try {
+            LocalDate today = LocalDate.ofEpochDay(Math.floorDiv(event.at(), TimeUnit.DAYS.toMillis(1)));
+            if (out == null || !today.equals(day)) open(today);
+            out.write(toJson(event));
+            out.write('\n');
+        } catch (IOException e) {
+            if (logger != null) logger.warning("[Audit] Write failed: " + e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * Rolls to the file of {@code today} and prunes files past the retention.
+     *
+     * @param today UTC day of the next event
+     * @throws IOException if the file cannot be opened
+     */
+    private void open(LocalDate today) throws IOException {
+        close();
+        Files.createDirectories(directory);
+        out = Files.newBufferedWriter(directory.resolve("audit-" + today + ".jsonl"), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        day = today;
+        if (retainDays > 0) prune(today.minusDays(retainDays));
+    }
+
+    /**
+     * @param oldestKept first day whose file is kept
+     */
+    private void prune(LocalDate oldestKept) {
+        String keep = "audit-" + oldestKept + ".jsonl";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "audit-*.jsonl")) {
+            for (Path file : files) {
+                // ISO dates sort lexicographically
+                if (file.getFileName().toString().compareTo(keep) < 0) Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            if (logger != null) logger.warning("[Audit] Pruning old files failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Flushes the open file, if any.
+     */
+    private void flush() {
+        if (out == null) return;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            if (logger != null) logger.warning("[Audit] Flush failed: " + e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * Closes the open file, if any.
+     */
+    private void close() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // Already reported by the failing write or flush
+        }
+        out = null;
+        day = null;
+    }
+
+    /**
+     * @param e event
+     * @return the event as one JSON object, without a line break
+     */
+    private static String toJson(Event e) {
+        StringBuilder sb = new StringBuilder(256).append("{\"ts\":").append(e.at())
+                .append(",\"kind\":\"").append(e.kind()).append('"');
+        if (e.rewardId() != null) sb.append(",\"reward_id\":\"").append(e.rewardId()).append('"');
+        sb.append(",\"killer\":\"").append(e.killerId()).append('"');
+        string(sb.append(",\"killer_name\":"), e.killerName());
+        string(sb.append(",\"entity\":"), e.entityType());
+        string(sb.append(",\"world\":"), e.world());
+        sb.append(",\"chunk_x\":").append(e.chunkX()).append(",\"chunk_z\":").append(e.chunkZ());
+        if (e.recipientId() != null) {
+            sb.append(",\"recipient\":\"").append(e.recipientId()).append('"');
+            string(sb.append(",\"coin\":"), e.coinType());
+            sb.append(",\"amount\":").append(e.amount()).append(",\"multiplier\":").append(e.multiplier());
+        }
+        if (e.partyId() != null) string(sb.append(",\"party\":"), e.partyId());
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Appends {@code value} as a JSON string literal, or {@code null}.
+     *
+     * @param sb    destination
+     * @param value string value, may be {@code null}
+     */
+    private static void string(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c)); else sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
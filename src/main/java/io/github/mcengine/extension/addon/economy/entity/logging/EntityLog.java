@@ -0,0 +1,91 @@
+package io.github.mcengine.extension.addon.economy.entity.logging;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Level-gated front for the extension logger.
+ * <p>
+ * Messages are passed as suppliers, so a disabled level costs one comparison: no string is
+ * concatenated and nothing reaches the console.
+ */
+public final class EntityLog {
+
+    /**
+     * Verbosity, from quietest to noisiest.
+     */
+    public enum Level {
+
+        /** Nothing is logged. */
+        OFF,
+
+        /** Problems only. */
+        WARNING,
+
+        /** Problems and lifecycle messages. */
+        INFO,
+
+        /** Everything, including one line per rewarded kill. */
+        DEBUG;
+
+        /**
+         * @param name     level name, case-insensitive
+         * @param fallback level used when {@code name} is {@code null} or unknown
+         * @return the level
+         */
+        public static Level fromString(String name, Level fallback) {
+            if (name == null) return fallback;
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return fallback;
+            }
+        }
+    }
+
+    /** Underlying logger, may be {@code null}. */
+    private final MCEngineExtensionLogger logger;
+
+    /** Most verbose level written. */
+    private final Level level;
+
+    /**
+     * @param logger underlying logger, may be {@code null}
+     * @param level  most verbose level written
+     */
+    public EntityLog(MCEngineExtensionLogger logger, Level level) {
+        this.logger = logger;
+        this.level = logger == null ? Level.OFF : level;
+    }
+
+    /**
+     * @param at level to check
+     * @return whether messages at {@code at} are written
+     */
+    public boolean isEnabled(Level at) {
+        return at != Level.OFF && at.ordinal() <= level.ordinal();
+    }
+
+    /**
+     * @param message built only if debug output is enabled
+     */
+    public void debug(Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) logger.info(message.get());
+    }
+
+    /**
+     * @param message built only if info output is enabled
+     */
+    public void info(Supplier<String> message) {
+        if (isEnabled(Level.INFO)) logger.info(message.get());
+    }
+
+    /**
+     * @param message built only if warnings are enabled
+     */
+    public void warning(Supplier<String> message) {
+        if (isEnabled(Level.WARNING)) logger.warning(message.get());
+    }
+}
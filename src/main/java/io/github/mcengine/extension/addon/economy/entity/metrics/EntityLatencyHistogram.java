@@ -0,0 +1,126 @@
+package io.github.mcengine.extension.addon.economy.entity.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with HDR-style log-linear buckets.
+ * <p>
+ * Each power of two is split into {@link #SUB_BUCKETS} linear sub-buckets, so any recorded value
+ * is reported with at most ~12.5% relative error while the whole range of {@code long} fits in
+ * {@link #BUCKETS} striped {@link LongAdder}s. Recording is a couple of bit operations and one
+ * uncontended add, cheap enough for the kill hot path.
+ */
+public class EntityLatencyHistogram {
+
+    /** log2 of the number of sub-buckets per power of two. */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /** Linear sub-buckets per power of two. */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Total number of buckets covering {@code [0, Long.MAX_VALUE]}. */
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    /** Per-bucket counts. */
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+
+    /** Sum of all recorded values. */
+    private final LongAdder sum = new LongAdder();
+
+    /** Largest recorded value. */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Creates an empty histogram.
+     */
+    public EntityLatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one value.
+     *
+     * @param nanos duration in nanoseconds; negative values are recorded as zero
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        counts[index(value)].increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Takes a point-in-time snapshot. Concurrent records may be partially included.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts[i].sum();
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sum.sum(), max.get());
+    }
+
+    /**
+     * Immutable view of a histogram.
+     *
+     * @param buckets per-bucket counts
+     * @param count   number of recorded values
+     * @param sum     sum of recorded values in nanoseconds
+     * @param max     largest recorded value in nanoseconds
+     */
+    public record Snapshot(long[] buckets, long count, long sum, long max) {
+
+        /**
+         * Estimates a quantile.
+         *
+         * @param quantile quantile in {@code [0, 1]}
+         * @return the upper bound of the bucket holding the quantile, in nanoseconds, capped at
+         *         {@link #max()}; {@code 0} when empty
+         */
+        public long quantile(double quantile) {
+            if (count == 0) return 0L;
+            long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+            long seen = 0L;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) return Math.min(max, upperBound(i));
+            }
+            return max;
+        }
+
+        /**
+         * @return mean in nanoseconds, or {@code 0} when empty
+         */
+        public long mean() {
+            return count == 0 ? 0L : sum / count;
+        }
+    }
+
+    /**
+     * Maps a value to its bucket.
+     */
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the largest value mapped to a bucket.
+     */
+    private static long upperBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        long bound = ((long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKET_BITS)) - 1L;
+        return bound < 0 ? Long.MAX_VALUE : bound;
+    }
+}
@@ -0,0 +1,321 @@
+package io.github.mcengine.extension.addon.economy.entity.metrics;
+
+import org.bukkit.entity.EntityType;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Low-overhead instrumentation for the reward hot path.
+ * <p>
+ * Counters are striped {@link LongAdder}s (per-{@link EntityType} counters are indexed by ordinal,
+ * so no map lookup happens per kill) and latencies go into {@link EntityLatencyHistogram}s.
+ * Queue depths are sampled from registered gauges only when metrics are read.
+ */
+public class EntityMetrics {
+
+    /** Prefix of every exported metric name. */
+    private static final String PREFIX = "mcengine_entity_";
+
+    /** Quantiles reported for each timer. */
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /**
+     * Timed operations.
+     */
+    public enum Timer {
+        /** Full processing of one rewarded kill on the reward worker. */
+        REWARD_COMPUTE("reward_compute", "Time to process one rewarded kill"),
+        /** Party lookup and member resolution. */
+        PARTY_RESOLVE("party_resolve", "Time to resolve the killer's party members"),
+        /** One economy {@code addCoin} call. */
+        ADD_COIN("add_coin", "Latency of economy addCoin calls"),
+        /** One bulk kill log insert. */
+        KILL_LOG_INSERT("kill_log_insert", "Latency of kill log batch inserts");
+
+        /** Metric name without prefix or unit. */
+        private final String metricName;
+
+        /** Prometheus help text. */
+        private final String help;
+
+        Timer(String metricName, String help) {
+            this.metricName = metricName;
+            this.help = help;
+        }
+    }
+
+    /**
+     * Monotonic event counters.
+     */
+    public enum Counter {
+        /** Failed {@code addCoin} calls. */
+        ADD_COIN_FAILURES("add_coin_failures_total", "Failed economy addCoin calls"),
+        /** Kill log rows the database did not accept on the first attempt. */
+        KILL_LOG_INSERT_FAILURES("kill_log_insert_failures_total", "Kill log rows rejected by a batch insert"),
+        /** Kill log rows written to the database. */
+        KILL_LOG_ROWS_SHIPPED("kill_log_rows_shipped_total", "Kill log rows written to the database"),
+        /** Kill log rows that could not be journaled. */
+        JOURNAL_APPEND_FAILURES("journal_append_failures_total", "Kill log rows that could not be journaled"),
+        /** Reward tasks queued while the worker was over capacity. */
+        WORKER_OVERFLOWS("worker_overflows_total", "Reward tasks queued beyond the worker queue capacity"),
+        /** Reward shares ignored because their key was already credited. */
+        DUPLICATE_REWARDS("duplicate_rewards_total", "Reward shares ignored as duplicates"),
+        /** Kills whose reward was scaled down by the anti-farm throttle. */
+        KILLS_THROTTLED("kills_throttled_total", "Kills rewarded at a reduced rate by the anti-farm throttle"),
+        /** Kills suppressed by the anti-farm throttle. */
+        KILLS_SUPPRESSED("kills_suppressed_total", "Kills not rewarded because of the anti-farm throttle"),
+        /** Audit events dropped because the audit ring was full. */
+        AUDIT_EVENTS_DROPPED("audit_events_dropped_total", "Audit events dropped because the audit buffer was full"),
+        /** Flushes that could not ship every receipt to the network stage. */
+        STAGE_SHIP_FAILURES("stage_ship_failures_total", "Flushes that could not ship every receipt to the network stage"),
+        /** Receipts shipped to the network stage. */
+        STAGE_RECEIPTS_SHIPPED("stage_receipts_shipped_total", "Receipts shipped to the network stage"),
+        /** Receipts merged from the network stage by this node while it held the merge lease. */
+        STAGE_RECEIPTS_MERGED("stage_receipts_merged_total", "Receipts merged from the network stage by this node");
+
+        /** Metric name without prefix. */
+        private final String metricName;
+
+        /** Prometheus help text. */
+        private final String help;
+
+        Counter(String metricName, String help) {
+            this.metricName = metricName;
+            this.help = help;
+        }
+    }
+
+    /**
+     * Sampled gauge.
+     *
+     * @param name   metric name without prefix
+     * @param help   Prometheus help text
+     * @param source value supplier
+     */
+    private record Gauge(String name, String help, LongSupplier source) {}
+
+    /** Entity types indexed by ordinal. */
+    private final EntityType[] types = EntityType.values();
+
+    /** Deaths with a player killer, by entity type ordinal. */
+    private final LongAdder[] killsSeen = newAdders(types.length);
+
+    /** Kills that paid a reward, by entity type ordinal. */
+    private final LongAdder[] killsRewarded = newAdders(types.length);
+
+    /** Histograms by timer. */
+    private final Map<Timer, EntityLatencyHistogram> timers = new EnumMap<>(Timer.class);
+
+    /** Counters by kind. */
+    private final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+
+    /** Registered gauges. */
+    private final List<Gauge> gauges = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates an empty registry.
+     */
+    public EntityMetrics() {
+        for (Timer timer : Timer.values()) {
+            timers.put(timer, new EntityLatencyHistogram());
+        }
+        for (Counter counter : Counter.values()) {
+            counters.put(counter, new LongAdder());
+        }
+    }
+
+    /**
+     * Counts a death of a type rewarded in its world with a player killer.
+     *
+     * @param type killed entity type
+     */
+    public void killSeen(EntityType type) {
+        killsSeen[type.ordinal()].increment();
+    }
+
+    /**
+     * Counts a kill that paid a reward.
+     *
+     * @param type killed entity type
+     */
+    public void killRewarded(EntityType type) {
+        killsRewarded[type.ordinal()].increment();
+    }
+
+    /**
+     * Records a duration measured from {@code startNanos} until now.
+     *
+     * @param timer      operation timed
+     * @param startNanos {@link System#nanoTime()} at the start of the operation
+     */
+    public void recordSince(Timer timer, long startNanos) {
+        timers.get(timer).record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Increments a counter by one.
+     *
+     * @param counter counter to increment
+     */
+    public void increment(Counter counter) {
+        counters.get(counter).increment();
+    }
+
+    /**
+     * Adds to a counter.
+     *
+     * @param counter counter to increase
+     * @param delta   amount to add
+     */
+    public void add(Counter counter, long delta) {
+        counters.get(counter).add(delta);
+    }
+
+    /**
+     * Registers a gauge sampled whenever metrics are read.
+     *
+     * @param name   metric name without prefix
+     * @param help   Prometheus help text
+     * @param source value supplier; must be cheap and thread-safe
+     */
+    public void registerGauge(String name, String help, LongSupplier source) {
+        gauges.add(new Gauge(name, help, source));
+    }
+
+    /**
+     * Renders a short human-readable summary for the metrics command.
+     *
+     * @return summary lines
+     */
+    public List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        long seen = 0L;
+        long rewarded = 0L;
+        List<String> perType = new ArrayList<>();
+        for (int i = 0; i < types.length; i++) {
+            long s = killsSeen[i].sum();
+            long r = killsRewarded[i].sum();
+            seen += s;
+            rewarded += r;
+            if (s > 0) perType.add(types[i].name() + " " + r + "/" + s);
+        }
+        lines.add("Kills rewarded/seen: " + rewarded + "/" + seen);
+        if (!perType.isEmpty()) lines.add("  " + String.join(", ", perType));
+
+        for (Timer timer : Timer.values()) {
+            EntityLatencyHistogram.Snapshot s = timers.get(timer).snapshot();
+            lines.add(String.format(Locale.ROOT, "%s: n=%d mean=%s p50=%s p99=%s max=%s", timer.metricName, s.count(),
+                    formatNanos(s.mean()), formatNanos(s.quantile(0.5)), formatNanos(s.quantile(0.99)), formatNanos(s.max())));
+        }
+        for (Counter counter : Counter.values()) {
+            lines.add(counter.metricName + ": " + counters.get(counter).sum());
+        }
+        for (Gauge gauge : gauges) {
+            lines.add(gauge.name() + ": " + sample(gauge));
+        }
+        return lines;
+    }
+
+    /**
+     * Renders every metric in the Prometheus text exposition format.
+     *
+     * @return exposition text
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+
+        appendHeader(out, "kills_seen_total", "Deaths of rewarded types in enabled worlds with a player killer", "counter");
+        appendPerType(out, "kills_seen_total", killsSeen);
+        appendHeader(out, "kills_rewarded_total", "Kills that paid a reward", "counter");
+        appendPerType(out, "kills_rewarded_total", killsRewarded);
+
+        for (Timer timer : Timer.values()) {
+            String name = timer.metricName + "_seconds";
+            EntityLatencyHistogram.Snapshot s = timers.get(timer).snapshot();
+            appendHeader(out, name, timer.help, "summary");
+            for (double q : QUANTILES) {
+                out.append(PREFIX).append(name).append("{quantile=\"").append(q).append("\"} ")
+                        .append(seconds(s.quantile(q))).append('\n');
+            }
+            out.append(PREFIX).append(name).append("_sum ").append(seconds(s.sum())).append('\n');
+            out.append(PREFIX).append(name).append("_count ").append(s.count()).append('\n');
+        }
+
+        for (Counter counter : Counter.values()) {
+            appendHeader(out, counter.metricName, counter.help, "counter");
+            out.append(PREFIX).append(counter.metricName).append(' ').append(counters.get(counter).sum()).append('\n');
+        }
+        for (Gauge gauge : gauges) {
+            appendHeader(out, gauge.name(), gauge.help(), "gauge");
+            out.append(PREFIX).append(gauge.name()).append(' ').append(sample(gauge)).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Appends the {@code HELP}/{@code TYPE} lines of a metric family.
+     */
+    private static void appendHeader(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    /**
+     * Appends one sample per entity type that has a non-zero count.
+     */
+    private void appendPerType(StringBuilder out, String name, LongAdder[] adders) {
+        for (int i = 0; i < types.length; i++) {
+            long value = adders[i].sum();
+            if (value == 0) continue;
+            out.append(PREFIX).append(name).append("{entity_type=\"").append(types[i].name()).append("\"} ")
+                    .append(value).append('\n');
+        }
+    }
+
+    /**
+     * Reads a gauge, reporting {@code -1} if its source fails.
+     */
+    private static long sample(Gauge gauge) {
+        try {
+            return gauge.source().getAsLong();
+        } catch (RuntimeException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * @return {@code nanos} as seconds
+     */
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1_000_000_000.0);
+    }
+
+    /**
+     * @return {@code nanos} in the largest readable unit
+     */
+    private static String formatNanos(long nanos) {
+        if (nanos >= TimeUnit.SECONDS.toNanos(1)) return String.format(Locale.ROOT, "%.2fs", nanos / 1e9);
+        if (nanos >= TimeUnit.MILLISECONDS.toNanos(1)) return String.format(Locale.ROOT, "%.2fms", nanos / 1e6);
+        if (nanos >= TimeUnit.MICROSECONDS.toNanos(1)) return String.format(Locale.ROOT, "%.1fus", nanos / 1e3);
+        return nanos + "ns";
+    }
+
+    /**
+     * @return {@code size} fresh adders
+     */
+    private static LongAdder[] newAdders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
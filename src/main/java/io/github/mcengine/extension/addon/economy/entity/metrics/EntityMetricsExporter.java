@@ -0,0 +1,133 @@
+package io.github.mcengine.extension.addon.economy.entity.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes {@link EntityMetrics} in the Prometheus text format, either as a file rewritten on an
+ * interval (for the node exporter's textfile collector) or over a small local HTTP endpoint.
+ * Both are optional and off by default.
+ */
+public class EntityMetricsExporter {
+
+    /** Logger for diagnostics. */
+    private final MCEngineExtensionLogger logger;
+
+    /** Metrics to publish. */
+    private final EntityMetrics metrics;
+
+    /** File writer thread, or {@code null} when the file export is off. */
+    private ScheduledExecutorService fileWriter;
+
+    /** HTTP server, or {@code null} when the endpoint is off. */
+    private HttpServer httpServer;
+
+    /** Thread serving HTTP requests, or {@code null} when the endpoint is off. */
+    private ExecutorService httpExecutor;
+
+    /**
+     * Creates an exporter that publishes nothing until started.
+     *
+     * @param logger  extension logger
+     * @param metrics metrics to publish
+     */
+    public EntityMetricsExporter(MCEngineExtensionLogger logger, EntityMetrics metrics) {
+        this.logger = logger;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Rewrites {@code file} every {@code intervalMillis}. Each write goes to a temporary file that
+     * is atomically moved into place, so scrapers never see a partial file.
+     *
+     * @param file           target file
+     * @param intervalMillis rewrite interval
+     */
+    public synchronized void startFile(File file, long intervalMillis) {
+        if (fileWriter != null) return;
+        fileWriter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "MCEngineEntity-MetricsFile");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(1000L, intervalMillis);
+        fileWriter.scheduleWithFixedDelay(() -> writeFile(file), interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Serves metrics at {@code http://host:port/metrics}.
+     *
+     * @param host bind address; keep it on loopback unless the port is firewalled
+     * @param port TCP port
+     */
+    public synchronized void startHttp(String host, int port) {
+        if (httpServer != null) return;
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+            httpServer.createContext("/metrics", exchange -> {
+                byte[] body = metrics.toPrometheus().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            httpExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "MCEngineEntity-MetricsHttp");
+                t.setDaemon(true);
+                return t;
+            });
+            httpServer.setExecutor(httpExecutor);
+            httpServer.start();
+            if (logger != null) logger.info("Serving Entity metrics on http://" + host + ":" + port + "/metrics");
+        } catch (IOException e) {
+            httpServer = null;
+            if (logger != null) logger.warning("Failed to start Entity metrics endpoint: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops both exports.
+     */
+    public synchronized void shutdown() {
+        if (fileWriter != null) {
+            fileWriter.shutdownNow();
+            fileWriter = null;
+        }
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (httpExecutor != null) {
+            httpExecutor.shutdownNow();
+            httpExecutor = null;
+        }
+    }
+
+    /**
+     * Writes one snapshot to {@code file}.
+     */
+    private void writeFile(File file) {
+        try {
+            Path target = file.toPath();
+            Path tmp = target.resolveSibling(file.getName() + ".tmp");
+            Files.writeString(tmp, metrics.toPrometheus(), StandardCharsets.UTF_8);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (logger != null) logger.warning("Failed to write Entity metrics file: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.mcengine.extension.addon.economy.entity.network;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogEntry;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityStage;
+import io.github.mcengine.extension.addon.economy.entity.metrics.EntityMetrics;
+import io.github.mcengine.extension.addon.economy.entity.reward.EntityRewardAggregator;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * One server in network mode.
+ * <p>
+ * Every node ships its locally coalesced receipts to the shared {@link EntityStage} instead of
+ * paying them, so a node costs one insert per flush however many players it rewards. Every node
+ * also competes for the merge lease; the holder drains the stage into its merge aggregator, which
+ * coalesces credits across all nodes before calling the economy API and writes the kill log.
+ * Database writes therefore grow with the number of rewarded players, not with the number of nodes.
+ */
+public class EntityNetworkNode {
+
+    /** Node ids accepted from the config; keeps them safe and short in every dialect. */
+    private static final Pattern NODE_ID = Pattern.compile("[A-Za-z0-9_.:-]{1,64}");
+
+    /** Most {@link EntityStage#take} calls per merge run, so one run cannot hold the thread indefinitely. */
+    private static final int MAX_TAKES_PER_RUN = 50;
+
+    /** Logger for diagnostics. */
+    private final MCEngineExtensionLogger logger;
+
+    /** Shared stage and lease. */
+    private final EntityStage stage;
+
+    /** This node's id in the stage and the lease. */
+    private final String nodeId;
+
+    /** Prefix making claim tokens unique across restarts. */
+    private final String tokenPrefix;
+
+    /** Merge lease duration. */
+    private final long leaseTtlMillis;
+
+    /** Pays merged receipts while this node holds the lease. */
+    private final EntityRewardAggregator merger;
+
+    /** Stage counters. */
+    private final EntityMetrics metrics;
+
+    /** Merge thread. */
+    private final ScheduledExecutorService scheduler;
+
+    /** Claim token counter; only used on the merge thread. */
+    private long takes;
+
+    /** Whether the last lease check succeeded. */
+    private volatile boolean leader;
+
+    /**
+     * Creates the node and starts competing for the merge lease.
+     *
+     * @param logger          extension logger
+     * @param stage           shared stage and lease, schema already ensured
+     * @param nodeId          configured node id; blank or invalid ids are replaced by a random one
+     * @param leaseTtlMillis  merge lease duration
+     * @param mergeIntervalMs delay between merge runs
+     * @param merger          pays merged receipts; shut down with this node
+     * @param metrics         stage counters
+     */
+    public EntityNetworkNode(MCEngineExtensionLogger logger, EntityStage stage, String nodeId, long leaseTtlMillis,
+                             long mergeIntervalMs, EntityRewardAggregator merger, EntityMetrics metrics) {
+        this.logger = logger;
+        this.stage = stage;
+        if (nodeId == null || !NODE_ID.matcher(nodeId).matches()) {
+            if (nodeId != null && !nodeId.isBlank() && logger != null) {
+                logger.warning("[Network] Invalid network.nodeId '" + nodeId + "'; using a random id.");
+            }
+            nodeId = UUID.randomUUID().toString();
+        }
+        this.nodeId = nodeId;
+        this.tokenPrefix = nodeId + ':' + Long.toString(System.currentTimeMillis(), 36) + ':';
+        this.leaseTtlMillis = Math.max(1000L, leaseTtlMillis);
+        this.merger = merger;
+        this.metrics = metrics;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "MCEngineEntity-NetworkMerge");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(100L, mergeIntervalMs);
+        this.scheduler.scheduleWithFixedDelay(this::merge, interval, interval, TimeUnit.MILLISECONDS);
+        if (logger != null) logger.info("[Network] Node " + nodeId + " staging rewards for the shared merge.");
+    }
+
+    /**
+     * Ships receipts to the stage; used as the local aggregator's {@link EntityRewardAggregator.Forwarder}.
+     *
+     * @param receipts receipts grouped by player and coin type
+     * @return number of leading receipts shipped
+     */
+    public int ship(List<EntityKillLogEntry> receipts) {
+        int shipped = stage.ship(nodeId, receipts);
+        metrics.add(EntityMetrics.Counter.STAGE_RECEIPTS_SHIPPED, shipped);
+        return shipped;
+    }
+
+    /**
+     * @return whether this node held the merge lease at its last check
+     */
+    public boolean isLeader() {
+        return leader;
+    }
+
+    /**
+     * Stops merging. A leader drains the stage once more, gives up the lease and pays what it merged.
+     * Call after the local aggregator has shipped its last credits.
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (leader) {
+            merge();
+            stage.releaseLease(nodeId);
+            leader = false;
+        }
+        merger.shutdown();
+    }
+
+    /**
+     * Renews the lease and, while held, hands staged receipts to the merge aggregator.
+     */
+    private void merge() {
+        try {
+            for (int i = 0; i < MAX_TAKES_PER_RUN; i++) {
+                leader = stage.holdLease(nodeId, leaseTtlMillis);
+                if (!leader) return;
+
+                List<EntityKillLogEntry> receipts = stage.take(nodeId, tokenPrefix + (++takes), leaseTtlMillis);
+                if (receipts == null || receipts.isEmpty()) return;
+                // The stage rows are already deleted; a receipt that cannot be credited must not cost the others
+                for (EntityKillLogEntry receipt : receipts) {
+                    try {
+                        merger.credit(UUID.fromString(receipt.playerUuid()), receipt.coinType(), receipt.amount(), receipt);
+                    } catch (RuntimeException e) {
+                        if (logger != null) logger.warning("[Network] Merged reward " + receipt.rewardKey() + " for "
+                                + receipt.playerUuid() + " not credited: " + e.getMessage());
+                    }
+                }
+                metrics.add(EntityMetrics.Counter.STAGE_RECEIPTS_MERGED, receipts.size());
+            }
+        } catch (RuntimeException e) {
+            if (logger != null) logger.warning("[Network] Merge failed: " + e.getMessage());
+        }
+    }
+}
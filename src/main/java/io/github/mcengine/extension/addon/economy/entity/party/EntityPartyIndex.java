@@ -0,0 +1,193 @@
+package io.github.mcengine.extension.addon.economy.entity.party;
+
+import io.github.mcengine.common.party.MCEnginePartyCommon;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Index of party id to online member UUIDs.
+ * <p>
+ * The index is rebuilt lazily with a single scan of the online players at most once per
+ * {@code ttlMillis}, and invalidated whenever a player joins or quits. Resolving a party's
+ * members is then a single map lookup instead of one party lookup per online player. Every
+ * rebuild also feeds the {@link EntityPartyRoster}, which remembers members after they log out.
+ * <p>
+ * Lookups and rebuilds call the party API, which may hit its database, so they run on the reward
+ * worker; the main thread only invalidates the published snapshot.
+ */
+public class EntityPartyIndex implements Listener {
+
+    /**
+     * Immutable view of party membership at a point in time.
+     *
+     * @param members  party id to member UUIDs
+     * @param expireAt {@link System#nanoTime()} after which the snapshot is stale
+     */
+    private record Snapshot(Map<String, Set<UUID>> members, long expireAt) {}
+
+    /** Snapshot that is always stale, used before the first build and after invalidation. */
+    private static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), 0L);
+
+    /** How long a snapshot stays fresh, in nanoseconds. */
+    private final long ttlNanos;
+
+    /** Current snapshot; replaced atomically on rebuild. */
+    private volatile Snapshot snapshot = EMPTY;
+
+    /** Serializes rebuilds so concurrent reward tasks scan the player list only once. */
+    private final Object rebuildLock = new Object();
+
+    /** Full membership learned from rebuilds; {@code null} to track online members only. */
+    private final EntityPartyRoster roster;
+
+    /**
+     * Creates the index.
+     *
+     * @param ttlMillis how long a built index is reused before rescanning online players
+     * @param roster    roster updated on every rebuild; may be {@code null}
+     */
+    public EntityPartyIndex(long ttlMillis, EntityPartyRoster roster) {
+        this.ttlNanos = Math.max(0L, ttlMillis) * 1_000_000L;
+        this.roster = roster;
+    }
+
+    /**
+     * Resolves a player's party. An online player is asked of the party API directly; a player who
+     * logged out since the kill keeps the party the roster last saw them in.
+     *
+     * @param partyApi party API
+     * @param playerId player to resolve, typically the killer
+     * @return party id, or {@code null} if the player is in none
+     */
+    public String partyOf(MCEnginePartyCommon partyApi, UUID playerId) {
+        Player player = Bukkit.getPlayer(playerId);
+        if (player != null) return partyApi.findPlayerPartyId(player);
+        return roster == null ? null : roster.partyOf(playerId);
+    }
+
+    /**
+     * Resolves the online members of the given party. If {@code expectedMember} is not found in a
+     * cached snapshot (e.g. they joined the party after the last scan), the index is rebuilt once.
+     *
+     * @param partyApi       party API used for rebuilds
+     * @param partyId        party id to resolve
+     * @param expectedMember a player known to belong to the party, typically the killer
+     * @return unmodifiable set of online member UUIDs (may be empty)
+     */
+    public Set<UUID> getMembers(MCEnginePartyCommon partyApi, String partyId, UUID expectedMember) {
+        Snapshot current = snapshot;
+        boolean rebuilt = false;
+        if (isStale(current)) {
+            current = rebuild(partyApi, current);
+            rebuilt = true;
+        }
+
+        Set<UUID> members = current.members().getOrDefault(partyId, Collections.emptySet());
+        if (!rebuilt && !members.contains(expectedMember)) {
+            invalidate();
+            current = rebuild(partyApi, EMPTY);
+            members = current.members().getOrDefault(partyId, Collections.emptySet());
+        }
+        return members;
+    }
+
+    /**
+     * Resolves every member of the given party, including offline members known to the roster.
+     *
+     * @param partyApi       party API used for rebuilds
+     * @param partyId        party id to resolve
+     * @param expectedMember a player known to belong to the party, typically the killer
+     * @return unmodifiable set of member UUIDs (may be empty)
+     */
+    public Set<UUID> getAllMembers(MCEnginePartyCommon partyApi, String partyId, UUID expectedMember) {
+        Set<UUID> online = getMembers(partyApi, partyId, expectedMember);
+        if (roster == null) return online;
+        Set<UUID> all = roster.members(partyId);
+        if (all.containsAll(online)) return all;
+        // A concurrent rebuild can briefly leave an online member out of the roster; they still count.
+        Set<UUID> union = new HashSet<>(all);
+        union.addAll(online);
+        return Collections.unmodifiableSet(union);
+    }
+
+    /**
+     * Marks the current snapshot stale so the next lookup rescans online players.
+     */
+    public void invalidate() {
+        snapshot = EMPTY;
+    }
+
+    /**
+     * Invalidates the index when a player joins.
+     *
+     * @param event join event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Invalidates the index when a player quits.
+     *
+     * @param event quit event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Rebuilds the snapshot unless another thread already replaced {@code stale}.
+     *
+     * @param partyApi party API used to resolve each online player's party
+     * @param stale    snapshot observed by the caller
+     * @return a fresh snapshot
+     */
+    private Snapshot rebuild(MCEnginePartyCommon partyApi, Snapshot stale) {
+        synchronized (rebuildLock) {
+            Snapshot current = snapshot;
+            if (current != stale && !isStale(current)) {
+                return current;
+            }
+
+            Map<String, Set<UUID>> members = new HashMap<>();
+            Map<UUID, String> parties = new HashMap<>();
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                String partyId = partyApi.findPlayerPartyId(player);
+                parties.put(player.getUniqueId(), partyId);
+                if (partyId != null) {
+                    members.computeIfAbsent(partyId, k -> new HashSet<>()).add(player.getUniqueId());
+                }
+            }
+            members.replaceAll((k, v) -> Collections.unmodifiableSet(v));
+            if (roster != null) roster.observeAll(parties, System.currentTimeMillis());
+
+            Snapshot fresh = new Snapshot(Collections.unmodifiableMap(members), System.nanoTime() + ttlNanos);
+            snapshot = fresh;
+            return fresh;
+        }
+    }
+
+    /**
+     * Checks whether a snapshot must be rebuilt before use.
+     *
+     * @param s snapshot to check
+     * @return {@code true} if invalidated or past its TTL
+     */
+    private static boolean isStale(Snapshot s) {
+        return s == EMPTY || System.nanoTime() - s.expireAt() > 0;
+    }
+}
@@ -0,0 +1,317 @@
+package io.github.mcengine.extension.addon.economy.entity.party;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full party membership, including offline members.
+ * <p>
+ * The party API only resolves the party of an online player, so the roster learns membership
+ * whenever {@link EntityPartyIndex} resolves online players and remembers it after they log
+ * out. A member is moved or dropped as soon as they are seen online in another party or in
+ * none. When every online member of a party is seen elsewhere, the party is assumed gone and
+ * its offline members are dropped too. Otherwise a member is forgotten after {@code maxAgeMillis}
+ * without being seen. A player who leaves or is kicked while offline cannot be detected, so they
+ * keep receiving shares for up to that long; keep it short.
+ * <p>
+ * Each party's member set is immutable and replaced on change, so {@link #members(String)} is a
+ * single lock-free map lookup. The roster is saved to disk periodically when it changed and on
+ * {@link #shutdown()}, and loaded on start.
+ */
+public class EntityPartyRoster {
+
+    /** File magic ("MCER"). */
+    private static final int MAGIC = 0x4D434552;
+
+    /** Roster file format version. */
+    private static final int VERSION = 1;
+
+    /** Delay between saves of a changed roster. */
+    private static final long SAVE_INTERVAL_MILLIS = 60_000L;
+
+    /**
+     * Last known membership of one player.
+     *
+     * @param partyId        party the player was last seen in
+     * @param lastSeenMillis epoch millis the player was last seen in it
+     */
+    private record Member(String partyId, long lastSeenMillis) {}
+
+    /** Logger for diagnostics. */
+    private final MCEngineExtensionLogger logger;
+
+    /** Roster file, or {@code null} to keep the roster in memory only. */
+    private final Path file;
+
+    /** How long a member is kept without being seen. */
+    private final long maxAgeMillis;
+
+    /** Membership by player. Party changes are made only while holding {@code this}. */
+    private final Map<UUID, Member> byPlayer = new ConcurrentHashMap<>();
+
+    /** Immutable member sets by party id. Replaced only while holding {@code this}. */
+    private final Map<String, Set<UUID>> byParty = new ConcurrentHashMap<>();
+
+    /** Serializes writers of the roster file. */
+    private final Object saveLock = new Object();
+
+    /** Whether the roster changed since the last save. */
+    private volatile boolean dirty;
+
+    /** Periodic save and expiry thread; {@code null} when in memory only. */
+    private final ScheduledExecutorService saver;
+
+    /**
+     * Creates the roster, loading the saved one if present.
+     *
+     * @param file         roster file, or {@code null} to keep it in memory only
+     * @param maxAgeMillis how long a member is kept without being seen; {@code <= 0} keeps them forever
+     * @param logger       extension logger
+     */
+    public EntityPartyRoster(Path file, long maxAgeMillis, MCEngineExtensionLogger logger) {
+        this.file = file;
+        this.maxAgeMillis = maxAgeMillis;
+        this.logger = logger;
+        if (file == null) {
+            this.saver = null;
+            return;
+        }
+
+        load();
+        this.saver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "MCEngineEntity-PartyRoster");
+            t.setDaemon(true);
+            return t;
+        });
+        saver.scheduleWithFixedDelay(() -> {
+            expire(System.currentTimeMillis());
+            if (dirty) save();
+        }, SAVE_INTERVAL_MILLIS, SAVE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns every known member of a party, online or not.
+     *
+     * @param partyId party id
+     * @return unmodifiable member set (may be empty)
+     */
+    public Set<UUID> members(String partyId) {
+        return byParty.getOrDefault(partyId, Collections.emptySet());
+    }
+
+    /**
+     * Returns the party a player was last seen in.
+     *
+     * @param playerId player
+     * @return their last known party id, or {@code null} if unknown
+     */
+    public String partyOf(UUID playerId) {
+        Member member = byPlayer.get(playerId);
+        return member == null ? null : member.partyId();
+    }
+
+    /**
+     * Records the party a player was seen in.
+     *
+     * @param playerId  player
+     * @param partyId   their current party, or {@code null} if they are in none
+     * @param nowMillis epoch millis of the observation
+     */
+    public void observe(UUID playerId, String partyId, long nowMillis) {
+        Member known = byPlayer.get(playerId);
+        if (known != null && known.partyId().equals(partyId)
+                && byPlayer.replace(playerId, known, new Member(partyId, nowMillis))) {
+            // Same party: refresh last-seen without touching the member sets
+            dirty = true;
+            return;
+        }
+        if (known == null && partyId == null) return;
+
+        synchronized (this) {
+            Member previous = partyId == null
+                    ? byPlayer.remove(playerId)
+                    : byPlayer.put(playerId, new Member(partyId, nowMillis));
+            if (previous != null && !previous.partyId().equals(partyId)) {
+                replaceMembers(previous.partyId(), playerId, false);
+            }
+            if (partyId != null) replaceMembers(partyId, playerId, true);
+            dirty = true;
+        }
+    }
+
+    /**
+     * Records one scan of the online players. Beyond {@link #observe} for each of them, a party
+     * that had online members before the scan but has none in it afterwards is dropped, offline
+     * members included, since the party was left or disbanded.
+     *
+     * @param online    party of each online player, {@code null} for none
+     * @param nowMillis epoch millis of the scan
+     */
+    public void observeAll(Map<UUID, String> online, long nowMillis) {
+        Set<String> before = new HashSet<>();
+        for (UUID playerId : online.keySet()) {
+            String partyId = partyOf(playerId);
+            if (partyId != null) before.add(partyId);
+        }
+        online.forEach((playerId, partyId) -> observe(playerId, partyId, nowMillis));
+        before.removeAll(online.values());
+        for (String partyId : before) {
+            dropParty(partyId);
+        }
+    }
+
+    /**
+     * @return number of players in the roster
+     */
+    public int size() {
+        return byPlayer.size();
+    }
+
+    /**
+     * Stops periodic saving and saves the roster one last time.
+     */
+    public void shutdown() {
+        if (saver == null) return;
+        saver.shutdownNow();
+        save();
+    }
+
+    /**
+     * Replaces a party's member set with a copy that has {@code playerId} added or removed.
+     * Caller must hold {@code this}.
+     *
+     * @param partyId  party to update
+     * @param playerId member to add or remove
+     * @param add      {@code true} to add, {@code false} to remove
+     */
+    private void replaceMembers(String partyId, UUID playerId, boolean add) {
+        Set<UUID> current = byParty.getOrDefault(partyId, Collections.emptySet());
+        if (current.contains(playerId) == add) return;
+        Set<UUID> next = new HashSet<>(current);
+        if (add) next.add(playerId); else next.remove(playerId);
+        if (next.isEmpty()) {
+            byParty.remove(partyId);
+        } else {
+            byParty.put(partyId, Collections.unmodifiableSet(next));
+        }
+    }
+
+    /**
+     * Forgets every member of a party.
+     *
+     * @param partyId party to forget
+     */
+    private synchronized void dropParty(String partyId) {
+        Set<UUID> members = byParty.remove(partyId);
+        if (members == null) return;
+        for (UUID playerId : members) {
+            Member member = byPlayer.get(playerId);
+            if (member != null && member.partyId().equals(partyId)) byPlayer.remove(playerId);
+        }
+        dirty = true;
+    }
+
+    /**
+     * Forgets members not seen within {@link #maxAgeMillis}.
+     *
+     * @param nowMillis current epoch millis
+     */
+    private void expire(long nowMillis) {
+        if (maxAgeMillis <= 0) return;
+        List<UUID> expired = new ArrayList<>();
+        for (Map.Entry<UUID, Member> e : byPlayer.entrySet()) {
+            if (nowMillis - e.getValue().lastSeenMillis() > maxAgeMillis) expired.add(e.getKey());
+        }
+        for (UUID playerId : expired) {
+            synchronized (this) {
+                Member member = byPlayer.get(playerId);
+                if (member == null || nowMillis - member.lastSeenMillis() <= maxAgeMillis) continue;
+                byPlayer.remove(playerId);
+                replaceMembers(member.partyId(), playerId, false);
+                dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Loads the saved roster. A missing, outdated or corrupt file yields an empty roster.
+     */
+    private void load() {
+        if (!Files.isRegularFile(file)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                UUID playerId = new UUID(in.readLong(), in.readLong());
+                String partyId = in.readUTF();
+                observe(playerId, partyId, in.readLong());
+            }
+        } catch (IOException e) {
+            if (logger != null) logger.warning("[Party] Ignoring unreadable party roster " + file + ": " + e.getMessage());
+            byPlayer.clear();
+            byParty.clear();
+        }
+        dirty = false;
+    }
+
+    /**
+     * Atomically replaces the roster file with the current roster.
+     */
+    private void save() {
+        synchronized (saveLock) {
+            dirty = false;
+            Map<UUID, Member> snapshot;
+            synchronized (this) {
+                snapshot = new HashMap<>(byPlayer);
+            }
+            write(snapshot);
+        }
+    }
+
+    /**
+     * Writes a roster snapshot to a temporary file and moves it over the roster file.
+     *
+     * @param snapshot membership by player
+     */
+    private void write(Map<UUID, Member> snapshot) {
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<UUID, Member> e : snapshot.entrySet()) {
+                    out.writeLong(e.getKey().getMostSignificantBits());
+                    out.writeLong(e.getKey().getLeastSignificantBits());
+                    out.writeUTF(e.getValue().partyId());
+                    out.writeLong(e.getValue().lastSeenMillis());
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            if (logger != null) logger.warning("[Party] Failed to write party roster " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package io.github.mcengine.extension.addon.economy.entity.reward;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diminishing returns for farmed kills.
+ * <p>
+ * Every rewarded kill is counted in two sliding windows: one per killer and one per chunk. Each
+ * window is a small ring of per-slot kill counts with a running total, so recording a kill and
+ * reading the rate are O(1) and allocation-free once the entry exists. Above a window's soft
+ * limit the reward is scaled by {@code softLimit / kills}, which keeps the payout per window
+ * flat however fast the farm runs. At the hard limit the kill is suppressed and never reaches
+ * the economy or the kill log.
+ * <p>
+ * Memory is bounded: idle windows are evicted by a background sweep, and once a map is full new
+ * players or chunks are not tracked (they are rewarded normally) until the sweep frees room.
+ * Each window has its own lock, so concurrent kills on the same player or chunk are all counted.
+ */
+public class EntityAntiFarm {
+
+    /** Slots per window; the window slides in steps of {@code window / SLOTS}. */
+    private static final int SLOTS = 30;
+
+    /** Mask of one chunk coordinate within a chunk key (22 bits covers the world border). */
+    private static final long COORD_MASK = (1L << 22) - 1;
+
+    /** Per-player limits. */
+    private final Limits playerLimits;
+
+    /** Per-chunk limits. */
+    private final Limits chunkLimits;
+
+    /** Kill windows by killer. */
+    private final Map<UUID, Window> players = new ConcurrentHashMap<>();
+
+    /** Kill windows by packed world/chunk key. */
+    private final Map<Long, Window> chunks = new ConcurrentHashMap<>();
+
+    /** World name to the id used in chunk keys. */
+    private final Map<String, Integer> worldIds = new ConcurrentHashMap<>();
+
+    /** Most tracked players. */
+    private final int maxPlayers;
+
+    /** Most tracked chunks. */
+    private final int maxChunks;
+
+    /** Idle eviction thread. */
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * Thresholds of one window kind.
+     *
+     * @param windowMillis window length
+     * @param softLimit    kills per window above which rewards are scaled down; {@code 0} disables
+     * @param hardLimit    kills per window at which rewards are suppressed; {@code 0} disables
+     */
+    public record Limits(long windowMillis, int softLimit, int hardLimit) {}
+
+    /**
+     * Creates the throttle and starts its sweeper.
+     *
+     * @param playerLimits per-killer limits
+     * @param chunkLimits  per-chunk limits
+     * @param maxPlayers   most players tracked at once
+     * @param maxChunks    most chunks tracked at once
+     */
+    public EntityAntiFarm(Limits playerLimits, Limits chunkLimits, int maxPlayers, int maxChunks) {
+        this.playerLimits = playerLimits;
+        this.chunkLimits = chunkLimits;
+        this.maxPlayers = Math.max(1, maxPlayers);
+        this.maxChunks = Math.max(1, maxChunks);
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "MCEngineEntity-AntiFarmSweep");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000L, Math.min(playerLimits.windowMillis(), chunkLimits.windowMillis()) / 2);
+        sweeper.scheduleWithFixedDelay(this::sweep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records a rewarded kill and returns the factor its reward is scaled by.
+     *
+     * @param killerId  killing player
+     * @param world     world name of the death
+     * @param chunkX    chunk X of the death
+     * @param chunkZ    chunk Z of the death
+     * @param nowMillis epoch millis of the kill
+     * @return {@code 1} below the soft limits, less above them, {@code 0} if suppressed
+     */
+    public double record(UUID killerId, String world, int chunkX, int chunkZ, long nowMillis) {
+        double factor = 1d;
+
+        Window player = window(players, killerId, maxPlayers, playerLimits);
+        if (player != null) factor *= factor(player.hit(nowMillis), playerLimits);
+
+        Window chunk = window(chunks, chunkKey(world, chunkX, chunkZ), maxChunks, chunkLimits);
+        if (chunk != null) factor *= factor(chunk.hit(nowMillis), chunkLimits);
+
+        return factor;
+    }
+
+    /**
+     * @return number of tracked players and chunks
+     */
+    public int trackedCount() {
+        return players.size() + chunks.size();
+    }
+
+    /**
+     * Stops the sweeper and drops all windows.
+     */
+    public void shutdown() {
+        sweeper.shutdownNow();
+        players.clear();
+        chunks.clear();
+    }
+
+    /**
+     * Evicts windows without kills in their current span.
+     */
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        players.values().removeIf(w -> w.idle(now));
+        chunks.values().removeIf(w -> w.idle(now));
+    }
+
+    /**
+     * Returns the window for a key, creating it if there is room.
+     *
+     * @param map    windows by key
+     * @param key    player or chunk key
+     * @param max    most entries in {@code map}
+     * @param limits window limits
+     * @param <K>    key type
+     * @return the window, or {@code null} if the map is full
+     */
+    private static <K> Window window(Map<K, Window> map, K key, int max, Limits limits) {
+        Window window = map.get(key);
+        if (window != null || map.size() >= max) return window;
+        return map.computeIfAbsent(key, k -> new Window(limits.windowMillis()));
+    }
+
+    /**
+     * @param kills  kills in the window, including this one
+     * @param limits window limits
+     * @return reward factor for this kill
+     */
+    private static double factor(int kills, Limits limits) {
+        if (limits.hardLimit() > 0 && kills >= limits.hardLimit()) return 0d;
+        if (limits.softLimit() > 0 && kills > limits.softLimit()) return (double) limits.softLimit() / kills;
+        return 1d;
+    }
+
+    /**
+     * Packs a world id and chunk coordinates into one key.
+     *
+     * @param world  world name
+     * @param chunkX chunk X
+     * @param chunkZ chunk Z
+     * @return packed key
+     */
+    private long chunkKey(String world, int chunkX, int chunkZ) {
+        Integer id = worldIds.get(world);
+        if (id == null) {
+            synchronized (worldIds) {
+                id = worldIds.computeIfAbsent(world, w -> worldIds.size());
+            }
+        }
+        return ((long) id << 44) | ((chunkX & COORD_MASK) << 22) | (chunkZ & COORD_MASK);
+    }
+
+    /**
+     * Sliding window of kill counts: a ring of {@link #SLOTS} slots and their running total.
+     */
+    private static final class Window {
+
+        /** Kills per slot. */
+        private final int[] slots = new int[SLOTS];
+
+        /** Length of one slot. */
+        private final long slotMillis;
+
+        /** Absolute index of the newest slot ({@code millis / slotMillis}). */
+        private long head;
+
+        /** Sum of {@link #slots}. */
+        private int total;
+
+        /**
+         * @param windowMillis window length
+         */
+        Window(long windowMillis) {
+            this.slotMillis = Math.max(1L, windowMillis / SLOTS);
+            this.head = System.currentTimeMillis() / slotMillis;
+        }
+
+        /**
+         * Counts a kill.
+         *
+         * @param nowMillis time of the kill
+         * @return kills in the window, including this one
+         */
+        synchronized int hit(long nowMillis) {
+            advance(nowMillis / slotMillis);
+            slots[(int) (head % SLOTS)]++;
+            return ++total;
+        }
+
+        /**
+         * @param nowMillis current time
+         * @return whether the window holds no kills
+         */
+        synchronized boolean idle(long nowMillis) {
+            advance(nowMillis / slotMillis);
+            return total == 0;
+        }
+
+        /**
+         * Slides the window forward, clearing slots that fell out of it. A clock that went
+         * backwards keeps counting into the newest slot.
+         *
+         * @param slot absolute index of the current slot
+         */
+        private void advance(long slot) {
+            if (slot <= head) return;
+            if (slot - head >= SLOTS) {
+                Arrays.fill(slots, 0);
+                total = 0;
+            } else {
+                for (long s = head + 1; s <= slot; s++) {
+                    int i = (int) (s % SLOTS);
+                    total -= slots[i];
+                    slots[i] = 0;
+                }
+            }
+            head = slot;
+        }
+    }
+}
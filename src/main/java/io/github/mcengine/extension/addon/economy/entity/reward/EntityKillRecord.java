@@ -0,0 +1,38 @@
+package io.github.mcengine.extension.addon.economy.entity.reward;
+
+import org.bukkit.entity.EntityType;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of a rewarded death, captured on the main thread so reward processing
+ * never touches live Bukkit entities off-thread.
+ *
+ * @param rewardId   reward transaction id generated once per kill
+ * @param killerId   UUID of the killing player
+ * @param killerName name of the killing player at the time of the kill
+ * @param entityType type of the killed entity
+ * @param world      name of the world the entity died in
+ * @param chunkX     chunk X coordinate of the death location
+ * @param chunkZ     chunk Z coordinate of the death location
+ * @param timestamp  epoch millis of the kill
+ * @param multiplier product of the contextual reward rules that matched the kill
+ */
+public record EntityKillRecord(UUID rewardId, UUID killerId, String killerName, EntityType entityType,
+                               String world, int chunkX, int chunkZ, long timestamp, double multiplier) {
+
+    /**
+     * Derives the idempotency key of one recipient's share of this kill. The key is stable for a
+     * given kill and recipient, so retrying or replaying the share always produces the same key.
+     *
+     * @param recipientId player receiving the share
+     * @return name-based UUID of {@code (rewardId, recipientId)}
+     */
+    public UUID rewardKey(UUID recipientId) {
+        ByteBuffer bytes = ByteBuffer.allocate(32)
+                .putLong(rewardId.getMostSignificantBits()).putLong(rewardId.getLeastSignificantBits())
+                .putLong(recipientId.getMostSignificantBits()).putLong(recipientId.getLeastSignificantBits());
+        return UUID.nameUUIDFromBytes(bytes.array());
+    }
+}
@@ -0,0 +1,407 @@
+package io.github.mcengine.extension.addon.economy.entity.reward;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import io.github.mcengine.common.economy.MCEngineEconomyCommon;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogEntry;
+import io.github.mcengine.extension.addon.economy.entity.metrics.EntityMetrics;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces reward credits per (player, coin type) before calling
+ * {@link MCEngineEconomyCommon#addCoin(UUID, String, int)}.
+ * <p>
+ * Credits accumulate for up to {@code windowMs}, or until {@code maxPendingKills} credits are
+ * pending, and are then applied with a single {@code addCoin} per key. A player's pending credits
+ * are flushed when they quit, and everything is flushed on {@link #shutdown()}. Without a window,
+ * credits are paid as they arrive. A credit whose payment fails is never dropped. It is kept
+ * pending and retried by the next flush, or every {@code RETRY_INTERVAL_MS} when there is no window.
+ * <p>
+ * Each credit carries the kill log receipt of its reward share. Receipts are handed to the kill
+ * log only after the {@code addCoin} covering them succeeded, so the audit trail never records
+ * money that was not paid. A share whose reward key is pending or among the last
+ * {@code RECENT_KEYS} paid is ignored. This de-duplication is in memory only: it does not survive a restart and
+ * is not shared between servers, so it only stops a kill being paid twice within one process. The
+ * kill log's unique reward key keeps the audit trail free of duplicates but does not undo a
+ * second payment.
+ * <p>
+ * With a {@link Forwarder} (network mode), flushes ship the coalesced receipts instead of calling
+ * the economy API, and receipts reach the sink once shipped.
+ */
+public class EntityRewardAggregator implements Listener {
+
+    /**
+     * Aggregation key.
+     *
+     * @param playerId rewarded player
+     * @param coinType coin type credited
+     */
+    private record CreditKey(UUID playerId, String coinType) {}
+
+    /**
+     * Ships coalesced receipts somewhere other than the economy API.
+     */
+    @FunctionalInterface
+    public interface Forwarder {
+
+        /**
+         * @param receipts receipts grouped by player and coin type
+         * @return number of leading receipts accepted; the rest stay pending for the next flush
+         */
+        int forward(List<EntityKillLogEntry> receipts);
+    }
+
+    /** Number of recently credited reward keys remembered for de-duplication. */
+    private static final int RECENT_KEYS = 65_536;
+
+    /** Delay between retries of failed credits when credits are otherwise paid immediately. */
+    private static final long RETRY_INTERVAL_MS = 1000L;
+
+    /**
+     * Pending total for one key and the receipts it covers. Only mutated inside
+     * {@link ConcurrentHashMap#compute}, or after being removed from the map.
+     */
+    private static final class PendingCredit {
+
+        /** Summed amount. */
+        private long amount;
+
+        /** Kill log rows to write once the amount is paid. */
+        private final List<EntityKillLogEntry> receipts = new ArrayList<>();
+    }
+
+    /** Logger for diagnostics. */
+    private final MCEngineExtensionLogger logger;
+
+    /** Economy API that applies the credits. */
+    private final MCEngineEconomyCommon currencyApi;
+
+    /** Pending credits by key. */
+    private final Map<CreditKey, PendingCredit> pending = new ConcurrentHashMap<>();
+
+    /** Reward keys credited recently, oldest first. */
+    private final Set<String> recentKeys = Collections.newSetFromMap(Collections.synchronizedMap(
+            new LinkedHashMap<>(1024, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > RECENT_KEYS;
+                }
+            }));
+
+    /** Receives receipts of paid credits; {@code null} when kill logging is disabled. */
+    private final Consumer<EntityKillLogEntry> receiptSink;
+
+    /** Hot-path metrics. */
+    private final EntityMetrics metrics;
+
+    /** Number of credits added since the last full flush. */
+    private final AtomicInteger pendingKills = new AtomicInteger();
+
+    /** Prevents piling up early flushes while one is already queued. */
+    private final AtomicBoolean earlyFlushQueued = new AtomicBoolean();
+
+    /** Credit count that triggers a flush before the window elapses. */
+    private final int maxPendingKills;
+
+    /** Whether credits are paid (or shipped) as they arrive instead of coalesced. */
+    private final boolean immediate;
+
+    /** Single thread that applies coalesced credits and retries failed ones. */
+    private final ScheduledExecutorService flusher;
+
+    /** Bounds concurrent economy calls; {@code null} for no limit. */
+    private final Semaphore dbPermits;
+
+    /** Ships receipts instead of paying them; {@code null} to pay through the economy API. */
+    private final Forwarder forwarder;
+
+    /**
+     * Creates the aggregator and schedules its periodic flush.
+     *
+     * @param logger          extension logger
+     * @param currencyApi     economy API used to apply credits
+     * @param windowMs        aggregation window in milliseconds; {@code <= 0} credits immediately
+     * @param maxPendingKills pending credit count that forces an early flush
+     * @param receiptSink     receives kill log rows of paid credits; may be {@code null}
+     * @param maxDbCalls      most concurrent economy calls; {@code <= 0} for no limit
+     * @param metrics         hot-path metrics
+     */
+    public EntityRewardAggregator(MCEngineExtensionLogger logger, MCEngineEconomyCommon currencyApi,
+                                  long windowMs, int maxPendingKills, Consumer<EntityKillLogEntry> receiptSink,
+                                  int maxDbCalls, EntityMetrics metrics) {
+        this(logger, currencyApi, windowMs, maxPendingKills, receiptSink, maxDbCalls, metrics, null);
+    }
+
+    /**
+     * Creates an aggregator that ships its flushes through {@code forwarder} instead of paying them.
+     * Each credit's amount must equal its receipt's amount.
+     *
+     * @param logger          extension logger
+     * @param currencyApi     economy API, unused when {@code forwarder} is set
+     * @param windowMs        aggregation window in milliseconds; {@code <= 0} ships immediately
+     * @param maxPendingKills pending credit count that forces an early flush
+     * @param receiptSink     receives kill log rows of shipped or paid credits; may be {@code null}
+     * @param maxDbCalls      most concurrent economy calls; {@code <= 0} for no limit
+     * @param metrics         hot-path metrics
+     * @param forwarder       ships coalesced receipts; {@code null} to pay through {@code currencyApi}
+     */
+    public EntityRewardAggregator(MCEngineExtensionLogger logger, MCEngineEconomyCommon currencyApi,
+                                  long windowMs, int maxPendingKills, Consumer<EntityKillLogEntry> receiptSink,
+                                  int maxDbCalls, EntityMetrics metrics, Forwarder forwarder) {
+        this.logger = logger;
+        this.forwarder = forwarder;
+        this.dbPermits = maxDbCalls > 0 ? new Semaphore(maxDbCalls) : null;
+        this.currencyApi = currencyApi;
+        this.maxPendingKills = Math.max(1, maxPendingKills);
+        this.receiptSink = receiptSink;
+        this.metrics = metrics;
+
+        this.immediate = windowMs <= 0;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "MCEngineEntity-RewardFlush");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = immediate ? RETRY_INTERVAL_MS : windowMs;
+        this.flusher.scheduleWithFixedDelay(this::flushAll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds a pending credit. Without an aggregation window the credit is paid (or shipped) right
+     * away; if that fails it is kept pending for the retry flush instead, so it never throws for a
+     * failed payment.
+     *
+     * @param playerId player to credit
+     * @param coinType coin type to credit
+     * @param amount   amount to add
+     * @param receipt  kill log row for this share, keyed by its reward key
+     */
+    public void credit(UUID playerId, String coinType, int amount, EntityKillLogEntry receipt) {
+        if (receipt.rewardKey() != null && !recentKeys.add(receipt.rewardKey())) {
+            metrics.increment(EntityMetrics.Counter.DUPLICATE_REWARDS);
+            if (logger != null) logger.warning("[Reward] Ignored duplicate reward " + receipt.rewardKey() + " for " + playerId);
+            return;
+        }
+
+        CreditKey key = new CreditKey(playerId, coinType);
+        if (immediate && forwarder != null) {
+            boolean shipped;
+            try {
+                shipped = forwarder.forward(List.of(receipt)) >= 1;
+            } catch (RuntimeException e) {
+                shipped = false;
+            }
+            if (!shipped) {
+                metrics.increment(EntityMetrics.Counter.STAGE_SHIP_FAILURES);
+                addPending(key, amount, List.of(receipt));
+                if (logger != null) logger.warning("[Reward] Reward " + receipt.rewardKey() + " could not be staged; kept for retry.");
+                return;
+            }
+            if (receiptSink != null) receiptSink.accept(receipt);
+            return;
+        }
+        if (immediate) {
+            try {
+                addCoin(playerId, coinType, amount);
+            } catch (RuntimeException e) {
+                metrics.increment(EntityMetrics.Counter.ADD_COIN_FAILURES);
+                addPending(key, amount, List.of(receipt));
+                if (logger != null) logger.warning("[Reward] addCoin failed for " + playerId + "; "
+                        + amount + " " + coinType + " kept for retry: " + e.getMessage());
+                return;
+            }
+            if (receiptSink != null) receiptSink.accept(receipt);
+            return;
+        }
+
+        addPending(key, amount, List.of(receipt));
+        if (pendingKills.incrementAndGet() >= maxPendingKills && earlyFlushQueued.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                earlyFlushQueued.set(false);
+                flushAll();
+            });
+        }
+    }
+
+    /**
+     * Flushes a player's pending credits as soon as they quit.
+     *
+     * @param event quit event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        UUID playerId = event.getPlayer().getUniqueId();
+        flusher.execute(() -> flushPlayer(playerId));
+    }
+
+    /**
+     * Stops the periodic flush and synchronously applies every pending credit.
+     */
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushAll();
+    }
+
+    /**
+     * Applies every pending credit.
+     */
+    private void flushAll() {
+        pendingKills.set(0);
+        if (forwarder != null) {
+            forward(new ArrayList<>(pending.keySet()));
+            return;
+        }
+        for (CreditKey key : new ArrayList<>(pending.keySet())) {
+            apply(key);
+        }
+    }
+
+    /**
+     * Applies the pending credits of one player.
+     *
+     * @param playerId player whose credits are flushed
+     */
+    private void flushPlayer(UUID playerId) {
+        List<CreditKey> keys = new ArrayList<>();
+        for (CreditKey key : pending.keySet()) {
+            if (key.playerId().equals(playerId)) keys.add(key);
+        }
+        if (forwarder != null) {
+            forward(keys);
+            return;
+        }
+        for (CreditKey key : keys) {
+            apply(key);
+        }
+    }
+
+    /**
+     * Atomically takes the pending credit for one key and pays it, then releases its receipts.
+     * Totals above {@link Integer#MAX_VALUE} are applied in several calls; on failure the unpaid
+     * remainder and all receipts are put back for the next flush.
+     *
+     * @param key key to apply
+     */
+    private void apply(CreditKey key) {
+        PendingCredit credit = pending.remove(key);
+        if (credit == null) return;
+
+        long remaining = credit.amount;
+        try {
+            while (remaining > 0) {
+                int chunk = (int) Math.min(remaining, Integer.MAX_VALUE);
+                addCoin(key.playerId(), key.coinType(), chunk);
+                remaining -= chunk;
+            }
+        } catch (Exception e) {
+            metrics.increment(EntityMetrics.Counter.ADD_COIN_FAILURES);
+            long unpaid = remaining;
+            addPending(key, unpaid, credit.receipts);
+            if (logger != null) logger.warning("[Reward] addCoin failed for " + key.playerId() + "; "
+                    + unpaid + " " + key.coinType() + " kept for retry: " + e.getMessage());
+            return;
+        }
+
+        if (receiptSink != null) {
+            for (EntityKillLogEntry receipt : credit.receipts) {
+                receiptSink.accept(receipt);
+            }
+        }
+    }
+
+    /**
+     * Atomically takes the pending credits for {@code keys} and ships their receipts in one call.
+     * Receipts the forwarder did not accept are put back for the next flush.
+     *
+     * @param keys keys to ship
+     */
+    private void forward(List<CreditKey> keys) {
+        List<EntityKillLogEntry> receipts = new ArrayList<>();
+        for (CreditKey key : keys) {
+            PendingCredit credit = pending.remove(key);
+            if (credit != null) receipts.addAll(credit.receipts);
+        }
+        if (receipts.isEmpty()) return;
+
+        int shipped = forwarder.forward(receipts);
+        if (shipped < receipts.size()) {
+            metrics.increment(EntityMetrics.Counter.STAGE_SHIP_FAILURES);
+            for (EntityKillLogEntry receipt : receipts.subList(shipped, receipts.size())) {
+                addPending(new CreditKey(UUID.fromString(receipt.playerUuid()), receipt.coinType()), receipt.amount(),
+                        List.of(receipt));
+            }
+            if (logger != null) logger.warning("[Reward] " + (receipts.size() - shipped) + " of " + receipts.size()
+                    + " receipts could not be staged; kept for retry.");
+        }
+        if (receiptSink != null) {
+            for (EntityKillLogEntry receipt : receipts.subList(0, shipped)) {
+                receiptSink.accept(receipt);
+            }
+        }
+    }
+
+    /**
+     * Adds an amount and its receipts to the pending credit of one key.
+     *
+     * @param key      key to credit
+     * @param amount   amount to add
+     * @param receipts receipts the amount covers
+     */
+    private void addPending(CreditKey key, long amount, List<EntityKillLogEntry> receipts) {
+        pending.compute(key, (k, current) -> {
+            if (current == null) current = new PendingCredit();
+            current.amount += amount;
+            current.receipts.addAll(receipts);
+            return current;
+        });
+    }
+
+    /**
+     * Calls the economy API and records its latency. With virtual reward threads, every kill in
+     * flight could otherwise hold a database connection at once, so calls wait for a permit.
+     *
+     * @param playerId player to credit
+     * @param coinType coin type to credit
+     * @param amount   amount to add
+     */
+    private void addCoin(UUID playerId, String coinType, int amount) {
+        if (dbPermits != null) dbPermits.acquireUninterruptibly();
+        long start = System.nanoTime();
+        try {
+            currencyApi.addCoin(playerId, coinType, amount);
+        } finally {
+            metrics.recordSince(EntityMetrics.Timer.ADD_COIN, start);
+            if (dbPermits != null) dbPermits.release();
+        }
+    }
+
+    /**
+     * @return number of (player, coin type) credits waiting for the next flush
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+}
@@ -0,0 +1,264 @@
+package io.github.mcengine.extension.addon.economy.entity.reward;
+
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects reward notifications per player and coin type and delivers one summarised chat or
+ * action-bar message per player and coin type every {@code intervalTicks}, from a single
+ * repeating main-thread task.
+ * <p>
+ * Templates are colour-translated and split into literal and placeholder segments once at
+ * construction. Supported placeholders are {@code {amount}}, {@code {coin}}, {@code {kills}} and
+ * {@code {entity}}.
+ */
+public class EntityRewardNotifier {
+
+    /**
+     * Where notifications are shown.
+     */
+    public enum Mode {
+        /** Regular chat message. */
+        CHAT,
+        /** Action bar above the hotbar. */
+        ACTION_BAR;
+
+        /**
+         * Resolves a mode from its config name, falling back to {@link #CHAT}.
+         *
+         * @param name configured name (case-insensitive)
+         * @return the matching mode
+         */
+        public static Mode fromString(String name) {
+            if (name == null) return CHAT;
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return CHAT;
+            }
+        }
+    }
+
+    /**
+     * Aggregation key.
+     *
+     * @param playerId notified player
+     * @param coinType coin type earned
+     */
+    private record NoticeKey(UUID playerId, String coinType) {}
+
+    /**
+     * Running totals for one key. Only mutated inside {@link ConcurrentHashMap#compute}.
+     */
+    private static final class Tally {
+        /** Number of rewarded kills. */
+        private int kills;
+        /** Total amount earned. */
+        private long amount;
+        /** Most recently killed entity type. */
+        private EntityType lastType;
+    }
+
+    /** Pending notifications. */
+    private final Map<NoticeKey, Tally> pending = new ConcurrentHashMap<>();
+
+    /** Delivery mode. */
+    private final Mode mode;
+
+    /** Template used when a single kill was rewarded during the interval. */
+    private final Template single;
+
+    /** Template used when several kills were rewarded during the interval. */
+    private final Template summary;
+
+    /** Repeating delivery task. */
+    private final BukkitTask task;
+
+    /**
+     * Creates the notifier and starts its delivery task.
+     *
+     * @param plugin          plugin owning the task
+     * @param mode            delivery mode
+     * @param intervalTicks   delivery interval in server ticks
+     * @param singleTemplate  raw template for a single kill ({@code &} colour codes allowed)
+     * @param summaryTemplate raw template for several kills ({@code &} colour codes allowed)
+     */
+    public EntityRewardNotifier(Plugin plugin, Mode mode, long intervalTicks, String singleTemplate, String summaryTemplate) {
+        this.mode = mode;
+        this.single = Template.compile(singleTemplate);
+        this.summary = Template.compile(summaryTemplate);
+        long interval = Math.max(1L, intervalTicks);
+        this.task = Bukkit.getScheduler().runTaskTimer(plugin, this::deliver, interval, interval);
+    }
+
+    /**
+     * Records a reward for later delivery. Safe to call from any thread.
+     *
+     * @param playerId   rewarded player
+     * @param coinType   coin type earned
+     * @param amount     amount earned
+     * @param entityType killed entity type
+     */
+    public void notify(UUID playerId, String coinType, int amount, EntityType entityType) {
+        pending.compute(new NoticeKey(playerId, coinType), (k, tally) -> {
+            if (tally == null) tally = new Tally();
+            tally.kills++;
+            tally.amount += amount;
+            tally.lastType = entityType;
+            return tally;
+        });
+    }
+
+    /**
+     * Stops the delivery task and sends the notifications still pending. Runs on the main thread,
+     * after the reward worker has drained.
+     */
+    public void shutdown() {
+        task.cancel();
+        deliver();
+        pending.clear();
+    }
+
+    /**
+     * Sends one message per pending key. Runs on the main thread.
+     */
+    private void deliver() {
+        if (pending.isEmpty()) return;
+
+        StringBuilder text = new StringBuilder(64);
+        for (NoticeKey key : new ArrayList<>(pending.keySet())) {
+            Tally tally = pending.remove(key);
+            if (tally == null) continue;
+
+            Player player = Bukkit.getPlayer(key.playerId());
+            if (player == null) continue;
+
+            text.setLength(0);
+            (tally.kills == 1 ? single : summary).render(text, tally.amount, key.coinType(), tally.kills, tally.lastType);
+            if (mode == Mode.ACTION_BAR) {
+                player.spigot().sendMessage(ChatMessageType.ACTION_BAR, TextComponent.fromLegacyText(text.toString()));
+            } else {
+                player.sendMessage(text.toString());
+            }
+        }
+    }
+
+    /**
+     * Precompiled message template: alternating literal segments and placeholder ids.
+     */
+    private static final class Template {
+
+        /** Placeholder id for {@code {amount}}. */
+        private static final int AMOUNT = 0;
+        /** Placeholder id for {@code {coin}}. */
+        private static final int COIN = 1;
+        /** Placeholder id for {@code {kills}}. */
+        private static final int KILLS = 2;
+        /** Placeholder id for {@code {entity}}. */
+        private static final int ENTITY = 3;
+
+        /** Placeholder names indexed by id. */
+        private static final String[] NAMES = {"{amount}", "{coin}", "{kills}", "{entity}"};
+
+        /** Literal segments; {@code literals[i]} precedes {@code placeholders[i]}. */
+        private final String[] literals;
+
+        /** Placeholder ids; one fewer than {@link #literals}. */
+        private final int[] placeholders;
+
+        private Template(String[] literals, int[] placeholders) {
+            this.literals = literals;
+            this.placeholders = placeholders;
+        }
+
+        /**
+         * Colour-translates and splits a raw template.
+         *
+         * @param raw raw template text
+         * @return compiled template
+         */
+        static Template compile(String raw) {
+            String text = ChatColor.translateAlternateColorCodes('&', raw == null ? "" : raw);
+            List<String> literals = new ArrayList<>();
+            List<Integer> ids = new ArrayList<>();
+
+            int start = 0;
+            int i = 0;
+            outer:
+            while (i < text.length()) {
+                if (text.charAt(i) == '{') {
+                    for (int id = 0; id < NAMES.length; id++) {
+                        if (text.startsWith(NAMES[id], i)) {
+                            literals.add(text.substring(start, i));
+                            ids.add(id);
+                            i += NAMES[id].length();
+                            start = i;
+                            continue outer;
+                        }
+                    }
+                }
+                i++;
+            }
+            literals.add(text.substring(start));
+
+            int[] placeholders = new int[ids.size()];
+            for (int j = 0; j < placeholders.length; j++) placeholders[j] = ids.get(j);
+            return new Template(literals.toArray(new String[0]), placeholders);
+        }
+
+        /**
+         * Renders the template into {@code out}.
+         *
+         * @param out    destination
+         * @param amount total amount
+         * @param coin   coin type
+         * @param kills  number of kills
+         * @param entity last killed entity type
+         */
+        void render(StringBuilder out, long amount, String coin, int kills, EntityType entity) {
+            for (int i = 0; i < placeholders.length; i++) {
+                out.append(literals[i]);
+                switch (placeholders[i]) {
+                    case AMOUNT -> appendGrouped(out, amount);
+                    case COIN -> out.append(coin);
+                    case KILLS -> appendGrouped(out, kills);
+                    case ENTITY -> out.append(entity == null ? "" : entity.name().toLowerCase(Locale.ROOT));
+                    default -> { }
+                }
+            }
+            out.append(literals[literals.length - 1]);
+        }
+
+        /**
+         * Appends a non-negative number with comma thousands separators.
+         *
+         * @param out   destination
+         * @param value value to append
+         */
+        private static void appendGrouped(StringBuilder out, long value) {
+            if (value < 1000) {
+                out.append(value);
+                return;
+            }
+            appendGrouped(out, value / 1000);
+            long rest = value % 1000;
+            out.append(',');
+            if (rest < 100) out.append('0');
+            if (rest < 10) out.append('0');
+            out.append(rest);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package io.github.mcengine.extension.addon.economy.entity.reward;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import io.github.mcengine.extension.addon.economy.entity.util.EntityRewardGate;
+import io.github.mcengine.extension.addon.economy.entity.util.EntityRewardTable;
+import io.github.mcengine.extension.addon.economy.entity.util.EntityUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Holds the live {@link EntityRewardTable}, compiled with the per-world settings into an
+ * {@link EntityRewardGate}, and swaps it atomically on reload.
+ * <p>
+ * Readers call {@link #get()} or {@link #gate()}, a single volatile read, so an in-flight kill
+ * always sees either the complete old table or the complete new one and never blocks. Reloads parse the YAML tree off the
+ * main thread and publish the compiled table with one reference write. Optionally a
+ * {@link WatchService} on the config folder triggers a reload after files stop changing.
+ */
+public class EntityRewardRegistry {
+
+    /** Plugin used to resolve the data folder and schedule reloads. */
+    private final Plugin plugin;
+
+    /** Config folder path relative to the plugin's data folder. */
+    private final String folderPath;
+
+    /** Logger for diagnostics. */
+    private final MCEngineExtensionLogger logger;
+
+    /** Per-world settings compiled into every gate. */
+    private final EntityRewardGate.Worlds worlds;
+
+    /** Currently published reward table and its gate. */
+    private volatile EntityRewardGate gate;
+
+    /** Invoked on the main thread after every reload; may be {@code null}. */
+    private volatile Consumer<EntityRewardGate> onPublish;
+
+    /** Prevents overlapping reloads. */
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    /** Active file watcher, or {@code null} when watching is disabled. */
+    private volatile WatchService watchService;
+
+    /**
+     * Creates the registry and loads the initial table synchronously.
+     *
+     * @param plugin     plugin instance
+     * @param folderPath config folder path relative to the plugin's data folder
+     * @param logger     extension logger
+     */
+    public EntityRewardRegistry(Plugin plugin, String folderPath, MCEngineExtensionLogger logger) {
+        this(plugin, folderPath, logger, EntityRewardGate.Worlds.ALL);
+    }
+
+    /**
+     * Creates the registry and loads the initial table synchronously.
+     *
+     * @param plugin     plugin instance
+     * @param folderPath config folder path relative to the plugin's data folder
+     * @param logger     extension logger
+     * @param worlds     per-world settings compiled into every gate
+     */
+    public EntityRewardRegistry(Plugin plugin, String folderPath, MCEngineExtensionLogger logger,
+                                EntityRewardGate.Worlds worlds) {
+        this.plugin = plugin;
+        this.folderPath = folderPath;
+        this.logger = logger;
+        this.worlds = worlds;
+        this.gate = EntityRewardGate.compile(EntityUtil.loadAllMobConfigs(plugin, folderPath, logger), worlds);
+    }
+
+    /**
+     * @return the currently published reward table
+     */
+    public EntityRewardTable get() {
+        return gate.table();
+    }
+
+    /**
+     * @return the currently published gate
+     */
+    public EntityRewardGate gate() {
+        return gate;
+    }
+
+    /**
+     * Sets the callback run on the main thread after every reload, whichever way it was triggered.
+     *
+     * @param onPublish receives the new gate; {@code null} to clear
+     */
+    public void onPublish(Consumer<EntityRewardGate> onPublish) {
+        this.onPublish = onPublish;
+    }
+
+    /**
+     * Reloads every reward config on an async thread and publishes the result.
+     *
+     * @param onComplete invoked on the main thread with the new table once published; may be {@code null}
+     * @return {@code false} if a reload is already in progress
+     */
+    public boolean reload(Consumer<EntityRewardTable> onComplete) {
+        if (!reloading.compareAndSet(false, true)) return false;
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            EntityRewardGate fresh;
+            try {
+                fresh = EntityRewardGate.compile(EntityUtil.loadAllMobConfigs(plugin, folderPath, logger), worlds);
+                gate = fresh;
+                logger.info("Reloaded " + fresh.table().size() + " entity reward configs.");
+            } catch (Exception e) {
+                logger.warning("Failed to reload entity reward configs; keeping previous table: " + e.getMessage());
+                return;
+            } finally {
+                reloading.set(false);
+            }
+
+            Consumer<EntityRewardGate> published = onPublish;
+            if (onComplete != null || published != null) {
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (published != null) published.accept(fresh);
+                    if (onComplete != null) onComplete.accept(fresh.table());
+                });
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Starts watching the reward config tree and reloads once no change has been seen for
+     * {@code debounceMs}.
+     *
+     * @param debounceMs quiet period before a reload is triggered
+     */
+    public void startWatching(long debounceMs) {
+        Path root = new File(plugin.getDataFolder(), folderPath + "/default").toPath();
+        if (!Files.isDirectory(root)) {
+            logger.warning("Config watcher disabled; directory not found: " + root);
+            return;
+        }
+
+        try {
+            WatchService service = FileSystems.getDefault().newWatchService();
+            registerTree(service, root);
+            watchService = service;
+        } catch (IOException e) {
+            logger.warning("Failed to start config watcher: " + e.getMessage());
+            return;
+        }
+
+        Thread watcher = new Thread(() -> watchLoop(Math.max(50L, debounceMs)), "MCEngineEntity-ConfigWatcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Stops the config watcher, if running.
+     */
+    public void shutdown() {
+        WatchService service = watchService;
+        watchService = null;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException ignored) {
+                // Closing only wakes the watcher thread; nothing to recover.
+            }
+        }
+    }
+
+    /**
+     * Watcher body: collects events until the folder is quiet for {@code debounceMs}, then reloads.
+     *
+     * @param debounceMs quiet period in milliseconds
+     */
+    private void watchLoop(long debounceMs) {
+        WatchService service;
+        while ((service = watchService) != null) {
+            try {
+                WatchKey key = service.take();
+                boolean changed = drain(service, key);
+
+                // Debounce editors that write files in several steps.
+                WatchKey next;
+                while ((next = service.poll(debounceMs, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(service, next);
+                }
+
+                if (changed && !reload(null)) {
+                    logger.info("Config change detected while a reload is running; skipped.");
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Consumes a key's events, registering newly created directories.
+     *
+     * @param service watch service
+     * @param key     signalled key
+     * @return {@code true} if any event concerned a YAML file or directory
+     */
+    private boolean drain(WatchService service, WatchKey key) {
+        boolean relevant = false;
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+                continue;
+            }
+            Path child = dir.resolve((Path) event.context());
+            if (Files.isDirectory(child)) {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    try {
+                        registerTree(service, child);
+                    } catch (IOException e) {
+                        logger.warning("Failed to watch new directory " + child + ": " + e.getMessage());
+                    }
+                }
+                relevant = true;
+            } else if (child.getFileName().toString().toLowerCase().endsWith(".yml")) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    /**
+     * Registers a directory and all of its subdirectories with the watch service.
+     *
+     * @param service watch service
+     * @param root    directory tree to watch
+     * @throws IOException if the tree cannot be walked
+     */
+    private static void registerTree(WatchService service, Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                dir.register(service,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
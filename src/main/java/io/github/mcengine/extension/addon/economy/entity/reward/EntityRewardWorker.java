@@ -0,0 +1,238 @@
+package io.github.mcengine.extension.addon.economy.entity.reward;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import io.github.mcengine.extension.addon.economy.entity.metrics.EntityMetrics;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated executor for reward processing.
+ * <p>
+ * Keeps the blocking economy and database calls of the reward path off both the main thread
+ * and Bukkit's shared async pool. On Java 21 and newer each task runs on a virtual thread;
+ * on older runtimes a bounded pool of platform threads is used instead.
+ * <p>
+ * Tasks are queued per player in lanes. A lane runs its tasks one at a time in submission
+ * order, so a player's credits are applied in sequence, while different players proceed in
+ * parallel. When more than {@code queueCapacity} tasks are waiting, new tasks still join their
+ * player's lane, so ordering holds and no load moves to Bukkit's shared pool; they are counted as
+ * overflows so a worker that cannot keep up shows in the metrics. Nothing is dropped.
+ */
+public class EntityRewardWorker {
+
+    /** Tasks a lane runs before yielding its thread to other lanes (platform pool fairness). */
+    private static final int MAX_TASKS_PER_TURN = 32;
+
+    /** Logger for diagnostics. */
+    private final MCEngineExtensionLogger logger;
+
+    /** Underlying executor: virtual thread per task, or a platform pool. */
+    private final ExecutorService executor;
+
+    /** Whether {@link #executor} runs virtual threads. */
+    private final boolean virtual;
+
+    /** Hot-path metrics. */
+    private final EntityMetrics metrics;
+
+    /** Most tasks waiting before new ones are counted as overflows. */
+    private final int queueCapacity;
+
+    /** Lanes with queued or running tasks, by player. */
+    private final Map<UUID, Lane> lanes = new ConcurrentHashMap<>();
+
+    /** Tasks submitted but not yet started. */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /** Set once {@link #shutdown(long)} begins. */
+    private volatile boolean closed;
+
+    /**
+     * Creates the worker.
+     *
+     * @param logger         extension logger
+     * @param threads        platform threads, used only when virtual threads are unavailable or disabled
+     * @param queueCapacity  waiting tasks above which new tasks are counted as overflows
+     * @param virtualThreads whether to use virtual threads when the runtime supports them
+     * @param metrics        hot-path metrics
+     */
+    public EntityRewardWorker(MCEngineExtensionLogger logger, int threads, int queueCapacity,
+                              boolean virtualThreads, EntityMetrics metrics) {
+        this.logger = logger;
+        this.metrics = metrics;
+        this.queueCapacity = Math.max(1, queueCapacity);
+
+        ExecutorService virtualExecutor = virtualThreads ? newVirtualThreadExecutor() : null;
+        this.virtual = virtualExecutor != null;
+        if (virtualExecutor != null) {
+            this.executor = virtualExecutor;
+        } else {
+            int poolSize = Math.max(1, threads);
+            AtomicInteger counter = new AtomicInteger();
+            // Unbounded: it only ever holds lanes, at most one per player with waiting tasks.
+            this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(),
+                    r -> {
+                        Thread t = new Thread(r, "MCEngineEntity-Reward-" + counter.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+        }
+        if (logger != null) {
+            logger.info("[Reward] Worker using " + (virtual ? "virtual threads" : Math.max(1, threads) + " platform threads") + ".");
+        }
+    }
+
+    /**
+     * Submits a reward task to a player's lane. Tasks with the same key run one at a time, in
+     * submission order.
+     *
+     * @param key  player whose tasks must not overlap, typically the killer
+     * @param task task to run off the main thread
+     */
+    public void submit(UUID key, Runnable task) {
+        if (closed) {
+            // Late kill during disable: run inline so the reward is not lost.
+            task.run();
+            return;
+        }
+        // Over capacity the task still waits in its lane: spilling elsewhere would break per-player order
+        if (queued.incrementAndGet() > queueCapacity) metrics.increment(EntityMetrics.Counter.WORKER_OVERFLOWS);
+        Lane[] start = new Lane[1];
+        lanes.compute(key, (k, lane) -> {
+            if (lane == null) lane = new Lane(k);
+            lane.tasks.add(task);
+            if (!lane.scheduled) {
+                lane.scheduled = true;
+                start[0] = lane;
+            }
+            return lane;
+        });
+        if (start[0] != null) dispatch(start[0]);
+    }
+
+    /**
+     * @return number of reward tasks waiting to start
+     */
+    public int queueSize() {
+        return queued.get();
+    }
+
+    /**
+     * Stops accepting tasks and waits for every lane to drain.
+     *
+     * @param timeoutMillis maximum time to wait
+     */
+    public void shutdown(long timeoutMillis) {
+        closed = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS) && logger != null) {
+                logger.warning("[Reward] Worker did not drain within " + timeoutMillis + "ms; "
+                        + queued.get() + " rewards abandoned.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs a lane on the executor, or inline once the executor no longer accepts work.
+     *
+     * @param lane lane to run
+     */
+    private void dispatch(Lane lane) {
+        try {
+            executor.execute(lane);
+        } catch (RejectedExecutionException e) {
+            lane.run();
+        }
+    }
+
+    /**
+     * Creates a virtual-thread-per-task executor through reflection, so the add-on still loads
+     * on runtimes older than Java 21.
+     *
+     * @return the executor, or {@code null} if virtual threads are unavailable
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "MCEngineEntity-Reward-", 1L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Serial task queue of one player. {@link #tasks} and {@link #scheduled} are only accessed
+     * inside {@code lanes.compute} for the lane's key, which serializes them.
+     */
+    private final class Lane implements Runnable {
+
+        /** Player this lane belongs to. */
+        private final UUID key;
+
+        /** Tasks waiting to run. */
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        /** Whether the lane is queued on or running in the executor. */
+        private boolean scheduled;
+
+        /**
+         * @param key player this lane belongs to
+         */
+        Lane(UUID key) {
+            this.key = key;
+        }
+
+        /**
+         * Runs waiting tasks in order, then yields or retires the lane.
+         */
+        @Override
+        public void run() {
+            for (int i = 0; i < MAX_TASKS_PER_TURN; i++) {
+                Runnable task = next();
+                if (task == null) return;
+                queued.decrementAndGet();
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    if (logger != null) logger.warning("[Reward] Reward task failed for " + key + ": " + t);
+                }
+            }
+            dispatch(this);
+        }
+
+        /**
+         * Takes the next task, removing the lane from the map when it is empty.
+         *
+         * @return the next task, or {@code null} if the lane is retired
+         */
+        private Runnable next() {
+            Runnable[] next = new Runnable[1];
+            lanes.compute(key, (k, lane) -> {
+                next[0] = tasks.poll();
+                if (next[0] != null) return lane;
+                scheduled = false;
+                return null;
+            });
+            return next[0];
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package io.github.mcengine.extension.addon.economy.entity.stats;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityDB;
+import io.github.mcengine.extension.addon.economy.entity.database.EntityKillLogEntry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory earnings aggregates: per-player totals per coin type and kills per entity type, and
+ * a leaderboard per coin type.
+ * <p>
+ * Aggregates are seeded once from the database at startup and then updated with every paid
+ * reward share, so statistics and placeholders never query the kill log. Each leaderboard is a
+ * skip list ordered by amount, so an update costs O(log n) and reading the top {@code k} costs
+ * O(log n + k).
+ * <p>
+ * Seeding reads only kill log rows created before this object was constructed, and is started
+ * only once rows journaled by the previous run have reached the database. Every share recorded
+ * live was paid by this run, after construction, so a share is never counted by both and none is
+ * missed.
+ */
+public class EntityEarnings {
+
+    /**
+     * One leaderboard position.
+     *
+     * @param playerId player
+     * @param amount   total earned in the leaderboard's coin type
+     */
+    public record Entry(UUID playerId, long amount) {}
+
+    /** Highest amount first; ties by UUID so every player has a distinct position. */
+    private static final Comparator<Entry> RANKING =
+            Comparator.comparingLong(Entry::amount).reversed().thenComparing(Entry::playerId);
+
+    /**
+     * Totals of one player. Guarded by its own monitor.
+     */
+    private static final class PlayerTotals {
+
+        /** Amount earned by coin type. */
+        private final Map<String, Long> earned = new HashMap<>(4);
+
+        /** Rewarded kills by entity type name. */
+        private final Map<String, Long> kills = new HashMap<>(8);
+
+        /** Rewarded kills of all types. */
+        private long totalKills;
+    }
+
+    /** Logger for diagnostics. */
+    private final MCEngineExtensionLogger logger;
+
+    /** Totals by player. */
+    private final Map<UUID, PlayerTotals> players = new ConcurrentHashMap<>();
+
+    /** Leaderboard by coin type. */
+    private final Map<String, NavigableSet<Entry>> boards = new ConcurrentHashMap<>();
+
+    /** Epoch millis (whole seconds) splitting seeded rows from live shares. */
+    private final long liveFromMillis;
+
+    /** Seed thread, or {@code null} before {@link #seed(EntityDB)}. */
+    private Thread seeder;
+
+    /** Set once the seed completed. */
+    private volatile boolean loaded;
+
+    /** Set by {@link #shutdown()}; a seed requested afterwards is ignored. */
+    private boolean closed;
+
+    /**
+     * Creates empty aggregates. Shares created from now on are recorded live.
+     *
+     * @param logger extension logger
+     */
+    public EntityEarnings(MCEngineExtensionLogger logger) {
+        this.logger = logger;
+        // The kill log stores whole seconds; cut on a second boundary so no row is on both sides.
+        this.liveFromMillis = System.currentTimeMillis() / 1000L * 1000L;
+    }
+
+    /**
+     * Starts loading historical totals from the database in the background. Call once the kill
+     * log holds every share paid before construction.
+     *
+     * @param entityDB kill log database
+     */
+    public synchronized void seed(EntityDB entityDB) {
+        if (seeder != null || closed) return;
+        seeder = new Thread(() -> {
+            long start = System.nanoTime();
+            if (entityDB.loadEarnings(liveFromMillis, this::add)) {
+                loaded = true;
+                if (logger != null) logger.info("[Earnings] Loaded totals of " + players.size() + " players in "
+                        + (System.nanoTime() - start) / 1_000_000L + "ms.");
+            }
+        }, "MCEngineEntity-EarningsSeed");
+        seeder.setDaemon(true);
+        seeder.start();
+    }
+
+    /**
+     * Records a reward share paid by this run.
+     *
+     * @param receipt kill log row of the share
+     */
+    public void record(EntityKillLogEntry receipt) {
+        UUID playerId;
+        try {
+            playerId = UUID.fromString(receipt.playerUuid());
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        add(playerId, receipt.entityType(), receipt.coinType(), 1L, receipt.amount());
+    }
+
+    /**
+     * @param playerId player
+     * @param coinType coin type
+     * @return total the player earned in {@code coinType}
+     */
+    public long earned(UUID playerId, String coinType) {
+        PlayerTotals totals = players.get(playerId);
+        if (totals == null) return 0L;
+        synchronized (totals) {
+            return totals.earned.getOrDefault(coinType, 0L);
+        }
+    }
+
+    /**
+     * @param playerId player
+     * @return rewarded kills of all entity types
+     */
+    public long kills(UUID playerId) {
+        PlayerTotals totals = players.get(playerId);
+        if (totals == null) return 0L;
+        synchronized (totals) {
+            return totals.totalKills;
+        }
+    }
+
+    /**
+     * @param playerId   player
+     * @param entityType entity type name
+     * @return rewarded kills of {@code entityType}
+     */
+    public long kills(UUID playerId, String entityType) {
+        PlayerTotals totals = players.get(playerId);
+        if (totals == null) return 0L;
+        synchronized (totals) {
+            return totals.kills.getOrDefault(entityType, 0L);
+        }
+    }
+
+    /**
+     * Returns the highest earners of a coin type.
+     *
+     * @param coinType coin type
+     * @param limit    most entries to return
+     * @return up to {@code limit} entries, highest amount first
+     */
+    public List<Entry> top(String coinType, int limit) {
+        NavigableSet<Entry> board = boards.get(coinType);
+        if (board == null || limit <= 0) return List.of();
+        List<Entry> top = new ArrayList<>(Math.min(limit, 16));
+        for (Entry entry : board) {
+            top.add(entry);
+            if (top.size() >= limit) break;
+        }
+        return top;
+    }
+
+    /**
+     * @return whether historical totals finished loading
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Stops a seed still in progress.
+     */
+    public synchronized void shutdown() {
+        closed = true;
+        if (seeder != null) seeder.interrupt();
+    }
+
+    /**
+     * Adds kills and an amount to a player's totals and moves them on the leaderboard.
+     *
+     * @param playerId   player
+     * @param entityType entity type name
+     * @param coinType   coin type
+     * @param kills      rewarded kills
+     * @param amount     amount earned
+     */
+    private void add(UUID playerId, String entityType, String coinType, long kills, long amount) {
+        if (coinType == null || coinType.isEmpty()) return;
+        PlayerTotals totals = players.computeIfAbsent(playerId, k -> new PlayerTotals());
+        NavigableSet<Entry> board = boards.computeIfAbsent(coinType, k -> new ConcurrentSkipListSet<>(RANKING));
+        synchronized (totals) {
+            long before = totals.earned.getOrDefault(coinType, 0L);
+            long after = before + amount;
+            totals.earned.put(coinType, after);
+            totals.kills.merge(entityType, kills, Long::sum);
+            totals.totalKills += kills;
+            // Under the player's lock, so concurrent updates of one player move their entry in order
+            board.remove(new Entry(playerId, before));
+            board.add(new Entry(playerId, after));
+        }
+    }
+}
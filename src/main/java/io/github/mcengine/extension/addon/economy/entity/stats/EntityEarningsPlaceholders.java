@@ -0,0 +1,116 @@
+package io.github.mcengine.extension.addon.economy.entity.stats;
+
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.plugin.Plugin;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * PlaceholderAPI expansion serving {@link EntityEarnings} from memory:
+ * <ul>
+ *   <li>{@code %mcengineentity_earned_<coin>%}: the player's total in a coin type</li>
+ *   <li>{@code %mcengineentity_kills%} / {@code %mcengineentity_kills_<entity>%}: rewarded kills</li>
+ *   <li>{@code %mcengineentity_top_<coin>_<rank>_name%} / {@code ..._amount%}: leaderboard positions</li>
+ * </ul>
+ * Only loaded when PlaceholderAPI is installed.
+ */
+public final class EntityEarningsPlaceholders extends PlaceholderExpansion {
+
+    /** Highest rank served by the {@code top} placeholders. */
+    private static final int MAX_RANK = 100;
+
+    /** Host plugin, for the expansion version. */
+    private final Plugin plugin;
+
+    /** Aggregates served. */
+    private final EntityEarnings earnings;
+
+    /**
+     * @param plugin   host plugin
+     * @param earnings aggregates to serve
+     */
+    private EntityEarningsPlaceholders(Plugin plugin, EntityEarnings earnings) {
+        this.plugin = plugin;
+        this.earnings = earnings;
+    }
+
+    /**
+     * Registers the expansion. Callers must check that PlaceholderAPI is installed first, so that
+     * this class is never loaded without it.
+     *
+     * @param plugin   host plugin
+     * @param earnings aggregates to serve
+     * @return unregisters the expansion, or {@code null} if registration failed
+     */
+    public static Runnable register(Plugin plugin, EntityEarnings earnings) {
+        EntityEarningsPlaceholders expansion = new EntityEarningsPlaceholders(plugin, earnings);
+        return expansion.register() ? expansion::unregister : null;
+    }
+
+    @Override
+    public String getIdentifier() {
+        return "mcengineentity";
+    }
+
+    @Override
+    public String getAuthor() {
+        return "MCEngine";
+    }
+
+    @Override
+    public String getVersion() {
+        return plugin.getDescription().getVersion();
+    }
+
+    @Override
+    public boolean persist() {
+        return true;
+    }
+
+    @Override
+    public String onRequest(OfflinePlayer player, String params) {
+        if (params.startsWith("top_")) return top(params.substring(4));
+        if (player == null) return "";
+        if (params.equals("kills")) return Long.toString(earnings.kills(player.getUniqueId()));
+        if (params.startsWith("kills_")) {
+            return Long.toString(earnings.kills(player.getUniqueId(), params.substring(6).toUpperCase(Locale.ROOT)));
+        }
+        if (params.startsWith("earned_")) return Long.toString(earnings.earned(player.getUniqueId(), params.substring(7)));
+        return null;
+    }
+
+    /**
+     * Resolves {@code <coin>_<rank>_<name|amount>}. The coin type may itself contain underscores.
+     *
+     * @param params placeholder without the {@code top_} prefix
+     * @return the value, an empty string for an unfilled rank, or {@code null} if malformed
+     */
+    private String top(String params) {
+        int fieldSep = params.lastIndexOf('_');
+        int rankSep = fieldSep > 0 ? params.lastIndexOf('_', fieldSep - 1) : -1;
+        if (rankSep <= 0) return null;
+
+        int rank;
+        try {
+            rank = Integer.parseInt(params.substring(rankSep + 1, fieldSep));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (rank < 1 || rank > MAX_RANK) return null;
+
+        List<EntityEarnings.Entry> top = earnings.top(params.substring(0, rankSep), rank);
+        if (top.size() < rank) return "";
+        EntityEarnings.Entry entry = top.get(rank - 1);
+        return switch (params.substring(fieldSep + 1)) {
+            case "name" -> {
+                String name = Bukkit.getOfflinePlayer(entry.playerId()).getName();
+                yield name == null ? entry.playerId().toString() : name;
+            }
+            case "amount" -> Long.toString(entry.amount());
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.mcengine.extension.addon.economy.entity.util;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandMap;
+
+import java.util.Map;
+
+/**
+ * Utility for registering AddOn commands directly with the server's {@link CommandMap}, since
+ * AddOns have no {@code plugin.yml} of their own.
+ */
+public class EntityCommandUtil {
+
+    /** Fallback prefix used for namespaced command labels. */
+    private static final String FALLBACK_PREFIX = "mcengineentity";
+
+    /**
+     * Registers a command with the server's command map.
+     *
+     * @param command command to register
+     * @param logger  logger for reporting failures
+     * @return {@code true} if the command was registered
+     */
+    public static boolean register(Command command, MCEngineExtensionLogger logger) {
+        CommandMap commandMap = getCommandMap(logger);
+        if (commandMap == null) return false;
+        commandMap.register(FALLBACK_PREFIX, command);
+        return true;
+    }
+
+    /**
+     * Removes a command and its aliases from the server's command map.
+     *
+     * @param command command to remove
+     * @param logger  logger for reporting failures
+     */
+    public static void unregister(Command command, MCEngineExtensionLogger logger) {
+        CommandMap commandMap = getCommandMap(logger);
+        if (commandMap == null) return;
+
+        command.unregister(commandMap);
+        try {
+            Object known = commandMap.getClass().getMethod("getKnownCommands").invoke(commandMap);
+            if (known instanceof Map<?, ?> map) {
+                map.values().removeIf(c -> c == command);
+            }
+        } catch (ReflectiveOperationException e) {
+            logger.warning("Failed to remove command '" + command.getName() + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Resolves the server's command map reflectively ({@code getCommandMap} is not part of the Bukkit API).
+     *
+     * @param logger logger for reporting failures
+     * @return the command map, or {@code null} if unavailable
+     */
+    private static CommandMap getCommandMap(MCEngineExtensionLogger logger) {
+        try {
+            Object server = Bukkit.getServer();
+            return (CommandMap) server.getClass().getMethod("getCommandMap").invoke(server);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            logger.warning("Command map unavailable; commands disabled: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -6,12 +6,20 @@ import org.bukkit.plugin.Plugin;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Utility class for creating the main configuration file for the Entity AddOn.
  */
 public class EntityConfigUtil {
 
+    /** Default message for a single rewarded kill within a notification interval. */
+    public static final String DEFAULT_SINGLE_MESSAGE = "&aYou earned &e{amount} {coin}&a for defeating a &6{entity}&a.";
+
+    /** Default message summarising several rewarded kills within a notification interval. */
+    public static final String DEFAULT_SUMMARY_MESSAGE = "&a+&e{amount} {coin}&a from &6{kills}&a kills.";
+
     /**
      * Creates the default config.yml for the Entity AddOn if it does not exist.
      *
@@ -35,6 +43,92 @@ public class EntityConfigUtil {
 
         config.set("license", "free");
 
+        // Write-behind kill log pipeline (rows are journaled on disk, then shipped in batches)
+        config.set("killLog.batchSize", 200);
+        config.set("killLog.flushIntervalMs", 1000);
+        config.set("killLog.journalSegmentBytes", 16 * 1024 * 1024);
+
+        // Raw kill log retention: older rows are folded into hourly/daily rollups, then deleted
+        config.set("retention.enabled", true);
+        config.set("retention.rawMaxAgeDays", 30);
+        config.set("retention.intervalMinutes", 60);
+        config.set("retention.chunkSize", 5000);
+
+        // Dedicated reward executor
+        config.set("rewardWorker.threads", 2);
+        config.set("rewardWorker.queueCapacity", 10000);
+        config.set("rewardWorker.virtualThreads", true); // Java 21+; falls back to 'threads' platform threads
+        config.set("rewardWorker.maxConcurrentDbCalls", 4);
+
+        // Per-player credit coalescing (windowMs <= 0 credits every kill immediately)
+        config.set("rewardAggregation.windowMs", 250);
+        config.set("rewardAggregation.maxPendingKills", 500);
+
+        // Reward notifications (mode: CHAT or ACTION_BAR)
+        config.set("messages.mode", "CHAT");
+        config.set("messages.intervalTicks", 20);
+        config.set("messages.single", DEFAULT_SINGLE_MESSAGE);
+        config.set("messages.summary", DEFAULT_SUMMARY_MESSAGE);
+
+        // Reload reward configs automatically when files under default/ change
+        config.set("reload.watchConfigs", false);
+        config.set("reload.watchDebounceMs", 500);
+
+        // Party member index refresh interval
+        config.set("party.indexTtlMs", 5000);
+        // Offline party members keep receiving shares until unseen for this long
+        config.set("party.rosterMaxAgeHours", 6);
+        config.setComments("party.rosterMaxAgeHours", List.of(
+                "Offline party members keep receiving an even share until unseen for this many hours.",
+                "Membership is only learned from online players: someone who leaves or is kicked while",
+                "offline is only dropped once every online member of that party is seen elsewhere, or",
+                "when this expires. Keep it short, since they are paid real currency until then."));
+
+        // In-memory earnings totals and leaderboards (query API and PlaceholderAPI placeholders)
+        config.set("earnings.enabled", true);
+        config.set("earnings.placeholders", true);
+
+        // Anti-farm diminishing returns: rewards scale by softLimit/kills above softLimit kills
+        // per window and stop at hardLimit (0 disables a limit)
+        config.set("antiFarm.enabled", true);
+        config.set("antiFarm.player.windowSeconds", 60);
+        config.set("antiFarm.player.softLimit", 120);
+        config.set("antiFarm.player.hardLimit", 600);
+        config.set("antiFarm.chunk.windowSeconds", 300);
+        config.set("antiFarm.chunk.softLimit", 200);
+        config.set("antiFarm.chunk.hardLimit", 1000);
+        config.set("antiFarm.maxTrackedPlayers", 10000);
+        config.set("antiFarm.maxTrackedChunks", 20000);
+
+        // Worlds where kills are rewarded: empty enabled list = every world; disabledTypes.<world> lists
+        // entity types never rewarded in that world
+        config.set("worlds.enabled", List.of());
+        config.set("worlds.disabled", List.of());
+        config.set("worlds.disabledTypes", Map.of());
+
+        // Console verbosity: OFF, WARNING, INFO or DEBUG (one line per rewarded kill)
+        config.set("logging.level", "INFO");
+
+        // Structured audit trail: one JSON line per credited share or suppressed kill, written off-thread
+        config.set("logging.audit.enabled", false);
+        config.set("logging.audit.bufferSize", 8192);
+        config.set("logging.audit.flushIntervalMs", 1000);
+        config.set("logging.audit.retainDays", 14);
+
+        // Network mode: several servers share one economy database; each ships coalesced rewards to a
+        // staging table and the node holding the merge lease pays them and writes the kill log
+        config.set("network.enabled", false);
+        config.set("network.nodeId", "");
+        config.set("network.leaseSeconds", 15);
+        config.set("network.mergeIntervalMs", 1000);
+
+        // Prometheus export: a text file rewritten periodically and/or a loopback HTTP endpoint
+        config.set("metrics.prometheusFile.enabled", false);
+        config.set("metrics.prometheusFile.intervalSeconds", 15);
+        config.set("metrics.http.enabled", false);
+        config.set("metrics.http.host", "127.0.0.1");
+        config.set("metrics.http.port", 9464);
+
         try {
             config.save(configFile);
             logger.info("Created default Entity config: " + configFile.getAbsolutePath());
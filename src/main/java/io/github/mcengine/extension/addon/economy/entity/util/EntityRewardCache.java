@@ -0,0 +1,119 @@
+package io.github.mcengine.extension.addon.economy.entity.util;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * On-disk index of content hash to compiled {@link EntityRewardDefinition}, so reward files that
+ * did not change since the last load are not parsed again.
+ * <p>
+ * Invalid files are cached too, with their error message, so their warnings are still reported
+ * without re-parsing. The cache is keyed by content only; renaming or moving a file keeps its entry.
+ */
+public class EntityRewardCache {
+
+    /** File signature ("MCER"). */
+    private static final int MAGIC = 0x4D434552;
+
+    /** Format version; bump whenever {@link EntityRewardDefinition}'s binary form changes. */
+    private static final int VERSION = 3;
+
+    /**
+     * Cached outcome of compiling one file.
+     *
+     * @param definition compiled definition, or {@code null} if the file was invalid
+     * @param error      validation error, or {@code null} if the file was valid
+     */
+    public record Entry(EntityRewardDefinition definition, String error) {}
+
+    /**
+     * Loads the cache. A missing, outdated or corrupt cache yields an empty map.
+     *
+     * @param file   cache file
+     * @param logger logger for reporting corrupt caches
+     * @return mutable map of content hash to entry
+     */
+    public static Map<String, Entry> load(Path file, MCEngineExtensionLogger logger) {
+        Map<String, Entry> entries = new HashMap<>();
+        if (!Files.isRegularFile(file)) return entries;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return entries;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String hash = in.readUTF();
+                Entry entry = in.readBoolean()
+                        ? new Entry(EntityRewardDefinition.read(in), null)
+                        : new Entry(null, in.readUTF());
+                entries.put(hash, entry);
+            }
+        } catch (IOException e) {
+            logger.warning("Ignoring unreadable reward cache " + file + ": " + e.getMessage());
+            entries.clear();
+        }
+        return entries;
+    }
+
+    /**
+     * Atomically replaces the cache file with the given entries.
+     *
+     * @param file    cache file
+     * @param entries content hash to entry
+     * @param logger  logger for reporting write failures
+     */
+    public static void save(Path file, Map<String, Entry> entries, MCEngineExtensionLogger logger) {
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    Entry entry = e.getValue();
+                    out.writeBoolean(entry.definition() != null);
+                    if (entry.definition() != null) {
+                        entry.definition().write(out);
+                    } else {
+                        out.writeUTF(entry.error());
+                    }
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warning("Failed to write reward cache " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Computes the hex SHA-256 of a file's content.
+     *
+     * @param content raw file bytes
+     * @return lowercase hex digest
+     */
+    public static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
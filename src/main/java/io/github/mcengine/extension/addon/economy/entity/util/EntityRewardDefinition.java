@@ -0,0 +1,102 @@
+package io.github.mcengine.extension.addon.economy.entity.util;
+
+import io.github.mcengine.extension.addon.economy.entity.util.EntityUtil.RewardConfig;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.EntityType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Validated contents of one reward config file, independent of any {@link EntityRewardTable}.
+ * <p>
+ * This is the unit stored in the {@link EntityRewardCache}, so it can be rebuilt from its binary
+ * form without parsing YAML again.
+ *
+ * @param entityType   rewarded entity type
+ * @param coinType     coin type to reward
+ * @param distribution precompiled reward amount distribution
+ * @param rules        contextual reward rules, in file order
+ */
+public record EntityRewardDefinition(EntityType entityType, String coinType, EntityRewardDistribution distribution,
+                                     List<EntityRewardRule> rules) {
+
+    /**
+     * Parses and validates a reward config.
+     *
+     * @param config loaded YAML file
+     * @return the validated definition
+     * @throws IllegalArgumentException with a user-facing message if the file is invalid
+     */
+    public static EntityRewardDefinition parse(ConfigurationSection config) {
+        String entityStr = config.getString("entity", "").toUpperCase(Locale.ROOT);
+        String coinType = config.getString("coinType", "coin");
+
+        EntityType type;
+        try {
+            type = EntityType.valueOf(entityStr);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid entity type: " + entityStr);
+        }
+
+        List<Map<?, ?>> rawRules = config.getMapList("rules");
+        List<EntityRewardRule> rules = new ArrayList<>(rawRules.size());
+        for (int i = 0; i < rawRules.size(); i++) {
+            rules.add(EntityRewardRule.parse(rawRules.get(i), i));
+        }
+        return new EntityRewardDefinition(type, coinType, EntityRewardDistribution.parse(config), List.copyOf(rules));
+    }
+
+    /**
+     * Compiles this definition against a table under construction.
+     *
+     * @param table builder that interns the coin type
+     * @return the runtime reward
+     */
+    public RewardConfig compile(EntityRewardTable.Builder table) {
+        return new RewardConfig(coinType, table.internCoinType(coinType), distribution);
+    }
+
+    /**
+     * Writes this definition in the cache's binary format.
+     *
+     * @param out destination
+     * @throws IOException on write failure
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeUTF(entityType.name());
+        out.writeUTF(coinType);
+        distribution.write(out);
+        out.writeInt(rules.size());
+        for (EntityRewardRule rule : rules) rule.write(out);
+    }
+
+    /**
+     * Reads a definition written by {@link #write(DataOutput)}.
+     *
+     * @param in source
+     * @return the definition
+     * @throws IOException on read failure or if the entity type no longer exists
+     */
+    public static EntityRewardDefinition read(DataInput in) throws IOException {
+        String entityName = in.readUTF();
+        EntityType type;
+        try {
+            type = EntityType.valueOf(entityName);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown cached entity type: " + entityName);
+        }
+        String coinType = in.readUTF();
+        EntityRewardDistribution distribution = EntityRewardDistribution.read(in);
+        int ruleCount = in.readInt();
+        if (ruleCount < 0 || ruleCount > 4096) throw new IOException("Bad rule count: " + ruleCount);
+        List<EntityRewardRule> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) rules.add(EntityRewardRule.read(in));
+        return new EntityRewardDefinition(type, coinType, distribution, List.copyOf(rules));
+    }
+}
@@ -0,0 +1,380 @@
+package io.github.mcengine.extension.addon.economy.entity.util;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+/**
+ * Precompiled reward amount distribution.
+ * <p>
+ * Every distribution is reduced at load time to a small set of outcomes, each an amount range
+ * drawn uniformly, plus an optional jackpot. Outcomes are picked through a Walker/Vose alias
+ * table, so {@link #sample(RandomGenerator)} costs one or two random numbers, does not depend
+ * on the number of outcomes and does not allocate.
+ * <p>
+ * Supported reward file keys:
+ * <pre>
+ * amount: 10~500           # bounds; the only key needed for the default uniform distribution
+ * distribution: normal     # uniform (default), weighted, normal or geometric
+ * mean: 120                # normal: defaults to the middle of amount
+ * stddev: 30               # normal: defaults to a sixth of the amount range
+ * p: 0.25                  # geometric: chance to stop at each step up from the minimum
+ * weights:                 # weighted: amount or min~max mapped to a relative weight
+ *   "50": 70
+ *   "100~150": 25
+ * jackpot:                 # optional, for any distribution
+ *   chance: 0.001
+ *   amount: 5000~10000
+ * </pre>
+ * Normal and geometric distributions are truncated to {@code amount} and split into at most
+ * {@link #MAX_BUCKETS} equal-width buckets.
+ */
+public final class EntityRewardDistribution {
+
+    /** Upper bound on outcomes generated for normal and geometric distributions. */
+    private static final int MAX_BUCKETS = 1024;
+
+    /** Upper bound on explicit entries in a weighted table. */
+    private static final int MAX_WEIGHTS = 4096;
+
+    /** Lowest amount of each outcome. */
+    private final int[] lo;
+
+    /** Number of amounts in each outcome ({@code 1} for a single value). */
+    private final int[] span;
+
+    /** Relative weight of each outcome; kept for serialization. */
+    private final double[] weight;
+
+    /** Alias table: probability of keeping column {@code i}. */
+    private final double[] keep;
+
+    /** Alias table: outcome used when column {@code i} is not kept. */
+    private final int[] alias;
+
+    /** Chance that a roll is a jackpot, in {@code [0, 1]}. */
+    private final double jackpotChance;
+
+    /** Lowest jackpot amount. */
+    private final int jackpotMin;
+
+    /** Number of jackpot amounts. */
+    private final int jackpotSpan;
+
+    /**
+     * Builds the alias table for the given outcomes.
+     *
+     * @param lo            lowest amount of each outcome
+     * @param span          number of amounts in each outcome
+     * @param weight        relative weight of each outcome; at least one must be positive
+     * @param jackpotChance chance of a jackpot roll
+     * @param jackpotMin    lowest jackpot amount
+     * @param jackpotSpan   number of jackpot amounts
+     */
+    private EntityRewardDistribution(int[] lo, int[] span, double[] weight,
+                                     double jackpotChance, int jackpotMin, int jackpotSpan) {
+        this.lo = lo;
+        this.span = span;
+        this.weight = weight;
+        this.jackpotChance = jackpotChance;
+        this.jackpotMin = jackpotMin;
+        this.jackpotSpan = jackpotSpan;
+
+        int n = weight.length;
+        this.keep = new double[n];
+        this.alias = new int[n];
+        buildAlias(weight, keep, alias);
+    }
+
+    /**
+     * Creates a uniform {@code min~max} distribution without a jackpot.
+     *
+     * @param min lowest amount
+     * @param max highest amount
+     * @return the distribution
+     */
+    public static EntityRewardDistribution uniform(int min, int max) {
+        return new EntityRewardDistribution(new int[]{min}, new int[]{max - min + 1}, new double[]{1d}, 0d, 0, 1);
+    }
+
+    /**
+     * Draws one reward amount.
+     *
+     * @param random generator of the calling thread
+     * @return the amount
+     */
+    public int sample(RandomGenerator random) {
+        if (jackpotChance > 0d && random.nextDouble() < jackpotChance) {
+            return jackpotSpan == 1 ? jackpotMin : jackpotMin + random.nextInt(jackpotSpan);
+        }
+        int i = 0;
+        if (keep.length > 1) {
+            i = random.nextInt(keep.length);
+            if (random.nextDouble() >= keep[i]) i = alias[i];
+        }
+        return span[i] == 1 ? lo[i] : lo[i] + random.nextInt(span[i]);
+    }
+
+    /**
+     * Parses the distribution keys of a reward file.
+     *
+     * @param config loaded YAML file
+     * @return the compiled distribution
+     * @throws IllegalArgumentException with a user-facing message if the keys are invalid
+     */
+    public static EntityRewardDistribution parse(ConfigurationSection config) {
+        String kind = config.getString("distribution", "uniform").toLowerCase(Locale.ROOT);
+        int[] lo;
+        int[] span;
+        double[] weight;
+
+        switch (kind) {
+            case "uniform" -> {
+                int[] range = parseAmount("amount", config.getString("amount", "0"));
+                lo = new int[]{range[0]};
+                span = new int[]{range[1] - range[0] + 1};
+                weight = new double[]{1d};
+            }
+            case "weighted" -> {
+                ConfigurationSection table = config.getConfigurationSection("weights");
+                if (table == null || table.getKeys(false).isEmpty()) {
+                    throw new IllegalArgumentException("Weighted distribution needs a 'weights' section");
+                }
+                int n = table.getKeys(false).size();
+                if (n > MAX_WEIGHTS) {
+                    throw new IllegalArgumentException("Too many weights: " + n + " (max " + MAX_WEIGHTS + ")");
+                }
+                lo = new int[n];
+                span = new int[n];
+                weight = new double[n];
+                int i = 0;
+                for (String key : table.getKeys(false)) {
+                    int[] range = parseAmount("weights key", key);
+                    double w = table.getDouble(key, -1d);
+                    if (!(w >= 0d) || Double.isInfinite(w)) {
+                        throw new IllegalArgumentException("Invalid weight for '" + key + "' (expected a non-negative number)");
+                    }
+                    lo[i] = range[0];
+                    span[i] = range[1] - range[0] + 1;
+                    weight[i] = w;
+                    i++;
+                }
+            }
+            case "normal", "geometric" -> {
+                int[] range = parseAmount("amount", config.getString("amount", "0"));
+                int min = range[0];
+                int max = range[1];
+                long support = (long) max - min + 1;
+                int width = (int) ((support + MAX_BUCKETS - 1) / MAX_BUCKETS);
+                int n = (int) ((support + width - 1) / width);
+                lo = new int[n];
+                span = new int[n];
+                weight = new double[n];
+                for (int i = 0; i < n; i++) {
+                    lo[i] = min + i * width;
+                    span[i] = (int) Math.min(width, (long) max - lo[i] + 1);
+                }
+
+                if (kind.equals("normal")) {
+                    double mean = config.getDouble("mean", (min + (double) max) / 2d);
+                    double stddev = config.getDouble("stddev", Math.max(1d, (max - (double) min) / 6d));
+                    if (!(stddev > 0d) || Double.isInfinite(stddev) || Double.isNaN(mean)) {
+                        throw new IllegalArgumentException("Invalid normal distribution (stddev must be positive)");
+                    }
+                    for (int i = 0; i < n; i++) {
+                        double a = (lo[i] - 0.5d - mean) / stddev;
+                        double b = (lo[i] + span[i] - 0.5d - mean) / stddev;
+                        weight[i] = Math.max(0d, normalCdf(b) - normalCdf(a));
+                    }
+                } else {
+                    double p = config.getDouble("p", -1d);
+                    if (!(p > 0d && p <= 1d)) {
+                        throw new IllegalArgumentException("Invalid geometric distribution (p must be in (0, 1])");
+                    }
+                    double q = 1d - p;
+                    for (int i = 0; i < n; i++) {
+                        // P(min + k) = q^k * p; summed over the bucket's k values.
+                        weight[i] = Math.pow(q, (double) lo[i] - min) * (1d - Math.pow(q, span[i]));
+                    }
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown distribution: '" + kind
+                    + "' (expected uniform, weighted, normal or geometric)");
+        }
+
+        if (!hasPositive(weight)) {
+            throw new IllegalArgumentException("Distribution '" + kind + "' has no probability within its amounts");
+        }
+
+        double jackpotChance = 0d;
+        int jackpotMin = 0;
+        int jackpotSpan = 1;
+        ConfigurationSection jackpot = config.getConfigurationSection("jackpot");
+        if (jackpot != null) {
+            jackpotChance = jackpot.getDouble("chance", 0d);
+            if (!(jackpotChance >= 0d && jackpotChance <= 1d)) {
+                throw new IllegalArgumentException("Invalid jackpot chance (expected 0 to 1)");
+            }
+            int[] range = parseAmount("jackpot amount", jackpot.getString("amount", "0"));
+            jackpotMin = range[0];
+            jackpotSpan = range[1] - range[0] + 1;
+        }
+
+        return new EntityRewardDistribution(lo, span, weight, jackpotChance, jackpotMin, jackpotSpan);
+    }
+
+    /**
+     * Writes this distribution in the reward cache's binary format.
+     *
+     * @param out destination
+     * @throws IOException on write failure
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(weight.length);
+        for (int i = 0; i < weight.length; i++) {
+            out.writeInt(lo[i]);
+            out.writeInt(span[i]);
+            out.writeDouble(weight[i]);
+        }
+        out.writeDouble(jackpotChance);
+        out.writeInt(jackpotMin);
+        out.writeInt(jackpotSpan);
+    }
+
+    /**
+     * Reads a distribution written by {@link #write(DataOutput)} and rebuilds its alias table.
+     *
+     * @param in source
+     * @return the distribution
+     * @throws IOException on read failure or if the data is inconsistent
+     */
+    public static EntityRewardDistribution read(DataInput in) throws IOException {
+        int n = in.readInt();
+        if (n <= 0 || n > Math.max(MAX_BUCKETS, MAX_WEIGHTS)) throw new IOException("Bad outcome count: " + n);
+        int[] lo = new int[n];
+        int[] span = new int[n];
+        double[] weight = new double[n];
+        for (int i = 0; i < n; i++) {
+            lo[i] = in.readInt();
+            span[i] = in.readInt();
+            weight[i] = in.readDouble();
+            if (span[i] <= 0 || !(weight[i] >= 0d)) throw new IOException("Bad outcome " + i);
+        }
+        double jackpotChance = in.readDouble();
+        int jackpotMin = in.readInt();
+        int jackpotSpan = in.readInt();
+        if (!hasPositive(weight) || jackpotSpan <= 0) throw new IOException("Bad distribution");
+        return new EntityRewardDistribution(lo, span, weight, jackpotChance, jackpotMin, jackpotSpan);
+    }
+
+    /**
+     * Parses an amount of the form {@code "50"} or {@code "100~200"}.
+     *
+     * @param what  name of the key, for error messages
+     * @param value raw config value
+     * @return {@code {min, max}}
+     * @throws IllegalArgumentException if the value is malformed, negative or inverted
+     */
+    private static int[] parseAmount(String what, String value) {
+        try {
+            int min;
+            int max;
+            int sep = value.indexOf('~');
+            if (sep >= 0) {
+                min = Integer.parseInt(value.substring(0, sep).trim());
+                max = Integer.parseInt(value.substring(sep + 1).trim());
+            } else {
+                min = max = Integer.parseInt(value.trim());
+            }
+            // max - min + 1 must fit in an int for RandomGenerator#nextInt(bound).
+            if (min >= 0 && max >= min && max - min != Integer.MAX_VALUE) return new int[]{min, max};
+        } catch (NumberFormatException ignored) {
+            // Reported below.
+        }
+        throw new IllegalArgumentException("Invalid " + what + ": '" + value
+                + "' (expected a non-negative number or 'min~max')");
+    }
+
+    /**
+     * Fills an alias table using Vose's method.
+     *
+     * @param weight relative weights, at least one positive
+     * @param keep   receives the probability of keeping each column
+     * @param alias  receives the fallback outcome of each column
+     */
+    private static void buildAlias(double[] weight, double[] keep, int[] alias) {
+        int n = weight.length;
+        double total = 0d;
+        for (double w : weight) total += w;
+
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weight[i] * n / total;
+            if (scaled[i] < 1d) small[smallCount++] = i;
+            else large[largeCount++] = i;
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount];
+            int l = large[--largeCount];
+            keep[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1d;
+            if (scaled[l] < 1d) small[smallCount++] = l;
+            else large[largeCount++] = l;
+        }
+        // Leftovers are 1 up to rounding error.
+        while (largeCount > 0) {
+            int l = large[--largeCount];
+            keep[l] = 1d;
+            alias[l] = l;
+        }
+        while (smallCount > 0) {
+            int s = small[--smallCount];
+            keep[s] = 1d;
+            alias[s] = s;
+        }
+    }
+
+    /**
+     * @param weight weights to check
+     * @return whether any weight is positive
+     */
+    private static boolean hasPositive(double[] weight) {
+        for (double w : weight) {
+            if (w > 0d) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Standard normal cumulative distribution function.
+     *
+     * @param x point to evaluate
+     * @return {@code P(Z <= x)}
+     */
+    private static double normalCdf(double x) {
+        return 0.5d * (1d + erf(x / Math.sqrt(2d)));
+    }
+
+    /**
+     * Error function (Abramowitz and Stegun 7.1.26, absolute error below 1.5e-7).
+     *
+     * @param x point to evaluate
+     * @return {@code erf(x)}
+     */
+    private static double erf(double x) {
+        double t = 1d / (1d + 0.3275911d * Math.abs(x));
+        double y = 1d - (((((1.061405429d * t - 1.453152027d) * t) + 1.421413741d) * t - 0.284496736d) * t
+                + 0.254829592d) * t * Math.exp(-x * x);
+        return x >= 0d ? y : -y;
+    }
+}
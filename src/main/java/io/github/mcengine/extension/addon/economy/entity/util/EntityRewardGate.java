@@ -0,0 +1,184 @@
+package io.github.mcengine.extension.addon.economy.entity.util;
+
+import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.EntityType;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Event-boundary filter compiled from a {@link EntityRewardTable} and the per-world settings.
+ * <p>
+ * Each world resolves to a bitset over {@link EntityType#ordinal()} holding the types that may pay
+ * a reward there: the rewarded types, minus everything in a disabled world and minus the types
+ * disabled for that world. A death is dropped with one bit test before the killer is resolved or
+ * anything is scheduled. The last world seen is cached by identity, so the usual case needs no
+ * map lookup.
+ */
+public final class EntityRewardGate {
+
+    /**
+     * Per-world enablement from the addon's {@code config.yml}.
+     *
+     * @param enabled       worlds where rewards apply, or empty for every world
+     * @param disabled      worlds where rewards never apply
+     * @param disabledTypes entity types not rewarded in a given world
+     */
+    public record Worlds(Set<String> enabled, Set<String> disabled, Map<String, Set<EntityType>> disabledTypes) {
+
+        /** Rewards in every world. */
+        public static final Worlds ALL = new Worlds(Set.of(), Set.of(), Map.of());
+
+        /**
+         * Reads {@code worlds.enabled}, {@code worlds.disabled} and {@code worlds.disabledTypes.<world>}.
+         * Unknown entity types are skipped with a warning.
+         *
+         * @param config addon configuration
+         * @param logger extension logger
+         * @return the settings
+         */
+        public static Worlds fromConfig(ConfigurationSection config, MCEngineExtensionLogger logger) {
+            Map<String, Set<EntityType>> disabledTypes = new HashMap<>();
+            ConfigurationSection section = config.getConfigurationSection("worlds.disabledTypes");
+            if (section != null) {
+                for (String world : section.getKeys(false)) {
+                    Set<EntityType> types = EnumSet.noneOf(EntityType.class);
+                    for (String name : section.getStringList(world)) {
+                        try {
+                            types.add(EntityType.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                        } catch (IllegalArgumentException e) {
+                            if (logger != null) logger.warning("Unknown entity type '" + name + "' in worlds.disabledTypes." + world);
+                        }
+                    }
+                    disabledTypes.put(world, types);
+                }
+            }
+            return new Worlds(names(config.getStringList("worlds.enabled")), names(config.getStringList("worlds.disabled")),
+                    disabledTypes);
+        }
+
+        /**
+         * @param list configured names, may be {@code null}
+         * @return the names as a set
+         */
+        private static Set<String> names(List<String> list) {
+            return list == null ? Set.of() : Set.copyOf(list);
+        }
+    }
+
+    /**
+     * Last resolved world.
+     *
+     * @param world world instance
+     * @param bits  its type bitset
+     */
+    private record Cached(World world, long[] bits) {}
+
+    /** Compiled reward table. */
+    private final EntityRewardTable table;
+
+    /** Types with a configured reward. */
+    private final long[] rewarded;
+
+    /** Bitsets of worlds with their own settings. */
+    private final Map<String, long[]> byWorld;
+
+    /** Bitset of every other world. */
+    private final long[] otherWorlds;
+
+    /** Whether any type is rewarded at all. */
+    private final boolean empty;
+
+    /** Last resolved world; a stale value only costs one extra lookup. */
+    private Cached cached;
+
+    /**
+     * @param table    compiled reward table
+     * @param rewarded rewarded types
+     * @param byWorld  bitsets of worlds with their own settings
+     * @param other    bitset of every other world
+     */
+    private EntityRewardGate(EntityRewardTable table, long[] rewarded, Map<String, long[]> byWorld, long[] other) {
+        this.table = table;
+        this.rewarded = rewarded;
+        this.byWorld = byWorld;
+        this.otherWorlds = other;
+        boolean any = false;
+        for (long word : rewarded) any |= word != 0L;
+        this.empty = !any;
+    }
+
+    /**
+     * Compiles the gate.
+     *
+     * @param table  compiled reward table
+     * @param worlds per-world settings
+     * @return the gate
+     */
+    public static EntityRewardGate compile(EntityRewardTable table, Worlds worlds) {
+        EntityType[] types = EntityType.values();
+        long[] rewarded = new long[(types.length + 63) >>> 6];
+        for (EntityType type : types) {
+            if (table.get(type) != null) rewarded[type.ordinal() >>> 6] |= 1L << type.ordinal();
+        }
+        long[] none = new long[rewarded.length];
+
+        Map<String, long[]> byWorld = new HashMap<>();
+        for (String world : worlds.enabled()) byWorld.put(world, rewarded);
+        worlds.disabledTypes().forEach((world, disabled) -> {
+            if (!worlds.enabled().isEmpty() && !worlds.enabled().contains(world)) return;
+            long[] bits = rewarded.clone();
+            for (EntityType type : disabled) bits[type.ordinal() >>> 6] &= ~(1L << type.ordinal());
+            byWorld.put(world, bits);
+        });
+        for (String world : worlds.disabled()) byWorld.put(world, none);
+        return new EntityRewardGate(table, rewarded, Map.copyOf(byWorld), worlds.enabled().isEmpty() ? rewarded : none);
+    }
+
+    /**
+     * @return the compiled reward table
+     */
+    public EntityRewardTable table() {
+        return table;
+    }
+
+    /**
+     * @param type entity type
+     * @return whether {@code type} is rewarded in any world
+     */
+    public boolean rewards(EntityType type) {
+        int ordinal = type.ordinal();
+        return (rewarded[ordinal >>> 6] & (1L << ordinal)) != 0L;
+    }
+
+    /**
+     * @param world world of the death
+     * @param type  entity type
+     * @return whether {@code type} may be rewarded in {@code world}
+     */
+    public boolean accepts(World world, EntityType type) {
+        Cached last = cached;
+        long[] bits;
+        if (last != null && last.world() == world) {
+            bits = last.bits();
+        } else {
+            bits = byWorld.getOrDefault(world.getName(), otherWorlds);
+            cached = new Cached(world, bits);
+        }
+        int ordinal = type.ordinal();
+        return (bits[ordinal >>> 6] & (1L << ordinal)) != 0L;
+    }
+
+    /**
+     * @return {@code true} if no entity type is rewarded, so no death listener is needed
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+}
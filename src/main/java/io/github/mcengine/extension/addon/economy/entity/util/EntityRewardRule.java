@@ -0,0 +1,217 @@
+package io.github.mcengine.extension.addon.economy.entity.util;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.event.entity.CreatureSpawnEvent.SpawnReason;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One contextual reward rule, as written in a reward file:
+ * <pre>
+ * rules:
+ *   - spawnReasons: [SPAWNER, SPAWNER_EGG]   # any of; tagged on spawn
+ *     multiplier: 0.1
+ *   - worlds: [world_nether]                 # any of
+ *     time: 13000~23000                      # world time in ticks; may wrap past 24000
+ *     multiplier: 1.5
+ *   - enchantments: ["looting:2"]            # main-hand weapon has any of, at the given minimum level
+ *     multiplier: 1.2
+ *   - permissions: [group.vip]               # killer has any of, e.g. a permission plugin's group node
+ *     multiplier: 2.0
+ *   - worlds: [event_world]
+ *     deny: true                             # same as multiplier: 0
+ * </pre>
+ * Conditions within a rule must all match; omitted conditions always match. The multipliers of
+ * all matching rules are multiplied together. Rules are compiled into an
+ * {@link EntityRewardRules} decision table when the reward table is built.
+ *
+ * @param worlds        world names, or empty for any world
+ * @param spawnReasons  {@link SpawnReason} names, or empty for any
+ * @param enchantments  {@code key[:minLevel]} enchantment conditions, or empty for any weapon
+ * @param permissions   permission nodes, or empty for any killer
+ * @param timeFrom      first world tick of the time window, or {@code -1} for any time
+ * @param timeTo        last world tick of the time window (inclusive)
+ * @param multiplier    reward multiplier applied when the rule matches
+ */
+public record EntityRewardRule(List<String> worlds, List<String> spawnReasons, List<String> enchantments,
+                               List<String> permissions, int timeFrom, int timeTo, double multiplier) {
+
+    /** Ticks in a Minecraft day. */
+    static final int DAY_TICKS = 24000;
+
+    /**
+     * Parses one entry of a reward file's {@code rules} list.
+     *
+     * @param map   raw rule
+     * @param index position in the list, for error messages
+     * @return the validated rule
+     * @throws IllegalArgumentException with a user-facing message if the rule is invalid
+     */
+    public static EntityRewardRule parse(Map<?, ?> map, int index) {
+        String where = "rule #" + (index + 1);
+
+        List<String> spawnReasons = new ArrayList<>();
+        for (String reason : strings(map.get("spawnReasons"))) {
+            String name = reason.toUpperCase(Locale.ROOT);
+            try {
+                SpawnReason.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid spawn reason '" + reason + "' in " + where);
+            }
+            spawnReasons.add(name);
+        }
+
+        List<String> enchantments = new ArrayList<>();
+        for (String enchantment : strings(map.get("enchantments"))) {
+            String normalized = enchantment.toLowerCase(Locale.ROOT);
+            if (parseEnchantment(normalized) == null) {
+                throw new IllegalArgumentException("Invalid enchantment '" + enchantment + "' in " + where
+                        + " (expected key or key:minLevel)");
+            }
+            enchantments.add(normalized);
+        }
+
+        int timeFrom = -1;
+        int timeTo = -1;
+        Object time = map.get("time");
+        if (time != null) {
+            String value = String.valueOf(time);
+            int sep = value.indexOf('~');
+            try {
+                timeFrom = Integer.parseInt((sep < 0 ? value : value.substring(0, sep)).trim());
+                timeTo = sep < 0 ? timeFrom : Integer.parseInt(value.substring(sep + 1).trim());
+            } catch (NumberFormatException e) {
+                timeFrom = -2;
+            }
+            if (timeFrom < 0 || timeFrom >= DAY_TICKS || timeTo < 0 || timeTo >= DAY_TICKS) {
+                throw new IllegalArgumentException("Invalid time '" + value + "' in " + where
+                        + " (expected from~to in world ticks, 0 to 23999)");
+            }
+        }
+
+        double multiplier = 1d;
+        if (Boolean.TRUE.equals(map.get("deny"))) {
+            multiplier = 0d;
+        } else if (map.get("multiplier") instanceof Number n) {
+            multiplier = n.doubleValue();
+        } else if (map.get("multiplier") != null) {
+            multiplier = -1d;
+        }
+        if (!(multiplier >= 0d) || Double.isInfinite(multiplier)) {
+            throw new IllegalArgumentException("Invalid multiplier in " + where + " (expected a non-negative number)");
+        }
+
+        return new EntityRewardRule(List.copyOf(strings(map.get("worlds"))), List.copyOf(spawnReasons),
+                List.copyOf(enchantments), List.copyOf(strings(map.get("permissions"))),
+                timeFrom, timeTo, multiplier);
+    }
+
+    /**
+     * Writes this rule in the reward cache's binary format.
+     *
+     * @param out destination
+     * @throws IOException on write failure
+     */
+    public void write(DataOutput out) throws IOException {
+        writeStrings(out, worlds);
+        writeStrings(out, spawnReasons);
+        writeStrings(out, enchantments);
+        writeStrings(out, permissions);
+        out.writeInt(timeFrom);
+        out.writeInt(timeTo);
+        out.writeDouble(multiplier);
+    }
+
+    /**
+     * Reads a rule written by {@link #write(DataOutput)}.
+     *
+     * @param in source
+     * @return the rule
+     * @throws IOException on read failure
+     */
+    public static EntityRewardRule read(DataInput in) throws IOException {
+        return new EntityRewardRule(readStrings(in), readStrings(in), readStrings(in), readStrings(in),
+                in.readInt(), in.readInt(), in.readDouble());
+    }
+
+    /**
+     * Splits an enchantment condition into its registry key and minimum level.
+     *
+     * @param condition {@code key} or {@code key:minLevel}, lower case; the key may be namespaced
+     * @return the resolved condition, or {@code null} if the key is unknown or the level invalid
+     */
+    static EnchantmentCondition parseEnchantment(String condition) {
+        String key = condition;
+        int minLevel = 1;
+        int sep = condition.lastIndexOf(':');
+        if (sep > 0 && sep < condition.length() - 1 && Character.isDigit(condition.charAt(sep + 1))) {
+            key = condition.substring(0, sep);
+            try {
+                minLevel = Integer.parseInt(condition.substring(sep + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (minLevel < 1) return null;
+        }
+        NamespacedKey namespacedKey = NamespacedKey.fromString(key);
+        if (namespacedKey == null) return null;
+        Enchantment enchantment = Registry.ENCHANTMENT.get(namespacedKey);
+        return enchantment == null ? null : new EnchantmentCondition(enchantment, minLevel);
+    }
+
+    /**
+     * Resolved enchantment condition.
+     *
+     * @param enchantment enchantment to look for on the weapon
+     * @param minLevel    lowest matching level
+     */
+    record EnchantmentCondition(Enchantment enchantment, int minLevel) {}
+
+    /**
+     * @param value a YAML scalar or list
+     * @return its elements as strings; empty if {@code value} is {@code null}
+     */
+    private static List<String> strings(Object value) {
+        List<String> result = new ArrayList<>();
+        if (value instanceof Collection<?> list) {
+            for (Object o : list) {
+                if (o != null) result.add(String.valueOf(o));
+            }
+        } else if (value != null) {
+            result.add(String.valueOf(value));
+        }
+        return result;
+    }
+
+    /**
+     * @param out    destination
+     * @param values strings to write
+     * @throws IOException on write failure
+     */
+    private static void writeStrings(DataOutput out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) out.writeUTF(value);
+    }
+
+    /**
+     * @param in source
+     * @return strings written by {@link #writeStrings(DataOutput, List)}
+     * @throws IOException on read failure
+     */
+    private static List<String> readStrings(DataInput in) throws IOException {
+        int n = in.readInt();
+        if (n < 0 || n > 4096) throw new IOException("Bad list size: " + n);
+        List<String> values = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) values.add(in.readUTF());
+        return List.copyOf(values);
+    }
+}
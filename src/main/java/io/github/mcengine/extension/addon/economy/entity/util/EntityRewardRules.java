@@ -0,0 +1,360 @@
+package io.github.mcengine.extension.addon.economy.entity.util;
+
+import io.github.mcengine.extension.addon.economy.entity.util.EntityRewardRule.EnchantmentCondition;
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.entity.CreatureSpawnEvent.SpawnReason;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contextual reward rules of a whole {@link EntityRewardTable}, compiled into a flat decision
+ * table.
+ * <p>
+ * World names, enchantment conditions and permission nodes referenced by any rule are interned
+ * into bit positions at load time, and spawn reasons map to bits by ordinal. Each rule becomes a
+ * row of bit masks in parallel arrays, and the rules of an entity type are a contiguous slice of
+ * those arrays. Evaluating a kill gathers only the facts that type's rules need, once, and then
+ * tests every row in its slice with a few mask operations; no strings are compared and nothing is
+ * allocated.
+ */
+public final class EntityRewardRules {
+
+    /** Most distinct worlds, enchantment conditions or permissions across all rules. */
+    private static final int MAX_INTERNED = 64;
+
+    /** Fact flags: which facts an entity type's rules need. */
+    private static final int NEED_WORLD = 1;
+    private static final int NEED_SPAWN_REASON = 2;
+    private static final int NEED_TIME = 4;
+    private static final int NEED_ENCHANTMENT = 8;
+    private static final int NEED_PERMISSION = 16;
+
+    /** Number of {@code long} words in one rule's spawn reason mask. */
+    private static final int SPAWN_WORDS = (SpawnReason.values().length + 63) >>> 6;
+
+    /** First rule row of each entity type ordinal; rows of ordinal {@code o} end at {@code start[o + 1]}. */
+    private final int[] start;
+
+    /** {@code NEED_*} flags by entity type ordinal. */
+    private final int[] needs;
+
+    /** Enchantment condition bits used by each entity type, by ordinal. */
+    private final long[] enchantmentsUsed;
+
+    /** Permission bits used by each entity type, by ordinal. */
+    private final long[] permissionsUsed;
+
+    /** Per rule: accepted world bits, or {@code 0} for any world. */
+    private final long[] worldMask;
+
+    /** Per rule: {@link #SPAWN_WORDS} words of accepted spawn reason bits. */
+    private final long[] spawnMask;
+
+    /** Per rule: whether any spawn reason is accepted. */
+    private final boolean[] anySpawnReason;
+
+    /** Per rule: accepted enchantment condition bits, or {@code 0} for any weapon. */
+    private final long[] enchantmentMask;
+
+    /** Per rule: accepted permission bits, or {@code 0} for any killer. */
+    private final long[] permissionMask;
+
+    /** Per rule: first world tick of the time window, or {@code -1} for any time. */
+    private final int[] timeFrom;
+
+    /** Per rule: last world tick of the time window (inclusive). */
+    private final int[] timeTo;
+
+    /** Per rule: multiplier applied when it matches. */
+    private final double[] factor;
+
+    /** World name to bit position. */
+    private final Map<String, Integer> worldBits;
+
+    /** Enchantment of each condition bit; {@code null} if it no longer resolves. */
+    private final Enchantment[] enchantments;
+
+    /** Minimum level of each enchantment condition bit. */
+    private final int[] enchantmentLevels;
+
+    /** Permission node of each permission bit. */
+    private final String[] permissions;
+
+    /** Spawn reasons referenced by any rule, by ordinal; only these are tagged on spawn. */
+    private final boolean[] taggedSpawnReasons;
+
+    /**
+     * Compiles a builder's rules.
+     *
+     * @param builder populated builder
+     */
+    private EntityRewardRules(Builder builder) {
+        int types = builder.byOrdinal.length;
+        int rows = 0;
+        for (List<EntityRewardRule> rules : builder.byOrdinal) {
+            if (rules != null) rows += rules.size();
+        }
+
+        start = new int[types + 1];
+        needs = new int[types];
+        enchantmentsUsed = new long[types];
+        permissionsUsed = new long[types];
+        worldMask = new long[rows];
+        spawnMask = new long[rows * SPAWN_WORDS];
+        anySpawnReason = new boolean[rows];
+        enchantmentMask = new long[rows];
+        permissionMask = new long[rows];
+        timeFrom = new int[rows];
+        timeTo = new int[rows];
+        factor = new double[rows];
+        taggedSpawnReasons = new boolean[SpawnReason.values().length];
+
+        int row = 0;
+        for (int o = 0; o < types; o++) {
+            start[o] = row;
+            List<EntityRewardRule> rules = builder.byOrdinal[o];
+            if (rules == null) continue;
+            for (EntityRewardRule rule : rules) {
+                for (String world : rule.worlds()) {
+                    worldMask[row] |= 1L << builder.worlds.indexOf(world);
+                }
+                anySpawnReason[row] = rule.spawnReasons().isEmpty();
+                for (String reason : rule.spawnReasons()) {
+                    int ordinal = SpawnReason.valueOf(reason).ordinal();
+                    spawnMask[row * SPAWN_WORDS + (ordinal >>> 6)] |= 1L << ordinal;
+                    taggedSpawnReasons[ordinal] = true;
+                }
+                for (String enchantment : rule.enchantments()) {
+                    enchantmentMask[row] |= 1L << builder.enchantments.indexOf(enchantment);
+                }
+                for (String permission : rule.permissions()) {
+                    permissionMask[row] |= 1L << builder.permissions.indexOf(permission);
+                }
+                timeFrom[row] = rule.timeFrom();
+                timeTo[row] = rule.timeTo();
+                factor[row] = rule.multiplier();
+
+                if (worldMask[row] != 0) needs[o] |= NEED_WORLD;
+                if (!anySpawnReason[row]) needs[o] |= NEED_SPAWN_REASON;
+                if (timeFrom[row] >= 0) needs[o] |= NEED_TIME;
+                if (enchantmentMask[row] != 0) needs[o] |= NEED_ENCHANTMENT;
+                if (permissionMask[row] != 0) needs[o] |= NEED_PERMISSION;
+                enchantmentsUsed[o] |= enchantmentMask[row];
+                permissionsUsed[o] |= permissionMask[row];
+                row++;
+            }
+        }
+        start[types] = row;
+
+        worldBits = new HashMap<>();
+        for (int i = 0; i < builder.worlds.size(); i++) worldBits.put(builder.worlds.get(i), i);
+
+        enchantments = new Enchantment[builder.enchantments.size()];
+        enchantmentLevels = new int[enchantments.length];
+        for (int i = 0; i < enchantments.length; i++) {
+            EnchantmentCondition condition = EntityRewardRule.parseEnchantment(builder.enchantments.get(i));
+            enchantments[i] = condition == null ? null : condition.enchantment();
+            enchantmentLevels[i] = condition == null ? Integer.MAX_VALUE : condition.minLevel();
+        }
+
+        permissions = builder.permissions.toArray(new String[0]);
+    }
+
+    /**
+     * @param type entity type
+     * @return whether any rule applies to {@code type}
+     */
+    public boolean has(EntityType type) {
+        return start[type.ordinal()] != start[type.ordinal() + 1];
+    }
+
+    /**
+     * @param reason spawn reason
+     * @return whether entities spawned for {@code reason} must be tagged for rules to see it
+     */
+    public boolean tagsSpawnReason(SpawnReason reason) {
+        return taggedSpawnReasons[reason.ordinal()];
+    }
+
+    /**
+     * @return whether any rule matches on a spawn reason, so spawns need tagging at all
+     */
+    public boolean tagsAnySpawnReason() {
+        for (boolean tagged : taggedSpawnReasons) {
+            if (tagged) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Evaluates the rules of a kill. Must run on the main thread, as it reads the live entity,
+     * world and killer.
+     *
+     * @param type           killed entity type
+     * @param entity         killed entity
+     * @param killer         killing player
+     * @param spawnReasonKey key under which the spawn reason was tagged
+     * @return product of the multipliers of all matching rules; {@code 1} if none match
+     */
+    public double multiplier(EntityType type, LivingEntity entity, Player killer, NamespacedKey spawnReasonKey) {
+        int o = type.ordinal();
+        int from = start[o];
+        int to = start[o + 1];
+        if (from == to) return 1d;
+
+        int need = needs[o];
+        long worldBit = 0L;
+        if ((need & NEED_WORLD) != 0) {
+            Integer bit = worldBits.get(entity.getWorld().getName());
+            if (bit != null) worldBit = 1L << bit;
+        }
+        int reason = -1;
+        if ((need & NEED_SPAWN_REASON) != 0) {
+            reason = spawnReason(entity, spawnReasonKey);
+        }
+        int time = -1;
+        if ((need & NEED_TIME) != 0) {
+            time = (int) (entity.getWorld().getTime() % EntityRewardRule.DAY_TICKS);
+        }
+        long enchantmentBits = 0L;
+        if ((need & NEED_ENCHANTMENT) != 0) {
+            ItemStack weapon = killer.getInventory().getItemInMainHand();
+            for (long used = enchantmentsUsed[o]; used != 0; used &= used - 1) {
+                int bit = Long.numberOfTrailingZeros(used);
+                Enchantment enchantment = enchantments[bit];
+                if (enchantment != null && weapon.getEnchantmentLevel(enchantment) >= enchantmentLevels[bit]) {
+                    enchantmentBits |= 1L << bit;
+                }
+            }
+        }
+        long permissionBits = 0L;
+        if ((need & NEED_PERMISSION) != 0) {
+            for (long used = permissionsUsed[o]; used != 0; used &= used - 1) {
+                int bit = Long.numberOfTrailingZeros(used);
+                if (killer.hasPermission(permissions[bit])) permissionBits |= 1L << bit;
+            }
+        }
+
+        double result = 1d;
+        for (int r = from; r < to; r++) {
+            boolean match = (worldMask[r] == 0L | (worldMask[r] & worldBit) != 0L)
+                    & (anySpawnReason[r] | (reason >= 0 && (spawnMask[r * SPAWN_WORDS + (reason >>> 6)] & (1L << reason)) != 0L))
+                    & (enchantmentMask[r] == 0L | (enchantmentMask[r] & enchantmentBits) != 0L)
+                    & (permissionMask[r] == 0L | (permissionMask[r] & permissionBits) != 0L)
+                    & (timeFrom[r] < 0 | inWindow(time, timeFrom[r], timeTo[r]));
+            if (match) result *= factor[r];
+        }
+        return result;
+    }
+
+    /**
+     * @param entity killed entity
+     * @param key    spawn reason tag key
+     * @return ordinal of the tagged spawn reason, or {@code -1} if untagged
+     */
+    private static int spawnReason(LivingEntity entity, NamespacedKey key) {
+        String name = entity.getPersistentDataContainer().get(key, PersistentDataType.STRING);
+        if (name == null) return -1;
+        try {
+            return SpawnReason.valueOf(name).ordinal();
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @param time world tick, or {@code -1} if unknown
+     * @param from first tick of the window
+     * @param to   last tick of the window; below {@code from} when the window wraps past midnight
+     * @return whether {@code time} is inside the window
+     */
+    private static boolean inWindow(int time, int from, int to) {
+        if (time < 0) return false;
+        return from <= to ? time >= from && time <= to : time >= from || time <= to;
+    }
+
+    /**
+     * Collects rules per entity type while reward files are loaded.
+     */
+    public static final class Builder {
+
+        /** Rules by entity type ordinal. */
+        @SuppressWarnings("unchecked")
+        private final List<EntityRewardRule>[] byOrdinal = (List<EntityRewardRule>[]) new List<?>[EntityType.values().length];
+
+        /** Interned world names in bit order. */
+        private final List<String> worlds = new ArrayList<>();
+
+        /** Interned enchantment conditions in bit order. */
+        private final List<String> enchantments = new ArrayList<>();
+
+        /** Interned permission nodes in bit order. */
+        private final List<String> permissions = new ArrayList<>();
+
+        /**
+         * Sets the rules of an entity type, replacing any previous ones.
+         *
+         * @param type  entity type
+         * @param rules rules in file order; empty to clear
+         * @throws IllegalArgumentException if the rules would exceed the interning limits; the
+         *                                  builder is left unchanged
+         */
+        public void put(EntityType type, List<EntityRewardRule> rules) {
+            List<String> newWorlds = new ArrayList<>();
+            List<String> newEnchantments = new ArrayList<>();
+            List<String> newPermissions = new ArrayList<>();
+            for (EntityRewardRule rule : rules) {
+                collect(rule.worlds(), worlds, newWorlds);
+                collect(rule.enchantments(), enchantments, newEnchantments);
+                collect(rule.permissions(), permissions, newPermissions);
+            }
+            check("worlds", worlds, newWorlds);
+            check("enchantment conditions", enchantments, newEnchantments);
+            check("permissions", permissions, newPermissions);
+
+            worlds.addAll(newWorlds);
+            enchantments.addAll(newEnchantments);
+            permissions.addAll(newPermissions);
+            byOrdinal[type.ordinal()] = rules.isEmpty() ? null : List.copyOf(rules);
+        }
+
+        /**
+         * @return the compiled decision table
+         */
+        public EntityRewardRules build() {
+            return new EntityRewardRules(this);
+        }
+
+        /**
+         * @param values   values referenced by a rule
+         * @param interned values interned so far
+         * @param added    receives values not interned yet
+         */
+        private static void collect(List<String> values, List<String> interned, List<String> added) {
+            for (String value : values) {
+                if (!interned.contains(value) && !added.contains(value)) added.add(value);
+            }
+        }
+
+        /**
+         * @param what     name of the dictionary, for the error message
+         * @param interned values interned so far
+         * @param added    values about to be interned
+         * @throws IllegalArgumentException if the dictionary would overflow
+         */
+        private static void check(String what, List<String> interned, List<String> added) {
+            if (interned.size() + added.size() > MAX_INTERNED) {
+                throw new IllegalArgumentException("Rules reference more than " + MAX_INTERNED + " distinct " + what);
+            }
+        }
+    }
+}
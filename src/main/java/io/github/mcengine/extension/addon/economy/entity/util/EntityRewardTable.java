@@ -0,0 +1,149 @@
+package io.github.mcengine.extension.addon.economy.entity.util;
+
+import io.github.mcengine.extension.addon.economy.entity.util.EntityUtil.RewardConfig;
+import org.bukkit.entity.EntityType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, precompiled reward table indexed by {@link EntityType#ordinal()}.
+ * <p>
+ * Built once by {@link EntityUtil#loadAllMobConfigs} so that looking up a reward on the kill
+ * path is a single array access with no parsing or allocation. Coin types are interned into a
+ * small dictionary so each {@link RewardConfig} also carries a stable integer coin-type id.
+ * Contextual reward rules are compiled alongside into an {@link EntityRewardRules} table.
+ */
+public final class EntityRewardTable {
+
+    /** Reward per entity type ordinal; {@code null} where no reward is configured. */
+    private final RewardConfig[] byOrdinal;
+
+    /** Coin type names indexed by coin-type id. */
+    private final List<String> coinTypes;
+
+    /** Number of configured entity types. */
+    private final int size;
+
+    /** Compiled contextual rules. */
+    private final EntityRewardRules rules;
+
+    /**
+     * Creates a table from a fully populated builder.
+     *
+     * @param byOrdinal rewards indexed by entity type ordinal
+     * @param coinTypes coin type dictionary
+     * @param rules     compiled contextual rules
+     */
+    private EntityRewardTable(RewardConfig[] byOrdinal, List<String> coinTypes, EntityRewardRules rules) {
+        this.byOrdinal = byOrdinal;
+        this.coinTypes = Collections.unmodifiableList(coinTypes);
+        this.rules = rules;
+        int count = 0;
+        for (RewardConfig config : byOrdinal) {
+            if (config != null) count++;
+        }
+        this.size = count;
+    }
+
+    /**
+     * Returns the reward configured for an entity type.
+     *
+     * @param type killed entity type
+     * @return the reward, or {@code null} if none is configured
+     */
+    public RewardConfig get(EntityType type) {
+        return byOrdinal[type.ordinal()];
+    }
+
+    /**
+     * Resolves a coin-type id back to its name.
+     *
+     * @param coinTypeId id assigned at load time
+     * @return the coin type name
+     */
+    public String coinType(int coinTypeId) {
+        return coinTypes.get(coinTypeId);
+    }
+
+    /**
+     * @return unmodifiable coin type dictionary indexed by coin-type id
+     */
+    public List<String> coinTypes() {
+        return coinTypes;
+    }
+
+    /**
+     * @return compiled contextual reward rules
+     */
+    public EntityRewardRules rules() {
+        return rules;
+    }
+
+    /**
+     * @return number of entity types with a configured reward
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} if no reward is configured
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Mutable builder used while loading config files.
+     */
+    public static final class Builder {
+
+        /** Rewards indexed by entity type ordinal. */
+        private final RewardConfig[] byOrdinal = new RewardConfig[EntityType.values().length];
+
+        /** Coin type names in id order. */
+        private final List<String> coinTypes = new ArrayList<>();
+
+        /** Contextual rules per entity type. */
+        private final EntityRewardRules.Builder rules = new EntityRewardRules.Builder();
+
+        /**
+         * Returns the id for a coin type, assigning the next free id on first use.
+         *
+         * @param coinType coin type name
+         * @return interned coin-type id
+         */
+        public int internCoinType(String coinType) {
+            int id = coinTypes.indexOf(coinType);
+            if (id >= 0) return id;
+            coinTypes.add(coinType);
+            return coinTypes.size() - 1;
+        }
+
+        /**
+         * Sets the reward and rules for an entity type, replacing any previous ones.
+         *
+         * @param type   entity type
+         * @param config compiled reward
+         * @param rules  contextual rules for {@code type}
+         * @return the previous reward for {@code type}, or {@code null}
+         * @throws IllegalArgumentException if the rules exceed the rule table's limits; nothing
+         *                                  is replaced in that case
+         */
+        public RewardConfig put(EntityType type, RewardConfig config, List<EntityRewardRule> rules) {
+            this.rules.put(type, rules);
+            RewardConfig previous = byOrdinal[type.ordinal()];
+            byOrdinal[type.ordinal()] = config;
+            return previous;
+        }
+
+        /**
+         * @return an immutable table holding the current contents
+         */
+        public EntityRewardTable build() {
+            return new EntityRewardTable(byOrdinal.clone(), new ArrayList<>(coinTypes), rules.build());
+        }
+    }
+}
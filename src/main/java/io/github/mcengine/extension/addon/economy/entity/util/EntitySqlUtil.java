@@ -0,0 +1,75 @@
+package io.github.mcengine.extension.addon.economy.entity.util;
+
+/**
+ * Helpers for building SQL text for the unified Economy DB API, which only accepts raw
+ * statement strings.
+ */
+public class EntitySqlUtil {
+
+    /**
+     * Appends {@code value} to {@code sql} as a single-quoted SQL string literal.
+     *
+     * @param sql   builder receiving the literal
+     * @param value raw value ({@code null} is written as an empty string)
+     * @return the same builder
+     */
+    public static StringBuilder appendLiteral(StringBuilder sql, String value) {
+        sql.append('\'');
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '\'') sql.append('\'');
+                sql.append(c);
+            }
+        }
+        return sql.append('\'');
+    }
+
+    /**
+     * Appends a UUID string as a 16-byte hex blob literal ({@code X'...'}), or {@code NULL} if the
+     * value is not a UUID. Used by dialects that store UUIDs as {@code BINARY(16)}/{@code BLOB}.
+     *
+     * @param sql  builder receiving the literal
+     * @param uuid UUID in canonical or undashed form
+     * @return the same builder
+     */
+    public static StringBuilder appendUuidBlob(StringBuilder sql, String uuid) {
+        if (uuid == null) return sql.append("NULL");
+        int mark = sql.length();
+        sql.append("X'");
+        int digits = 0;
+        for (int i = 0; i < uuid.length(); i++) {
+            char c = uuid.charAt(i);
+            if (c == '-') continue;
+            if (Character.digit(c, 16) < 0 || ++digits > 32) {
+                sql.setLength(mark);
+                return sql.append("NULL");
+            }
+            sql.append(Character.toLowerCase(c));
+        }
+        if (digits != 32) {
+            sql.setLength(mark);
+            return sql.append("NULL");
+        }
+        return sql.append('\'');
+    }
+
+    /**
+     * Checks whether a string is a canonical, dashed UUID.
+     *
+     * @param value candidate
+     * @return {@code true} if {@code value} has the 8-4-4-4-12 hex layout
+     */
+    public static boolean isUuid(String value) {
+        if (value == null || value.length() != 36) return false;
+        for (int i = 0; i < 36; i++) {
+            char c = value.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') return false;
+            } else if (Character.digit(c, 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,14 +1,24 @@
 package io.github.mcengine.extension.addon.economy.entity.util;
 
 import io.github.mcengine.api.core.extension.logger.MCEngineExtensionLogger;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.entity.EntityType;
 import org.bukkit.plugin.Plugin;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+import java.util.stream.Stream;
 
 /**
  * Utility class for handling entity reward configurations.
@@ -16,6 +26,12 @@ import java.util.*;
  */
 public class EntityUtil {
 
+    /** Content-hash cache file, relative to the addon config folder. */
+    private static final String CACHE_FILE = ".cache/reward-index.bin";
+
+    /** Upper bound on threads used to read and parse reward files. */
+    private static final int MAX_LOAD_THREADS = 4;
+
     /**
      * Creates example YAML configuration files for ZOMBIE and SKELETON
      * inside the "default" directory if they do not already exist.
@@ -57,89 +73,181 @@ public class EntityUtil {
     }
 
     /**
-     * Loads all reward configuration files from the "default" folder
-     * and maps them to their respective entity types.
+     * Loads all reward configuration files from the "default" folder and compiles them into
+     * an {@link EntityRewardTable}. Amount ranges are parsed and validated here so that malformed
+     * files are reported at startup instead of failing on the kill path.
+     * <p>
+     * Files are discovered with NIO and read and parsed in parallel on a small bounded pool.
+     * Files whose content hash is found in the {@link EntityRewardCache} are not parsed again.
+     * Results are merged in path order, so later files still replace earlier duplicates
+     * deterministically.
      *
      * @param plugin     The plugin instance.
      * @param folderPath The folder path relative to the plugin's data folder.
      * @param logger     Logger for reporting invalid configs or errors.
-     * @return A map of EntityType to its RewardConfig.
+     * @return The compiled reward table.
      */
-    public static Map<EntityType, RewardConfig> loadAllMobConfigs(Plugin plugin, String folderPath, MCEngineExtensionLogger logger) {
-        Map<EntityType, RewardConfig> rewardMap = new HashMap<>();
-        File defaultDir = new File(plugin.getDataFolder(), folderPath + "/default");
-
-        if (!defaultDir.exists()) {
-            logger.warning("Directory not found: " + defaultDir.getAbsolutePath());
-            return rewardMap;
+    public static EntityRewardTable loadAllMobConfigs(Plugin plugin, String folderPath, MCEngineExtensionLogger logger) {
+        long start = System.nanoTime();
+        EntityRewardTable.Builder table = new EntityRewardTable.Builder();
+        Path defaultDir = new File(plugin.getDataFolder(), folderPath + "/default").toPath();
+
+        if (!Files.isDirectory(defaultDir)) {
+            logger.warning("Directory not found: " + defaultDir.toAbsolutePath());
+            return table.build();
         }
 
-        logger.info("Loading configs from: " + defaultDir.getAbsolutePath());
-
-        List<File> yamlFiles = new ArrayList<>();
-        collectYamlFiles(defaultDir, yamlFiles);
-
-        for (File file : yamlFiles) {
-            logger.info("Reading file: " + file.getName());
+        List<Path> yamlFiles;
+        try (Stream<Path> walk = Files.walk(defaultDir)) {
+            yamlFiles = walk
+                    .filter(Files::isRegularFile)
+                    .filter(p -> p.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".yml"))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            logger.warning("Failed to scan " + defaultDir.toAbsolutePath() + ": " + e.getMessage());
+            return table.build();
+        }
 
-            YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
-            String entityStr = config.getString("entity", "").toUpperCase(Locale.ROOT);
-            String coinType = config.getString("coinType", "coin");
-            String amountRange = config.getString("amount", "0");
+        Path cacheFile = new File(plugin.getDataFolder(), folderPath + "/" + CACHE_FILE).toPath();
+        Map<String, EntityRewardCache.Entry> cache = EntityRewardCache.load(cacheFile, logger);
+        List<LoadedFile> loaded = loadFiles(yamlFiles, cache);
+
+        Map<String, EntityRewardCache.Entry> nextCache = new HashMap<>();
+        int parsed = 0;
+        for (LoadedFile file : loaded) {
+            String name = defaultDir.relativize(file.path()).toString();
+            if (file.entry() == null) {
+                logger.warning("Failed to read " + name + ": " + file.readError());
+                continue;
+            }
+            nextCache.put(file.hash(), file.entry());
+            if (!file.cached()) parsed++;
 
+            EntityRewardDefinition definition = file.entry().definition();
+            if (definition == null) {
+                logger.warning(file.entry().error() + " in " + name);
+                continue;
+            }
             try {
-                EntityType type = EntityType.valueOf(entityStr);
-                rewardMap.put(type, new RewardConfig(coinType, amountRange));
-                logger.info("Loaded reward for: " + type.name() + " => " + coinType + " " + amountRange);
+                if (table.put(definition.entityType(), definition.compile(table), definition.rules()) != null) {
+                    logger.warning("Duplicate reward for " + definition.entityType().name() + " in " + name + "; previous entry replaced.");
+                }
             } catch (IllegalArgumentException e) {
-                logger.warning("Invalid entity type in " + file.getName() + ": " + entityStr);
+                logger.warning(e.getMessage() + " in " + name);
             }
         }
 
-        return rewardMap;
+        if (parsed > 0 || !nextCache.keySet().equals(cache.keySet())) {
+            EntityRewardCache.save(cacheFile, nextCache, logger);
+        }
+
+        EntityRewardTable result = table.build();
+        logger.info("Loaded " + result.size() + " entity rewards from " + yamlFiles.size() + " files ("
+                + parsed + " parsed, " + (yamlFiles.size() - parsed) + " cached) in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+        return result;
     }
 
     /**
-     * Recursively collects all .yml files in a given directory.
+     * Reads, hashes and (on cache miss) parses files, in parallel when there are enough of them.
      *
-     * @param dir     The root directory to search.
-     * @param outList The output list to fill with found YAML files.
+     * @param files files to load, in merge order
+     * @param cache content hash to previously compiled entry
+     * @return one result per file, in the same order as {@code files}
      */
-    private static void collectYamlFiles(File dir, List<File> outList) {
-        File[] files = dir.listFiles();
-        if (files == null) return;
-
-        for (File f : files) {
-            if (f.isDirectory()) {
-                collectYamlFiles(f, outList);
-            } else if (f.getName().toLowerCase().endsWith(".yml")) {
-                outList.add(f);
+    private static List<LoadedFile> loadFiles(List<Path> files, Map<String, EntityRewardCache.Entry> cache) {
+        int threads = Math.min(MAX_LOAD_THREADS, Math.min(files.size() / 4, Runtime.getRuntime().availableProcessors()));
+        if (threads <= 1) {
+            List<LoadedFile> results = new ArrayList<>(files.size());
+            for (Path file : files) results.add(loadFile(file, cache));
+            return results;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "MCEngineEntity-ConfigLoader");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<LoadedFile>> futures = new ArrayList<>(files.size());
+            for (Path file : files) futures.add(pool.submit(() -> loadFile(file, cache)));
+
+            List<LoadedFile> results = new ArrayList<>(files.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    results.add(new LoadedFile(files.get(i), null, null, false, String.valueOf(e.getCause())));
+                }
             }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } finally {
+            pool.shutdownNow();
         }
     }
 
     /**
-     * Record holding reward configuration for a specific entity.
+     * Reads and hashes one file, parsing it only when its hash is not cached.
      *
-     * @param coinType    The type of coin to reward.
-     * @param amountRange The amount range (e.g., "100~200" or "50").
+     * @param file  file to load
+     * @param cache content hash to previously compiled entry (read-only here)
+     * @return the load result
      */
-    public record RewardConfig(String coinType, String amountRange) {
+    private static LoadedFile loadFile(Path file, Map<String, EntityRewardCache.Entry> cache) {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (IOException e) {
+            return new LoadedFile(file, null, null, false, e.getMessage());
+        }
+
+        String hash = EntityRewardCache.hash(content);
+        EntityRewardCache.Entry cached = cache.get(hash);
+        if (cached != null) return new LoadedFile(file, hash, cached, true, null);
+
+        YamlConfiguration config = new YamlConfiguration();
+        EntityRewardCache.Entry entry;
+        try {
+            config.loadFromString(new String(content, StandardCharsets.UTF_8));
+            entry = new EntityRewardCache.Entry(EntityRewardDefinition.parse(config), null);
+        } catch (InvalidConfigurationException | IllegalArgumentException e) {
+            entry = new EntityRewardCache.Entry(null, e.getMessage());
+        }
+        return new LoadedFile(file, hash, entry, false, null);
+    }
+
+    /**
+     * Outcome of loading one file.
+     *
+     * @param path      file path
+     * @param hash      content hash, or {@code null} if unreadable
+     * @param entry     compiled entry, or {@code null} if unreadable
+     * @param cached    whether {@code entry} came from the cache
+     * @param readError read failure message, or {@code null}
+     */
+    private record LoadedFile(Path path, String hash, EntityRewardCache.Entry entry, boolean cached, String readError) {}
+
+    /**
+     * Immutable, precompiled reward for a specific entity.
+     *
+     * @param coinType     The type of coin to reward.
+     * @param coinTypeId   Interned id of {@code coinType} within its {@link EntityRewardTable}.
+     * @param distribution Precompiled reward amount distribution.
+     */
+    public record RewardConfig(String coinType, int coinTypeId, EntityRewardDistribution distribution) {
 
         /**
-         * Returns a randomly selected reward amount based on the configured range.
+         * Returns a randomly selected reward amount from the configured distribution.
          *
-         * @param random Random instance to use.
-         * @return A reward value within the specified range.
+         * @param random Generator of the calling thread, e.g. {@link java.util.concurrent.ThreadLocalRandom#current()}.
+         * @return A reward value drawn from the distribution.
          */
-        public int getRandomAmount(Random random) {
-            if (amountRange.contains("~")) {
-                String[] parts = amountRange.split("~");
-                int min = Integer.parseInt(parts[0].trim());
-                int max = Integer.parseInt(parts[1].trim());
-                return min + random.nextInt(max - min + 1);
-            }
-            return Integer.parseInt(amountRange.trim());
+        public int getRandomAmount(RandomGenerator random) {
+            return distribution.sample(random);
         }
     }
 }